@@ -0,0 +1,150 @@
+package hr.abysalto.hiring.mid.client;
+
+import hr.abysalto.hiring.mid.configuration.DummyJsonSettings;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker for DummyJSON calls. Opens when the failure rate or the
+ * slow-call rate over the last {@code windowSize} calls crosses its threshold, rejects
+ * calls while open, then lets a few probe calls through to decide whether to close.
+ */
+@Slf4j
+@Component
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final DummyJsonSettings.Breaker settings;
+    private final LongSupplier nanoClock;
+
+    private final boolean[] failures;
+    private final boolean[] slowCalls;
+    private int position;
+    private int recorded;
+    private int failureCount;
+    private int slowCount;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int probesLeft;
+    private int probeSuccesses;
+
+    @Autowired
+    public CircuitBreaker(DummyJsonSettings settings, MeterRegistry meterRegistry) {
+        this(settings.getClient().getBreaker(), System::nanoTime);
+        Gauge.builder("dummyjson.circuit.state", this, breaker -> breaker.getState().ordinal())
+                .description("0 = closed, 1 = open, 2 = half-open")
+                .register(meterRegistry);
+    }
+
+    CircuitBreaker(DummyJsonSettings.Breaker settings, LongSupplier nanoClock) {
+        this.settings = settings;
+        this.nanoClock = nanoClock;
+        this.failures = new boolean[settings.getWindowSize()];
+        this.slowCalls = new boolean[settings.getWindowSize()];
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && openElapsed()) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    public synchronized double getFailureRate() {
+        return recorded == 0 ? 0 : failureCount * 100.0 / recorded;
+    }
+
+    public synchronized double getSlowCallRate() {
+        return recorded == 0 ? 0 : slowCount * 100.0 / recorded;
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (!openElapsed()) {
+                return false;
+            }
+            transition(State.HALF_OPEN);
+            probesLeft = settings.getHalfOpenCalls();
+            probeSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesLeft == 0) {
+                return false;
+            }
+            probesLeft--;
+        }
+        return true;
+    }
+
+    public synchronized void onResult(boolean failed, long durationNanos) {
+        boolean slow = durationNanos >= settings.getSlowCallDuration().toNanos();
+
+        switch (state) {
+            case HALF_OPEN -> {
+                if (failed || slow) {
+                    open();
+                } else if (++probeSuccesses >= settings.getHalfOpenCalls()) {
+                    resetWindow();
+                    transition(State.CLOSED);
+                }
+            }
+            case CLOSED -> {
+                record(failed, slow);
+                if (recorded >= settings.getMinimumCalls()
+                        && (getFailureRate() >= settings.getFailureRateThreshold()
+                        || getSlowCallRate() >= settings.getSlowCallRateThreshold())) {
+                    open();
+                }
+            }
+            case OPEN -> {
+                // late result of a call admitted before the breaker opened
+            }
+        }
+    }
+
+    private void record(boolean failed, boolean slow) {
+        if (recorded == failures.length) {
+            failureCount -= failures[position] ? 1 : 0;
+            slowCount -= slowCalls[position] ? 1 : 0;
+        } else {
+            recorded++;
+        }
+        failures[position] = failed;
+        slowCalls[position] = slow;
+        failureCount += failed ? 1 : 0;
+        slowCount += slow ? 1 : 0;
+        position = (position + 1) % failures.length;
+    }
+
+    private void open() {
+        openedAt = nanoClock.getAsLong();
+        transition(State.OPEN);
+    }
+
+    private boolean openElapsed() {
+        return nanoClock.getAsLong() - openedAt >= settings.getOpenDuration().toNanos();
+    }
+
+    private void resetWindow() {
+        position = 0;
+        recorded = 0;
+        failureCount = 0;
+        slowCount = 0;
+    }
+
+    private void transition(State next) {
+        if (state != next) {
+            log.warn("DummyJSON circuit breaker {} -> {}", state, next);
+            state = next;
+        }
+    }
+}
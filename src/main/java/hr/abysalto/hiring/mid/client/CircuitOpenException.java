@@ -0,0 +1,8 @@
+package hr.abysalto.hiring.mid.client;
+
+public class CircuitOpenException extends DummyJsonClientException {
+
+    public CircuitOpenException(String message) {
+        super(message, 0, null);
+    }
+}
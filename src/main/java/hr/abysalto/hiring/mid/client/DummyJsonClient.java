@@ -0,0 +1,148 @@
+package hr.abysalto.hiring.mid.client;
+
+import hr.abysalto.hiring.mid.configuration.DummyJsonSettings;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Blocking client for the DummyJSON API on top of a pooled Apache HttpClient. Each attempt
+ * has a hard deadline covering connection lease, response and body streaming; when it
+ * elapses the exchange is aborted and the connection is discarded. Attempts go through
+ * the {@link CircuitBreaker}, and upstream faults are retried while the retry budget allows.
+ */
+@Component
+public class DummyJsonClient {
+
+    private final CloseableHttpClient httpClient;
+    private final DummyJsonSettings settings;
+    private final CircuitBreaker circuitBreaker;
+    private final RetryBudget retryBudget;
+    private final MeterRegistry meterRegistry;
+    private final ScheduledExecutorService deadlineScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dummyjson-deadline");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public DummyJsonClient(CloseableHttpClient dummyJsonHttpClient, DummyJsonSettings settings,
+                           CircuitBreaker circuitBreaker, MeterRegistry meterRegistry) {
+        this.httpClient = dummyJsonHttpClient;
+        this.settings = settings;
+        this.circuitBreaker = circuitBreaker;
+        this.retryBudget = new RetryBudget(settings.getClient().getRetry().getBudgetRatio(),
+                settings.getClient().getRetry().getBudgetCapacity());
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T get(String operation, String pathAndQuery, BodyReader<T> bodyReader) {
+        DummyJsonSettings.Retry retry = settings.getClient().getRetry();
+        retryBudget.onRequest();
+
+        for (int attempt = 1; ; attempt++) {
+            if (!circuitBreaker.tryAcquire()) {
+                meterRegistry.counter("dummyjson.client.rejected", "operation", operation).increment();
+                throw new CircuitOpenException("DummyJSON circuit breaker is open, rejected " + pathAndQuery);
+            }
+
+            try {
+                return exchange(operation, pathAndQuery, bodyReader);
+            } catch (DummyJsonClientException e) {
+                if (e.isClientError() || attempt >= retry.getMaxAttempts()) {
+                    throw e;
+                }
+                if (!retryBudget.tryWithdraw()) {
+                    meterRegistry.counter("dummyjson.client.retries", "operation", operation, "outcome", "budget_exhausted").increment();
+                    throw e;
+                }
+                meterRegistry.counter("dummyjson.client.retries", "operation", operation, "outcome", "attempted").increment();
+                backOff(retry.getBackoff().multipliedBy(attempt), e);
+            }
+        }
+    }
+
+    private <T> T exchange(String operation, String pathAndQuery, BodyReader<T> bodyReader) {
+        HttpGet request = new HttpGet(settings.getBaseUrl() + pathAndQuery);
+        request.setHeader(HttpHeaders.ACCEPT, "application/json");
+
+        Duration deadline = settings.getClient().deadlineFor(operation);
+        AtomicBoolean expired = new AtomicBoolean();
+        ScheduledFuture<?> watchdog = deadlineScheduler.schedule(() -> {
+            expired.set(true);
+            request.cancel();
+        }, deadline.toMillis(), TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        String outcome = "success";
+        try {
+            return httpClient.execute(request, response -> {
+                int code = response.getCode();
+                HttpEntity entity = response.getEntity();
+                if (code >= 300) {
+                    EntityUtils.consume(entity);
+                    throw new DummyJsonClientException("DummyJSON responded " + code + " for " + pathAndQuery, code, null);
+                }
+                if (entity == null) {
+                    throw new DummyJsonClientException("DummyJSON returned an empty body for " + pathAndQuery, code, null);
+                }
+                try (InputStream body = entity.getContent()) {
+                    return bodyReader.read(body);
+                }
+            });
+        } catch (DummyJsonClientException e) {
+            outcome = e.isClientError() ? "client_error" : "server_error";
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            if (expired.get()) {
+                outcome = "timeout";
+                throw new DummyJsonClientException("DummyJSON call exceeded its " + deadline.toMillis() + " ms deadline: " + pathAndQuery, 0, e);
+            }
+            outcome = "io_error";
+            throw new DummyJsonClientException("DummyJSON call failed: " + pathAndQuery, 0, e);
+        } finally {
+            watchdog.cancel(false);
+            long elapsed = System.nanoTime() - start;
+            circuitBreaker.onResult(!outcome.equals("success") && !outcome.equals("client_error"), elapsed);
+            Timer.builder("dummyjson.client.requests")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void backOff(Duration delay, DummyJsonClientException failure) {
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw failure;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deadlineScheduler.shutdownNow();
+    }
+
+    @FunctionalInterface
+    public interface BodyReader<T> {
+        T read(InputStream body) throws IOException;
+    }
+}
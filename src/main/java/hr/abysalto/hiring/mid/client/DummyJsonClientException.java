@@ -0,0 +1,18 @@
+package hr.abysalto.hiring.mid.client;
+
+import lombok.Getter;
+
+@Getter
+public class DummyJsonClientException extends RuntimeException {
+
+    private final int statusCode;
+
+    public DummyJsonClientException(String message, int statusCode, Throwable cause) {
+        super(message, cause);
+        this.statusCode = statusCode;
+    }
+
+    public boolean isClientError() {
+        return statusCode >= 400 && statusCode < 500;
+    }
+}
@@ -0,0 +1,30 @@
+package hr.abysalto.hiring.mid.client;
+
+/**
+ * Token bucket that caps retries at a fraction of first attempts, so a struggling
+ * upstream never sees more than roughly {@code (1 + ratio)} times the normal load.
+ */
+class RetryBudget {
+
+    private final double ratio;
+    private final double capacity;
+    private double tokens;
+
+    RetryBudget(double ratio, int capacity) {
+        this.ratio = ratio;
+        this.capacity = capacity;
+        this.tokens = capacity;
+    }
+
+    synchronized void onRequest() {
+        tokens = Math.min(capacity, tokens + ratio);
+    }
+
+    synchronized boolean tryWithdraw() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+}
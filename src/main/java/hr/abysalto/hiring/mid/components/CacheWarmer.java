@@ -0,0 +1,158 @@
+package hr.abysalto.hiring.mid.components;
+
+import hr.abysalto.hiring.mid.configuration.CacheSettings;
+import hr.abysalto.hiring.mid.repository.FavoriteRepository;
+import hr.abysalto.hiring.mid.service.ProductCatalogService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fills the catalog caches after startup so the first requests after a deploy do not
+ * all go upstream. With the catalog replica enabled it waits for the replica's first
+ * sync, so the caches are filled from the local copy. Runs in the background; readiness
+ * reports DOWN until it finishes or its timeout elapses.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheWarmer {
+
+    public enum State {
+        PENDING, RUNNING, COMPLETED, TIMED_OUT, DISABLED
+    }
+
+    @Value("${catalog.replica.enabled:true}")
+    private boolean replicaEnabled;
+
+    private final CacheSettings cacheSettings;
+    private final CatalogReplica catalogReplica;
+    private final ProductCatalogService productCatalogService;
+    private final FavoriteRepository favoriteRepository;
+    private final FanOutExecutor fanOutExecutor;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicInteger pagesWarmed = new AtomicInteger();
+    private final AtomicInteger productsWarmed = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    private volatile State state = State.PENDING;
+    private volatile Duration duration = Duration.ZERO;
+    private boolean applicationReady;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void onApplicationReady() {
+        applicationReady = true;
+        if (!cacheSettings.getWarmup().isEnabled()) {
+            state = State.DISABLED;
+            return;
+        }
+        startWhenReady();
+    }
+
+    @EventListener(CatalogReadyEvent.class)
+    public synchronized void onCatalogReady() {
+        startWhenReady();
+    }
+
+    /**
+     * @return whether the replica, when enabled, has finished its first sync
+     */
+    public boolean isCatalogReady() {
+        return !replicaEnabled || catalogReplica.isReady();
+    }
+
+    private void startWhenReady() {
+        // a page read before the replica is loaded would go upstream
+        if (state != State.PENDING || !applicationReady || !isCatalogReady()) {
+            return;
+        }
+
+        state = State.RUNNING;
+        Thread thread = new Thread(this::warmUp, "cache-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void warmUp() {
+        CacheSettings.Warmup warmup = cacheSettings.getWarmup();
+        state = State.RUNNING;
+        long start = System.nanoTime();
+
+        List<CompletableFuture<?>> tasks = new ArrayList<>();
+        try {
+            for (String sort : warmup.getSorts()) {
+                String[] parts = sort.split(":");
+                String sortBy = "default".equals(parts[0]) ? null : parts[0];
+                String order = parts.length > 1 ? parts[1] : "asc";
+                for (int page = 0; page < warmup.getPages(); page++) {
+                    int skip = page * warmup.getPageSize();
+                    tasks.add(track(fanOutExecutor.submit(() ->
+                            productCatalogService.getProducts(warmup.getPageSize(), skip, sortBy, order)), pagesWarmed));
+                }
+            }
+
+            for (Long productId : favoriteRepository.findMostFavoritedProductIds(warmup.getTopProducts())) {
+                tasks.add(track(fanOutExecutor.submit(() -> productCatalogService.getProduct(productId)), productsWarmed));
+            }
+
+            CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new))
+                    .get(warmup.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            state = State.COMPLETED;
+        } catch (TimeoutException e) {
+            state = State.TIMED_OUT;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            state = State.TIMED_OUT;
+        } catch (ExecutionException | RuntimeException e) {
+            // individual failures are counted by track(); this only guards the scheduling itself
+            log.warn("Cache warm-up aborted: {}", e.getMessage());
+            state = State.COMPLETED;
+        } finally {
+            duration = Duration.ofNanos(System.nanoTime() - start);
+            meterRegistry.timer("cache.warmup.duration", "state", state.name().toLowerCase()).record(duration);
+            log.info("Cache warm-up {} in {} ms: {} pages, {} products, {} failed",
+                    state.name().toLowerCase(), duration.toMillis(), pagesWarmed.get(), productsWarmed.get(), failures.get());
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isFinished() {
+        return state == State.COMPLETED || state == State.TIMED_OUT || state == State.DISABLED;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public int getPagesWarmed() {
+        return pagesWarmed.get();
+    }
+
+    public int getProductsWarmed() {
+        return productsWarmed.get();
+    }
+
+    public int getFailures() {
+        return failures.get();
+    }
+
+    private CompletableFuture<?> track(CompletableFuture<?> task, AtomicInteger successes) {
+        return task.handle((result, error) -> (error == null ? successes : failures).incrementAndGet());
+    }
+}
@@ -0,0 +1,26 @@
+package hr.abysalto.hiring.mid.components;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+@Component("cacheWarmup")
+@RequiredArgsConstructor
+public class CacheWarmupHealthIndicator implements HealthIndicator {
+
+    private final CacheWarmer cacheWarmer;
+
+    @Override
+    public Health health() {
+        Health.Builder health = cacheWarmer.isFinished() && cacheWarmer.isCatalogReady() ? Health.up() : Health.down();
+        return health
+                .withDetail("catalogReady", cacheWarmer.isCatalogReady())
+                .withDetail("state", cacheWarmer.getState())
+                .withDetail("durationMs", cacheWarmer.getDuration().toMillis())
+                .withDetail("pages", cacheWarmer.getPagesWarmed())
+                .withDetail("products", cacheWarmer.getProductsWarmed())
+                .withDetail("failures", cacheWarmer.getFailures())
+                .build();
+    }
+}
@@ -0,0 +1,236 @@
+package hr.abysalto.hiring.mid.components;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of cart changes, split into numbered segment files. Each record is
+ * framed as length, CRC32 and payload; replay stops at the first short or corrupt record,
+ * which is where a crash interrupted the last write. Records carry the resulting state of
+ * a cart line rather than a delta, so replaying one that was already flushed is harmless.
+ */
+public class CartWriteLog implements AutoCloseable {
+
+    private static final String SEGMENT_PREFIX = "cart-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_BYTES = 8;
+
+    private final Path directory;
+    private final boolean syncOnWrite;
+
+    private long segmentNumber;
+    private Path segment;
+    private FileChannel channel;
+
+    public CartWriteLog(Path directory, boolean syncOnWrite) {
+        this.directory = directory;
+        this.syncOnWrite = syncOnWrite;
+        try {
+            Files.createDirectories(directory);
+            List<Path> existing = segments();
+            segmentNumber = existing.isEmpty() ? 0 : number(existing.get(existing.size() - 1));
+            openNextSegment();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open cart write log in " + directory, e);
+        }
+    }
+
+    public synchronized void append(Record record) {
+        byte[] payload = record.encode();
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + payload.length)
+                .putInt(payload.length)
+                .putInt((int) crc.getValue())
+                .put(payload)
+                .flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (syncOnWrite) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to cart write log " + segment, e);
+        }
+    }
+
+    /**
+     * Closes the current segment and starts a new one.
+     *
+     * @return every segment before the new one, oldest first
+     */
+    public synchronized List<Path> rotate() {
+        try {
+            channel.force(false);
+            channel.close();
+            openNextSegment();
+            List<Path> sealed = new ArrayList<>(segments());
+            sealed.remove(segment);
+            return sealed;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot rotate cart write log in " + directory, e);
+        }
+    }
+
+    /**
+     * Feeds every intact record of the sealed segments to {@code consumer}, oldest first.
+     */
+    public synchronized void replay(Consumer<Record> consumer) {
+        try {
+            for (Path sealed : segments()) {
+                if (!sealed.equals(segment)) {
+                    replay(sealed, consumer);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot replay cart write log in " + directory, e);
+        }
+    }
+
+    public synchronized void delete(List<Path> sealed) {
+        for (Path path : sealed) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot delete cart write log segment " + path, e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close cart write log " + segment, e);
+        }
+    }
+
+    private void replay(Path path, Consumer<Record> consumer) throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(path));
+        while (data.remaining() >= HEADER_BYTES) {
+            int length = data.getInt();
+            int checksum = data.getInt();
+            if (length < 0 || length > data.remaining()) {
+                return;
+            }
+            byte[] payload = new byte[length];
+            data.get(payload);
+
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                return;
+            }
+
+            Record record;
+            try {
+                record = Record.decode(payload);
+            } catch (BufferUnderflowException e) {
+                // a frame too short for a whole record is as unusable as a corrupt one
+                return;
+            }
+            consumer.accept(record);
+        }
+    }
+
+    private void openNextSegment() throws IOException {
+        segmentNumber++;
+        segment = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segmentNumber, SEGMENT_SUFFIX));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long number(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    public enum Operation {
+        /** The line now has exactly these values. */
+        SET,
+        /** The line is gone. */
+        REMOVE,
+        /** Every line of the user's cart is gone. */
+        CLEAR
+    }
+
+    public record Record(Operation operation, long userId, long productId, String productTitle,
+                         long productPriceCents, int quantity, LocalDateTime addedAt, boolean outOfStock) {
+
+        public static Record set(long userId, long productId, String productTitle, long productPriceCents,
+                                 int quantity, LocalDateTime addedAt, boolean outOfStock) {
+            return new Record(Operation.SET, userId, productId, productTitle, productPriceCents, quantity, addedAt, outOfStock);
+        }
+
+        public static Record remove(long userId, long productId) {
+            return new Record(Operation.REMOVE, userId, productId, null, 0, 0, null, false);
+        }
+
+        public static Record clear(long userId) {
+            return new Record(Operation.CLEAR, userId, 0, null, 0, 0, null, false);
+        }
+
+        private byte[] encode() {
+            byte[] title = productTitle == null ? new byte[0] : productTitle.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer buffer = ByteBuffer.allocate(1 + 8 + 8 + 8 + 4 + 8 + 4 + 1 + 4 + title.length + 1)
+                    .put((byte) operation.ordinal())
+                    .putLong(userId)
+                    .putLong(productId)
+                    .putLong(productPriceCents)
+                    .putInt(quantity)
+                    .putLong(addedAt == null ? 0 : addedAt.toEpochSecond(ZoneOffset.UTC))
+                    .putInt(addedAt == null ? 0 : addedAt.getNano())
+                    .put((byte) (productTitle == null ? 0 : 1))
+                    .putInt(title.length)
+                    .put(title)
+                    .put((byte) (outOfStock ? 1 : 0));
+            return buffer.array();
+        }
+
+        private static Record decode(byte[] payload) {
+            ByteBuffer buffer = ByteBuffer.wrap(payload);
+            Operation operation = Operation.values()[buffer.get()];
+            long userId = buffer.getLong();
+            long productId = buffer.getLong();
+            long productPriceCents = buffer.getLong();
+            int quantity = buffer.getInt();
+            long epochSecond = buffer.getLong();
+            int nano = buffer.getInt();
+            boolean hasTitle = buffer.get() == 1;
+            byte[] title = new byte[buffer.getInt()];
+            buffer.get(title);
+            boolean outOfStock = buffer.get() == 1;
+
+            LocalDateTime addedAt = operation == Operation.SET ? LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC) : null;
+            return new Record(operation, userId, productId, hasTitle ? new String(title, StandardCharsets.UTF_8) : null,
+                    productPriceCents, quantity, addedAt, outOfStock);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package hr.abysalto.hiring.mid.components;
+
+import hr.abysalto.hiring.mid.domain.Product;
+
+import java.util.List;
+
+public record CatalogChangedEvent(List<Product> changed, List<Long> removed) {
+}
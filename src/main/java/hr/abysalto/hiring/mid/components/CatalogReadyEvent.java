@@ -0,0 +1,7 @@
+package hr.abysalto.hiring.mid.components;
+
+/**
+ * Published once, when the replica's first full sync has finished.
+ */
+public record CatalogReadyEvent(int size) {
+}
@@ -0,0 +1,129 @@
+package hr.abysalto.hiring.mid.components;
+
+import hr.abysalto.hiring.mid.domain.Product;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+@Component
+@RequiredArgsConstructor
+public class CatalogReplica {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), false);
+
+    public boolean isReady() {
+        return snapshot.ready;
+    }
+
+    public int size() {
+        return snapshot.products.size();
+    }
+
+    public Optional<Product> findById(Long productId) {
+        return Optional.ofNullable(snapshot.products.get(productId));
+    }
+
+    public Collection<Product> products() {
+        return snapshot.products.values();
+    }
+
+    public CatalogPage page(int limit, int skip, String sortBy, String order) {
+        List<Product> sorted = snapshot.sorted(sortBy, order);
+        int from = Math.min(Math.max(skip, 0), sorted.size());
+        int to = limit > 0 ? Math.min(from + limit, sorted.size()) : sorted.size();
+        return new CatalogPage(sorted.subList(from, to), sorted.size());
+    }
+
+    public synchronized List<Product> upsert(Collection<Product> products) {
+        List<Product> changed = new ArrayList<>();
+        for (Product product : products) {
+            if (!Objects.equals(snapshot.products.get(product.getId()), product)) {
+                changed.add(product);
+            }
+        }
+
+        if (!changed.isEmpty()) {
+            Map<Long, Product> next = new HashMap<>(snapshot.products);
+            changed.forEach(product -> next.put(product.getId(), product));
+            snapshot = new Snapshot(next, snapshot.ready);
+            eventPublisher.publishEvent(new CatalogChangedEvent(changed, List.of()));
+        }
+        return changed;
+    }
+
+    public synchronized List<Long> retainOnly(Set<Long> productIds) {
+        List<Long> removed = snapshot.products.keySet().stream()
+                .filter(id -> !productIds.contains(id))
+                .toList();
+
+        if (!removed.isEmpty()) {
+            Map<Long, Product> next = new HashMap<>(snapshot.products);
+            removed.forEach(next::remove);
+            snapshot = new Snapshot(next, snapshot.ready);
+            eventPublisher.publishEvent(new CatalogChangedEvent(List.of(), removed));
+        }
+        return removed;
+    }
+
+    public synchronized void markReady() {
+        if (!snapshot.ready) {
+            snapshot = new Snapshot(snapshot.products, true);
+            eventPublisher.publishEvent(new CatalogReadyEvent(snapshot.products.size()));
+        }
+    }
+
+    public record CatalogPage(List<Product> products, int total) {
+    }
+
+    private static final class Snapshot {
+
+        private static final Map<String, Function<Product, Comparable>> SORT_KEYS = Map.of(
+                "id", Product::getId,
+                "title", Product::getTitle,
+                "price", Product::getPrice,
+                "rating", Product::getRating,
+                "stock", Product::getStock,
+                "discountPercentage", Product::getDiscountPercentage,
+                "brand", Product::getBrand,
+                "category", Product::getCategory
+        );
+
+        private final Map<Long, Product> products;
+        private final boolean ready;
+        private final Map<String, List<Product>> sortedViews = new ConcurrentHashMap<>();
+
+        private Snapshot(Map<Long, Product> products, boolean ready) {
+            this.products = products;
+            this.ready = ready;
+        }
+
+        private List<Product> sorted(String sortBy, String order) {
+            String field = sortBy != null && SORT_KEYS.containsKey(sortBy) ? sortBy : "id";
+            boolean descending = sortBy != null && !sortBy.isEmpty() && "desc".equalsIgnoreCase(order);
+            return sortedViews.computeIfAbsent(field + (descending ? "_desc" : "_asc"), key -> sort(field, descending));
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<Product> sort(String field, boolean descending) {
+            Comparator<Comparable> direction = descending ? Comparator.reverseOrder() : Comparator.naturalOrder();
+            Comparator<Product> comparator = Comparator.comparing(SORT_KEYS.get(field), Comparator.nullsLast(direction));
+            List<Product> sorted = new ArrayList<>(products.values());
+            sorted.sort(comparator.thenComparing(Product::getId));
+            return List.copyOf(sorted);
+        }
+    }
+}
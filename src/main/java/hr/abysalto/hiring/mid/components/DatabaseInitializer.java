@@ -32,7 +32,8 @@ public class DatabaseInitializer {
                 	 FIRST_NAME VARCHAR(100),
                 	 LAST_NAME VARCHAR(100),
                 	 CREATED_AT TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                	 ENABLED BOOLEAN DEFAULT TRUE
+                	 ENABLED BOOLEAN DEFAULT TRUE,
+                	 TOKEN_VERSION INT DEFAULT 0 NOT NULL
                  );
                 """);
 
@@ -42,9 +43,24 @@ public class DatabaseInitializer {
                 	 USER_ID BIGINT NOT NULL,
                 	 PRODUCT_ID BIGINT NOT NULL,
                 	 PRODUCT_TITLE VARCHAR(255),
-                	 PRODUCT_PRICE DECIMAL(10,2),
+                	 PRODUCT_PRICE_CENTS BIGINT NOT NULL,
                 	 QUANTITY INT DEFAULT 1,
+                	 OUT_OF_STOCK BOOLEAN DEFAULT FALSE NOT NULL,
                 	 ADDED_AT TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                	 UPDATED_AT TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                	 FOREIGN KEY (USER_ID) REFERENCES USERS(ID) ON DELETE CASCADE,
+                	 CONSTRAINT UK_CART_ITEMS_USER_PRODUCT UNIQUE(USER_ID, PRODUCT_ID)
+                 );
+                """);
+
+        this.jdbcTemplate.execute("""
+                 CREATE TABLE IF NOT EXISTS CART_SUMMARY (
+                	 USER_ID BIGINT PRIMARY KEY,
+                	 ITEM_COUNT INT NOT NULL,
+                	 TOTAL_QUANTITY INT NOT NULL,
+                	 TOTAL_PRICE_CENTS BIGINT NOT NULL,
+                	 VERSION BIGINT NOT NULL,
+                	 UPDATED_AT TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
                 	 FOREIGN KEY (USER_ID) REFERENCES USERS(ID) ON DELETE CASCADE
                  );
                 """);
@@ -56,10 +72,14 @@ public class DatabaseInitializer {
                 	 PRODUCT_ID BIGINT NOT NULL,
                 	 ADDED_AT TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
                 	 FOREIGN KEY (USER_ID) REFERENCES USERS(ID) ON DELETE CASCADE,
-                	 UNIQUE(USER_ID, PRODUCT_ID)
+                	 CONSTRAINT UK_FAVORITES_USER_PRODUCT UNIQUE(USER_ID, PRODUCT_ID)
                  );
                 """);
 
+        // the unique constraints above lead with USER_ID and cover the per-user lookups
+        this.jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS IDX_FAVORITES_PRODUCT_ID ON FAVORITES(PRODUCT_ID)");
+        this.jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS IDX_CART_ITEMS_PRODUCT_ID ON CART_ITEMS(PRODUCT_ID)");
+
         this.jdbcTemplate.execute("""
                  CREATE TABLE IF NOT EXISTS BUYER (
                 	 BUYER_ID INT AUTO_INCREMENT PRIMARY KEY,
@@ -0,0 +1,43 @@
+package hr.abysalto.hiring.mid.components;
+
+import hr.abysalto.hiring.mid.client.CircuitBreaker;
+import hr.abysalto.hiring.mid.configuration.StaleWhileRevalidateCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component("dummyJson")
+@RequiredArgsConstructor
+public class DummyJsonHealthIndicator implements HealthIndicator {
+
+    static final Status DEGRADED = new Status("DEGRADED", "Upstream circuit is open; serving cached and replicated data");
+
+    private final CircuitBreaker circuitBreaker;
+    private final CacheManager cacheManager;
+
+    @Override
+    public Health health() {
+        CircuitBreaker.State state = circuitBreaker.getState();
+
+        Map<String, Long> staleServed = new LinkedHashMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            if (cacheManager.getCache(name) instanceof StaleWhileRevalidateCache cache) {
+                staleServed.put(name, cache.getStaleServed());
+            }
+        }
+
+        // an open circuit degrades freshness, not availability, so it never reports DOWN
+        return Health.status(state == CircuitBreaker.State.OPEN ? DEGRADED : Status.UP)
+                .withDetail("circuit", state)
+                .withDetail("failureRate", circuitBreaker.getFailureRate())
+                .withDetail("slowCallRate", circuitBreaker.getSlowCallRate())
+                .withDetail("staleServed", staleServed)
+                .build();
+    }
+}
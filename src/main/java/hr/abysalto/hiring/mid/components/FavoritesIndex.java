@@ -0,0 +1,67 @@
+package hr.abysalto.hiring.mid.components;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import hr.abysalto.hiring.mid.configuration.FavoritesIndexSettings;
+import hr.abysalto.hiring.mid.repository.FavoriteRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+/**
+ * Each user's favorite product ids as a {@link ProductIdBitmap}, so marking favorites on a
+ * catalog page takes a few bit tests instead of a FAVORITES query. Users are loaded on first
+ * use and kept current by the favorites service writing through; once the bitmaps outgrow
+ * {@code favorites.index.maximum-weight} the coldest users are evicted.
+ */
+@Component
+public class FavoritesIndex {
+
+    // Caffeine's node and the boxed key
+    private static final int ENTRY_BYTES = 64;
+
+    private final FavoriteRepository favoriteRepository;
+    private final LoadingCache<Long, ProductIdBitmap> users;
+
+    public FavoritesIndex(FavoritesIndexSettings settings, FavoriteRepository favoriteRepository, MeterRegistry meterRegistry) {
+        this.favoriteRepository = favoriteRepository;
+        this.users = Caffeine.newBuilder()
+                .maximumWeight(settings.getMaximumWeight().toBytes())
+                .weigher((Long userId, ProductIdBitmap favorites) -> ENTRY_BYTES + favorites.sizeInBytes())
+                .expireAfterWrite(settings.getTimeToLive())
+                .recordStats()
+                .build(this::load);
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "favoritesIndex");
+    }
+
+    public ProductIdBitmap forUser(Long userId) {
+        if (userId == null) {
+            return ProductIdBitmap.EMPTY;
+        }
+        // the loading get allocates even on a hit
+        ProductIdBitmap favorites = users.getIfPresent(userId);
+        return favorites != null ? favorites : users.get(userId);
+    }
+
+    /**
+     * Call after the favorite is stored. Users not held in memory are left alone; their next
+     * lookup loads the new state.
+     */
+    public void added(Long userId, Long productId) {
+        // waits for a load of the same user that is in flight, so the change cannot be lost
+        users.asMap().computeIfPresent(userId, (id, favorites) -> favorites.with(productId));
+    }
+
+    public void removed(Long userId, Long productId) {
+        users.asMap().computeIfPresent(userId, (id, favorites) -> favorites.without(productId));
+    }
+
+    long userCount() {
+        users.cleanUp();
+        return users.estimatedSize();
+    }
+
+    private ProductIdBitmap load(Long userId) {
+        return ProductIdBitmap.of(favoriteRepository.findProductIdsByUserId(userId));
+    }
+}
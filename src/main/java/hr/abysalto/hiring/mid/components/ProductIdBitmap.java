@@ -0,0 +1,128 @@
+package hr.abysalto.hiring.mid.components;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Immutable set of product ids in as little memory as the ids allow. Ids that lie close
+ * together (the usual case, DummyJSON numbers its products from 1) are stored as a bitmap of
+ * 64-bit words starting at the smallest id; ids spread too thinly for that are stored as a
+ * sorted array instead. Changes return a new instance.
+ */
+public final class ProductIdBitmap {
+
+    public static final ProductIdBitmap EMPTY = new ProductIdBitmap(0, new long[0], null, 0);
+
+    // object header and fields, and the header of the one array
+    private static final int OBJECT_BYTES = 40;
+    private static final int ARRAY_BYTES = 16;
+
+    // dense form: bit (id - base) of words, base a multiple of 64
+    private final long base;
+    private final long[] words;
+    // sparse form: the ids themselves, sorted; used when smaller than the words would be
+    private final long[] ids;
+    private final int size;
+
+    private ProductIdBitmap(long base, long[] words, long[] ids, int size) {
+        this.base = base;
+        this.words = words;
+        this.ids = ids;
+        this.size = size;
+    }
+
+    public static ProductIdBitmap of(Collection<Long> productIds) {
+        long[] ids = new long[productIds.size()];
+        int count = 0;
+        for (Long id : productIds) {
+            if (id != null) {
+                ids[count++] = id;
+            }
+        }
+        Arrays.sort(ids, 0, count);
+
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || ids[i] != ids[distinct - 1]) {
+                ids[distinct++] = ids[i];
+            }
+        }
+        return of(distinct == ids.length ? ids : Arrays.copyOf(ids, distinct));
+    }
+
+    private static ProductIdBitmap of(long[] sorted) {
+        if (sorted.length == 0) {
+            return EMPTY;
+        }
+
+        long base = Math.floorDiv(sorted[0], 64) * 64;
+        long span = sorted[sorted.length - 1] - base;
+        if (span < 0 || span / 64 + 1 > sorted.length) {
+            return new ProductIdBitmap(0, null, sorted, sorted.length);
+        }
+
+        long[] words = new long[(int) (span / 64 + 1)];
+        for (long id : sorted) {
+            long bit = id - base;
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+        return new ProductIdBitmap(base, words, null, sorted.length);
+    }
+
+    public boolean contains(long productId) {
+        if (words == null) {
+            return Arrays.binarySearch(ids, productId) >= 0;
+        }
+        long bit = productId - base;
+        return bit >= 0 && bit >>> 6 < words.length && (words[(int) (bit >>> 6)] & 1L << bit) != 0;
+    }
+
+    public ProductIdBitmap with(long productId) {
+        if (contains(productId)) {
+            return this;
+        }
+        long[] next = Arrays.copyOf(toArray(), size + 1);
+        next[size] = productId;
+        Arrays.sort(next);
+        return of(next);
+    }
+
+    public ProductIdBitmap without(long productId) {
+        if (!contains(productId)) {
+            return this;
+        }
+        return of(Arrays.stream(toArray()).filter(id -> id != productId).toArray());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Approximate heap footprint, for weighing cache entries.
+     */
+    public int sizeInBytes() {
+        return OBJECT_BYTES + ARRAY_BYTES + 8 * (words != null ? words.length : ids.length);
+    }
+
+    /**
+     * @return the ids in ascending order
+     */
+    public long[] toArray() {
+        if (words == null) {
+            return ids.clone();
+        }
+        long[] result = new long[size];
+        int next = 0;
+        for (int i = 0; i < words.length; i++) {
+            for (long word = words[i]; word != 0; word &= word - 1) {
+                result[next++] = base + 64L * i + Long.numberOfTrailingZeros(word);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,159 @@
+package hr.abysalto.hiring.mid.components;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import hr.abysalto.hiring.mid.domain.Product;
+import hr.abysalto.hiring.mid.dto.response.ProductListResponse;
+import hr.abysalto.hiring.mid.dto.response.ProductResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Token-level decoder for DummyJSON product payloads. Reads straight from the response
+ * stream and only materializes the fields we expose; reviews, meta, dimensions and the
+ * other unused properties are skipped without being parsed into objects.
+ */
+@Component
+public class ProductPayloadDecoder {
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public ProductListResponse readResponsePage(InputStream body) throws IOException {
+        PageHeader header = new PageHeader();
+        List<ProductResponse> products = readPage(body, this::readResponse, header);
+
+        return ProductListResponse.builder()
+                .products(products)
+                .total(header.total)
+                .skip(header.skip)
+                .limit(header.limit)
+                .build();
+    }
+
+    public ProductResponse readResponse(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            return readResponse(parser);
+        }
+    }
+
+    public CatalogChunk readCatalogChunk(InputStream body) throws IOException {
+        PageHeader header = new PageHeader();
+        List<Product> products = readPage(body, this::readProduct, header);
+        return new CatalogChunk(products, header.total);
+    }
+
+    private <T> List<T> readPage(InputStream body, ElementReader<T> elementReader, PageHeader header) throws IOException {
+        List<T> products = new ArrayList<>();
+
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "products" -> {
+                        expect(value, JsonToken.START_ARRAY);
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            products.add(elementReader.read(parser));
+                        }
+                    }
+                    case "total" -> header.total = parser.getValueAsInt();
+                    case "skip" -> header.skip = parser.getValueAsInt();
+                    case "limit" -> header.limit = parser.getValueAsInt();
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        return products;
+    }
+
+    private ProductResponse readResponse(JsonParser parser) throws IOException {
+        ProductResponse.ProductResponseBuilder product = ProductResponse.builder().isFavorite(false);
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (field) {
+                case "id" -> product.id(parser.getValueAsLong());
+                case "title" -> product.title(parser.getValueAsString());
+                case "description" -> product.description(parser.getValueAsString());
+                case "price" -> product.price(parser.getValueAsDouble());
+                case "discountPercentage" -> product.discountPercentage(parser.getValueAsDouble());
+                case "rating" -> product.rating(parser.getValueAsDouble());
+                case "stock" -> product.stock(parser.getValueAsInt());
+                case "brand" -> product.brand(parser.getValueAsString());
+                case "category" -> product.category(parser.getValueAsString());
+                case "thumbnail" -> product.thumbnail(parser.getValueAsString());
+                case "images" -> product.images(readStrings(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        return product.build();
+    }
+
+    private Product readProduct(JsonParser parser) throws IOException {
+        Product.ProductBuilder product = Product.builder();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (field) {
+                case "id" -> product.id(parser.getValueAsLong());
+                case "title" -> product.title(parser.getValueAsString());
+                case "description" -> product.description(parser.getValueAsString());
+                case "category" -> product.category(parser.getValueAsString());
+                case "price" -> product.price(parser.getValueAsDouble());
+                case "discountPercentage" -> product.discountPercentage(parser.getValueAsDouble());
+                case "rating" -> product.rating(parser.getValueAsDouble());
+                case "stock" -> product.stock(parser.getValueAsInt());
+                case "tags" -> product.tags(readStrings(parser));
+                case "brand" -> product.brand(parser.getValueAsString());
+                case "thumbnail" -> product.thumbnail(parser.getValueAsString());
+                case "images" -> product.images(readStrings(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        return product.build();
+    }
+
+    private String[] readStrings(JsonParser parser) throws IOException {
+        expect(parser.currentToken(), JsonToken.START_ARRAY);
+        List<String> values = new ArrayList<>(4);
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            values.add(parser.getValueAsString());
+        }
+        return values.toArray(String[]::new);
+    }
+
+    private void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Unexpected DummyJSON payload: expected " + expected + " but got " + actual);
+        }
+    }
+
+    public record CatalogChunk(List<Product> products, int total) {
+    }
+
+    @FunctionalInterface
+    private interface ElementReader<T> {
+        T read(JsonParser parser) throws IOException;
+    }
+
+    private static final class PageHeader {
+        private int total;
+        private int skip;
+        private int limit;
+    }
+}
@@ -0,0 +1,140 @@
+package hr.abysalto.hiring.mid.components;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import hr.abysalto.hiring.mid.configuration.RateLimitSettings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets keyed by endpoint group and client. Each bucket is a single CAS-updated
+ * timestamp (the GCRA form of a token bucket), so hot keys never take a lock. Buckets are
+ * dropped only once idle, when they would have refilled completely anyway. While the map
+ * holds {@code rate-limit.max-buckets} buckets, clients without one share a single bucket
+ * per group instead, so a flood of new keys can neither grow the map nor reset the bucket
+ * of a client that is being throttled.
+ */
+@Component
+public class RateLimiter {
+
+    private final Map<String, Group> groups = new HashMap<>();
+    private final Map<String, TokenBucket> overflowBuckets = new HashMap<>();
+    private final Cache<String, TokenBucket> buckets;
+    private final long maxBuckets;
+    private final Ticker ticker;
+
+    @Autowired
+    public RateLimiter(RateLimitSettings settings, MeterRegistry meterRegistry) {
+        this(settings, meterRegistry, Ticker.systemTicker());
+    }
+
+    RateLimiter(RateLimitSettings settings, MeterRegistry meterRegistry, Ticker ticker) {
+        this.ticker = ticker;
+        this.maxBuckets = settings.getMaxBuckets();
+
+        Duration idleTimeout = settings.getIdleTimeout();
+        for (Map.Entry<String, RateLimitSettings.Group> entry : settings.getGroups().entrySet()) {
+            RateLimitSettings.Group group = entry.getValue();
+            Duration fullRefill = group.getRefillPeriod().multipliedBy(group.getCapacity());
+            if (fullRefill.compareTo(idleTimeout) > 0) {
+                idleTimeout = fullRefill;
+            }
+            Group limits = new Group(group.getCapacity(), group.getRefillPeriod().toNanos(),
+                    counter(meterRegistry, entry.getKey(), "allowed"), counter(meterRegistry, entry.getKey(), "rejected"));
+            groups.put(entry.getKey(), limits);
+            overflowBuckets.put(entry.getKey(), new TokenBucket(limits, ticker.read()));
+        }
+
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(idleTimeout)
+                .ticker(ticker)
+                .build();
+        Gauge.builder("rate.limit.buckets", buckets, Cache::estimatedSize).register(meterRegistry);
+    }
+
+    /**
+     * Takes one request from the client's bucket in the given group.
+     *
+     * @return 0 when the request may proceed, otherwise the nanoseconds until it would be allowed
+     */
+    public long tryAcquire(String group, String clientKey) {
+        Group limits = groups.get(group);
+        if (limits == null) {
+            throw new IllegalArgumentException("Unknown rate limit group: " + group);
+        }
+
+        long now = ticker.read();
+        String key = group + '|' + clientKey;
+        TokenBucket bucket = buckets.getIfPresent(key);
+        if (bucket == null) {
+            // concurrent misses may overshoot the bound slightly
+            bucket = hasRoom()
+                    ? buckets.get(key, k -> new TokenBucket(limits, now))
+                    : overflowBuckets.get(group);
+        }
+        long wait = bucket.tryAcquire(now);
+        (wait == 0 ? limits.allowed : limits.rejected).increment();
+        return wait;
+    }
+
+    private boolean hasRoom() {
+        if (buckets.estimatedSize() < maxBuckets) {
+            return true;
+        }
+        // idle buckets count until the cache's next maintenance run
+        buckets.cleanUp();
+        return buckets.estimatedSize() < maxBuckets;
+    }
+
+    long bucketCount() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String group, String outcome) {
+        return Counter.builder("rate.limit.requests")
+                .tag("group", group)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record Group(int capacity, long refillNanos, Counter allowed, Counter rejected) {
+    }
+
+    private static final class TokenBucket {
+
+        private final long refillNanos;
+        private final long burstNanos;
+        // when the bucket would be full again if no further requests arrived
+        private final AtomicLong theoreticalArrival;
+
+        private TokenBucket(Group group, long now) {
+            this.refillNanos = group.refillNanos();
+            this.burstNanos = group.refillNanos() * group.capacity();
+            this.theoreticalArrival = new AtomicLong(now);
+        }
+
+        private long tryAcquire(long now) {
+            while (true) {
+                long current = theoreticalArrival.get();
+                long next = Math.max(current, now) + refillNanos;
+                long wait = next - now - burstNanos;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (theoreticalArrival.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package hr.abysalto.hiring.mid.components;
+
+import hr.abysalto.hiring.mid.configuration.CartWriteBehindSettings;
+import hr.abysalto.hiring.mid.domain.CartItem;
+import hr.abysalto.hiring.mid.domain.CartSummary;
+import hr.abysalto.hiring.mid.repository.CartItemRepository;
+import hr.abysalto.hiring.mid.repository.CartSummaryRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Optional write-behind storage for carts ({@code cart.write-behind.enabled}). Active carts
+ * are held in memory; every change is appended to the {@link CartWriteLog} before it is
+ * applied, and a scheduled flush merges the changed lines into CART_ITEMS in JDBC batches,
+ * then discards the flushed log segments. On startup the remaining segments are replayed,
+ * recovering changes that were acknowledged but never flushed.
+ */
+@Slf4j
+@Component
+public class WriteBehindCartStore {
+
+    private final CartItemRepository cartItemRepository;
+    private final CartSummaryRepository cartSummaryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CartWriteLog writeLog;
+    private final long idleTimeoutNanos;
+
+    private final Map<Long, HotCart> carts = new ConcurrentHashMap<>();
+    private final Object recoveryLock = new Object();
+    private volatile boolean recovered;
+    private boolean closed;
+
+    public WriteBehindCartStore(CartWriteBehindSettings settings, CartItemRepository cartItemRepository,
+                                CartSummaryRepository cartSummaryRepository, PlatformTransactionManager transactionManager) {
+        this.cartItemRepository = cartItemRepository;
+        this.cartSummaryRepository = cartSummaryRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.writeLog = settings.isEnabled() ? new CartWriteLog(settings.getLogDirectory(), settings.isSyncOnWrite()) : null;
+        this.idleTimeoutNanos = settings.getIdleTimeout().toNanos();
+    }
+
+    public boolean isEnabled() {
+        return writeLog != null;
+    }
+
+    /**
+     * Adds {@code quantity} to the line, creating it with the given title and price if needed.
+     * The stock flag is taken as given either way, being current at the time of the call.
+     *
+     * @return the line after the change
+     */
+    public CartItem add(Long userId, Long productId, String productTitle, long productPriceCents, boolean outOfStock, int quantity) {
+        return withCart(userId, cart -> {
+            CartItem current = cart.lines.get(productId);
+            CartItem next = current == null
+                    ? CartItem.builder()
+                    .userId(userId)
+                    .productId(productId)
+                    .productTitle(productTitle)
+                    .productPriceCents(productPriceCents)
+                    .quantity(quantity)
+                    .addedAt(LocalDateTime.now())
+                    .build()
+                    : current.toBuilder().quantity(current.getQuantity() + quantity).build();
+
+            record(cart, CartWriteLog.Record.set(userId, productId, next.getProductTitle(),
+                    next.getProductPriceCents(), next.getQuantity(), next.getAddedAt(), outOfStock));
+            return cart.lines.get(productId).toBuilder().build();
+        });
+    }
+
+    /**
+     * @return the removed line, or empty when the product was not in the cart
+     */
+    public Optional<CartItem> remove(Long userId, Long productId) {
+        return withCart(userId, cart -> {
+            CartItem current = cart.lines.get(productId);
+            if (current == null) {
+                return Optional.empty();
+            }
+            record(cart, CartWriteLog.Record.remove(userId, productId));
+            return Optional.of(current);
+        });
+    }
+
+    public void clear(Long userId) {
+        withCart(userId, cart -> {
+            record(cart, CartWriteLog.Record.clear(userId));
+            return null;
+        });
+    }
+
+    public List<CartItem> items(Long userId) {
+        return withCart(userId, cart -> {
+            List<CartItem> items = new ArrayList<>(cart.lines.size());
+            cart.lines.values().forEach(line -> items.add(line.toBuilder().build()));
+            return items;
+        });
+    }
+
+    /**
+     * Number of changes applied to the user's cart so far, continuing the persisted
+     * CART_SUMMARY version.
+     */
+    public long version(Long userId) {
+        return withCart(userId, cart -> cart.version);
+    }
+
+    /**
+     * Whether the user's cart is currently held in memory, where the database copy may be stale.
+     */
+    public boolean isHot(Long userId) {
+        return carts.containsKey(userId);
+    }
+
+    /**
+     * Called after the users' carts were deleted from CART_ITEMS outside the store. A cart loaded
+     * before the delete still holds its lines as clean, so they are marked for the next flush to
+     * write back; the cart is in use again and is no longer abandoned.
+     */
+    public void retainLoaded(Collection<Long> userIds) {
+        if (!isEnabled()) {
+            return;
+        }
+        for (Long userId : userIds) {
+            HotCart cart = carts.get(userId);
+            if (cart == null) {
+                continue;
+            }
+            synchronized (cart) {
+                if (!cart.evicted) {
+                    cart.dirty.addAll(cart.lines.keySet());
+                }
+            }
+        }
+    }
+
+    /**
+     * Brings the product's lines in the carts held in memory up to date with the catalog,
+     * so the next flush does not write back the old title, price or stock flag.
+     */
+    public void refreshProduct(Long productId, String productTitle, long productPriceCents, boolean outOfStock) {
+        forEachLine(productId, (userId, line) -> !Objects.equals(line.getProductTitle(), productTitle)
+                        || line.getProductPriceCents() != productPriceCents || line.isOutOfStock() != outOfStock
+                        ? CartWriteLog.Record.set(userId, productId, productTitle, productPriceCents,
+                        line.getQuantity(), line.getAddedAt(), outOfStock)
+                        : null);
+    }
+
+    /**
+     * Flags the product's lines in the carts held in memory, keeping their last known title and price.
+     */
+    public void markOutOfStock(Collection<Long> productIds) {
+        productIds.forEach(productId -> forEachLine(productId, (userId, line) -> line.isOutOfStock()
+                ? null
+                : CartWriteLog.Record.set(userId, productId, line.getProductTitle(), line.getProductPriceCents(),
+                line.getQuantity(), line.getAddedAt(), true)));
+    }
+
+    private void forEachLine(Long productId, BiFunction<Long, CartItem, CartWriteLog.Record> change) {
+        if (!isEnabled()) {
+            return;
+        }
+        ensureRecovered();
+        carts.forEach((userId, cart) -> {
+            synchronized (cart) {
+                CartItem line = cart.lines.get(productId);
+                if (cart.evicted || line == null) {
+                    return;
+                }
+                CartWriteLog.Record record = change.apply(userId, line);
+                if (record != null) {
+                    record(cart, record);
+                }
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        if (isEnabled()) {
+            ensureRecovered();
+            flush();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cart.write-behind.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        if (!isEnabled() || closed) {
+            return;
+        }
+        ensureRecovered();
+
+        // everything in the sealed segments is already applied to the carts below
+        List<Path> sealed = writeLog.rotate();
+
+        List<CartItem> upserts = new ArrayList<>();
+        List<CartItem> deletes = new ArrayList<>();
+        Map<Long, Long> versions = new LinkedHashMap<>();
+        Map<HotCart, Set<Long>> taken = new HashMap<>();
+        carts.forEach((userId, cart) -> {
+            synchronized (cart) {
+                if (cart.dirty.isEmpty()) {
+                    return;
+                }
+                for (Long productId : cart.dirty) {
+                    CartItem line = cart.lines.get(productId);
+                    if (line == null) {
+                        deletes.add(CartItem.builder().userId(userId).productId(productId).build());
+                    } else {
+                        upserts.add(line.toBuilder().build());
+                    }
+                }
+                versions.put(userId, cart.version);
+                taken.put(cart, new HashSet<>(cart.dirty));
+                cart.dirty.clear();
+            }
+        });
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                cartItemRepository.deleteLines(deletes);
+                cartItemRepository.replaceAll(upserts);
+                versions.forEach(cartSummaryRepository::recompute);
+            });
+        } catch (RuntimeException e) {
+            // keep the log segments and retry these lines on the next flush
+            taken.forEach((cart, productIds) -> {
+                synchronized (cart) {
+                    cart.dirty.addAll(productIds);
+                }
+            });
+            log.warn("Cart write-behind flush failed, {} carts stay pending: {}", taken.size(), e.getMessage());
+            return;
+        }
+
+        writeLog.delete(sealed);
+        evictIdleCarts();
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (isEnabled() && !closed) {
+            try {
+                flush();
+            } finally {
+                closed = true;
+                writeLog.close();
+            }
+        }
+    }
+
+    int hotCartCount() {
+        return carts.size();
+    }
+
+    private <T> T withCart(Long userId, Function<HotCart, T> change) {
+        ensureRecovered();
+        while (true) {
+            HotCart cart = carts.computeIfAbsent(userId, this::load);
+            synchronized (cart) {
+                // lost a race with eviction; the next lookup loads a fresh copy
+                if (cart.evicted) {
+                    continue;
+                }
+                cart.lastAccess = System.nanoTime();
+                return change.apply(cart);
+            }
+        }
+    }
+
+    private void record(HotCart cart, CartWriteLog.Record record) {
+        writeLog.append(record);
+        apply(cart, record);
+    }
+
+    private void apply(HotCart cart, CartWriteLog.Record record) {
+        switch (record.operation()) {
+            case SET -> {
+                CartItem current = cart.lines.get(record.productId());
+                cart.lines.put(record.productId(), CartItem.builder()
+                        .id(current == null ? null : current.getId())
+                        .userId(record.userId())
+                        .productId(record.productId())
+                        .productTitle(record.productTitle())
+                        .productPriceCents(record.productPriceCents())
+                        .quantity(record.quantity())
+                        .outOfStock(record.outOfStock())
+                        .addedAt(record.addedAt())
+                        .build());
+                cart.dirty.add(record.productId());
+            }
+            case REMOVE -> {
+                cart.lines.remove(record.productId());
+                cart.dirty.add(record.productId());
+            }
+            case CLEAR -> {
+                cart.dirty.addAll(cart.lines.keySet());
+                cart.lines.clear();
+            }
+        }
+        cart.version++;
+    }
+
+    private void ensureRecovered() {
+        if (recovered || !isEnabled()) {
+            return;
+        }
+        synchronized (recoveryLock) {
+            if (recovered) {
+                return;
+            }
+            int[] replayed = {0};
+            writeLog.replay(record -> {
+                HotCart cart = carts.computeIfAbsent(record.userId(), this::load);
+                synchronized (cart) {
+                    apply(cart, record);
+                }
+                replayed[0]++;
+            });
+            if (replayed[0] > 0) {
+                log.info("Recovered {} unflushed cart changes from the write log", replayed[0]);
+            }
+            recovered = true;
+        }
+    }
+
+    private HotCart load(Long userId) {
+        HotCart cart = new HotCart();
+        cartItemRepository.findByUserId(userId).forEach(line -> cart.lines.put(line.getProductId(), line));
+        cart.version = cartSummaryRepository.findById(userId).map(CartSummary::getVersion).orElse(0L);
+        return cart;
+    }
+
+    private void evictIdleCarts() {
+        long now = System.nanoTime();
+        carts.forEach((userId, cart) -> {
+            synchronized (cart) {
+                if (cart.dirty.isEmpty() && now - cart.lastAccess > idleTimeoutNanos) {
+                    cart.evicted = true;
+                    carts.remove(userId, cart);
+                }
+            }
+        });
+    }
+
+    private static final class HotCart {
+
+        // insertion-ordered so cart reads list lines in the order they were added
+        private final Map<Long, CartItem> lines = new LinkedHashMap<>();
+        // product ids whose line changed since the last flush
+        private final Set<Long> dirty = new HashSet<>();
+        private long version;
+        private long lastAccess = System.nanoTime();
+        private boolean evicted;
+    }
+}
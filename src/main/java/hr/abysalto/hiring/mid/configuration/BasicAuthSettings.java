@@ -0,0 +1,23 @@
+package hr.abysalto.hiring.mid.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "security.basic-auth")
+public class BasicAuthSettings {
+
+    private boolean enabled = false;
+    private CredentialCache credentialCache = new CredentialCache();
+
+    @Data
+    public static class CredentialCache {
+
+        private boolean enabled = true;
+        private long maximumSize = 10_000;
+        // short, so changes made outside the application (e.g. directly in the database) apply quickly
+        private Duration timeToLive = Duration.ofMinutes(1);
+    }
+}
@@ -1,17 +1,101 @@
 package hr.abysalto.hiring.mid.configuration;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import hr.abysalto.hiring.mid.service.ProductCatalogService;
+import hr.abysalto.hiring.mid.service.ProductNotFoundException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(CacheSettings.class)
 public class CacheConfig {
 
     @Bean
-    public CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager("products", "product");
+    public CacheManager cacheManager(CacheSettings cacheSettings, ObjectProvider<ProductCatalogService> productCatalogService) {
+        return cacheManager(cacheSettings, catalogRefreshers(productCatalogService));
+    }
+
+    CacheManager cacheManager(CacheSettings cacheSettings, Map<String, Function<Object, Object>> refreshers) {
+        ThreadPoolExecutor refreshExecutor = refreshExecutor();
+
+        List<StaleWhileRevalidateCache> caches = cacheSettings.getCaches().entrySet().stream()
+                .map(entry -> new StaleWhileRevalidateCache(entry.getKey(), Caffeine.newBuilder()
+                        .maximumWeight(entry.getValue().getMaximumWeight().toBytes())
+                        .weigher(new CacheWeigher())
+                        .expireAfterWrite(entry.getValue().getTimeToLive())
+                        .expireAfterAccess(entry.getValue().getIdleTimeout())
+                        .recordStats()
+                        .<Object, StaleWhileRevalidateCache.Entry>build(),
+                        entry.getValue().getSoftTimeToLive(), Ticker.systemTicker(), refreshExecutor,
+                        refreshers.get(entry.getKey())))
+                .toList();
+
+        // static manager: unknown cache names fail fast instead of silently creating unbounded caches
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(caches);
+        cacheManager.initializeCaches();
+        return cacheManager;
+    }
+
+    @Bean
+    public CacheMeterBinderProvider<StaleWhileRevalidateCache> staleWhileRevalidateCacheMeterBinderProvider() {
+        return (cache, tags) -> registry -> {
+            new CaffeineCacheMetrics<>(cache.getNativeCache(), cache.getName(), tags).bindTo(registry);
+            FunctionCounter.builder("cache.stale.served", cache, StaleWhileRevalidateCache::getStaleServed)
+                    .description("Entries returned past their soft TTL while a refresh ran in the background")
+                    .tags(tags)
+                    .tag("cache", cache.getName())
+                    .register(registry);
+            FunctionCounter.builder("cache.refresh.failures", cache, StaleWhileRevalidateCache::getRefreshFailures)
+                    .tags(tags)
+                    .tag("cache", cache.getName())
+                    .register(registry);
+        };
+    }
+
+    // the service is looked up on the first refresh, as it depends on the cache manager itself
+    private static Map<String, Function<Object, Object>> catalogRefreshers(ObjectProvider<ProductCatalogService> catalog) {
+        return Map.of(
+                "products", key -> catalog.getObject().loadProducts((ProductCatalogService.PageKey) key),
+                "product", key -> unlessRemoved(() -> catalog.getObject().loadProduct((Long) key)),
+                "productPrice", key -> unlessRemoved(() -> catalog.getObject().loadProductPrice((Long) key)));
+    }
+
+    private static Object unlessRemoved(Supplier<Object> loader) {
+        try {
+            return loader.get();
+        } catch (ProductNotFoundException e) {
+            return null;
+        }
+    }
+
+    private ThreadPoolExecutor refreshExecutor() {
+        AtomicInteger threads = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 2, 30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(100), runnable -> {
+            Thread thread = new Thread(runnable, "cache-refresh-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,44 @@
+package hr.abysalto.hiring.mid.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "app.cache")
+public class CacheSettings {
+
+    private Map<String, Spec> caches = new LinkedHashMap<>(Map.of(
+            "products", new Spec(),
+            "product", new Spec(),
+            "productPrice", new Spec()
+    ));
+
+    private Warmup warmup = new Warmup();
+
+    @Data
+    public static class Spec {
+
+        private DataSize maximumWeight = DataSize.ofMegabytes(16);
+        private Duration softTimeToLive = Duration.ofMinutes(2);
+        private Duration timeToLive = Duration.ofMinutes(10);
+        private Duration idleTimeout = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Warmup {
+
+        private boolean enabled = true;
+        private int pages = 3;
+        private int pageSize = 10;
+        // "default" is the unsorted listing; other entries are "field:order"
+        private List<String> sorts = List.of("default", "price:asc", "price:desc", "rating:desc");
+        private int topProducts = 50;
+        private Duration timeout = Duration.ofSeconds(30);
+    }
+}
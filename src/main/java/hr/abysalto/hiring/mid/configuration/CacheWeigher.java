@@ -0,0 +1,71 @@
+package hr.abysalto.hiring.mid.configuration;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import hr.abysalto.hiring.mid.domain.ProductPrice;
+import hr.abysalto.hiring.mid.dto.response.ProductListResponse;
+import hr.abysalto.hiring.mid.dto.response.ProductResponse;
+
+/**
+ * Rough retained-heap estimate in bytes for cached catalog responses. It only has to be
+ * proportional to the real footprint so that a byte budget per cache means something.
+ */
+class CacheWeigher implements Weigher<Object, Object> {
+
+    private static final int OBJECT_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int BOXED_NUMBER = 16;
+    private static final int STRING_OVERHEAD = 40;
+    private static final int DEFAULT_WEIGHT = 256;
+
+    @Override
+    public int weigh(Object key, Object value) {
+        long weight = key instanceof String text ? string(text) : BOXED_NUMBER;
+        if (value instanceof StaleWhileRevalidateCache.Entry entry) {
+            weight += OBJECT_HEADER + REFERENCE + 8;
+            value = entry.value();
+        }
+        weight += estimate(value);
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+
+    static long estimate(Object value) {
+        if (value instanceof ProductListResponse page) {
+            return estimate(page);
+        }
+        if (value instanceof ProductResponse product) {
+            return estimate(product);
+        }
+        if (value instanceof ProductPrice price) {
+            return OBJECT_HEADER + 2 * 8 + REFERENCE + 4 + string(price.title());
+        }
+        return DEFAULT_WEIGHT;
+    }
+
+    private static long estimate(ProductListResponse page) {
+        long weight = OBJECT_HEADER + 4 * REFERENCE + 3 * BOXED_NUMBER;
+        if (page.getProducts() != null) {
+            weight += OBJECT_HEADER + (long) page.getProducts().size() * REFERENCE;
+            for (ProductResponse product : page.getProducts()) {
+                weight += estimate(product);
+            }
+        }
+        return weight;
+    }
+
+    private static long estimate(ProductResponse product) {
+        long weight = OBJECT_HEADER + 12 * REFERENCE + 6 * BOXED_NUMBER;
+        weight += string(product.getTitle()) + string(product.getDescription()) + string(product.getBrand())
+                + string(product.getCategory()) + string(product.getThumbnail());
+        if (product.getImages() != null) {
+            weight += OBJECT_HEADER + (long) product.getImages().length * REFERENCE;
+            for (String image : product.getImages()) {
+                weight += string(image);
+            }
+        }
+        return weight;
+    }
+
+    private static long string(String text) {
+        return text == null ? 0 : STRING_OVERHEAD + text.length();
+    }
+}
@@ -0,0 +1,9 @@
+package hr.abysalto.hiring.mid.configuration;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties({CartWriteBehindSettings.class, CartSweeperSettings.class})
+public class CartConfig {
+}
@@ -0,0 +1,19 @@
+package hr.abysalto.hiring.mid.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "cart.sweeper")
+public class CartSweeperSettings {
+
+    private boolean enabled = true;
+    // carts whose newest line was added longer ago than this are deleted
+    private Duration retention = Duration.ofDays(30);
+    // cart rows examined per chunk; each chunk is its own short transaction
+    private int chunkSize = 500;
+    // upper bound on rows examined per second across chunks
+    private int maxRowsPerSecond = 5000;
+}
@@ -0,0 +1,19 @@
+package hr.abysalto.hiring.mid.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "cart.write-behind")
+public class CartWriteBehindSettings {
+
+    private boolean enabled = false;
+    private Path logDirectory = Path.of("data", "cart-log");
+    // fsync every record before acknowledging the change; off trades the last few writes on power loss for throughput
+    private boolean syncOnWrite = true;
+    // clean carts untouched for this long are dropped from memory after a flush
+    private Duration idleTimeout = Duration.ofMinutes(10);
+}
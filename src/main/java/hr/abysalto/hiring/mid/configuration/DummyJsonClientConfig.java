@@ -0,0 +1,71 @@
+package hr.abysalto.hiring.mid.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableConfigurationProperties(DummyJsonSettings.class)
+public class DummyJsonClientConfig {
+
+    @Bean
+    public PoolingHttpClientConnectionManager dummyJsonConnectionManager(DummyJsonSettings settings, MeterRegistry meterRegistry) {
+        DummyJsonSettings.Client client = settings.getClient();
+
+        // every request goes to the same host, so the per-route limit is the pool size
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(client.getMaxConnections())
+                .setMaxConnPerRoute(client.getMaxConnections())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(timeout(client.getConnectTimeout()))
+                        .setSocketTimeout(timeout(client.getSocketTimeout()))
+                        .setTimeToLive(timeValue(client.getConnectionTimeToLive()))
+                        .setValidateAfterInactivity(timeValue(client.getValidateAfterInactivity()))
+                        .build())
+                .build();
+
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "dummyjson").bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient dummyJsonHttpClient(PoolingHttpClientConnectionManager dummyJsonConnectionManager,
+                                                   DummyJsonSettings settings) {
+        DummyJsonSettings.Client client = settings.getClient();
+
+        // content compression is on by default: requests advertise gzip/deflate and
+        // response entities are decompressed lazily while the body is streamed
+        return HttpClients.custom()
+                .setConnectionManager(dummyJsonConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(timeout(client.getConnectionRequestTimeout()))
+                        .setResponseTimeout(timeout(client.getSocketTimeout()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(timeValue(client.getIdleEviction()))
+                .disableCookieManagement()
+                // retries are decided by DummyJsonClient against its retry budget and circuit breaker
+                .disableAutomaticRetries()
+                .build();
+    }
+
+    private static Timeout timeout(Duration duration) {
+        return Timeout.ofMilliseconds(duration.toMillis());
+    }
+
+    private static TimeValue timeValue(Duration duration) {
+        return TimeValue.ofMilliseconds(duration.toMillis());
+    }
+}
@@ -0,0 +1,57 @@
+package hr.abysalto.hiring.mid.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "dummyjson")
+public class DummyJsonSettings {
+
+    private String baseUrl = "https://dummyjson.com";
+    private Client client = new Client();
+
+    @Data
+    public static class Client {
+
+        private int maxConnections = 50;
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        private Duration connectionRequestTimeout = Duration.ofMillis(500);
+        private Duration socketTimeout = Duration.ofSeconds(3);
+        private Duration connectionTimeToLive = Duration.ofMinutes(5);
+        private Duration validateAfterInactivity = Duration.ofSeconds(2);
+        private Duration idleEviction = Duration.ofSeconds(30);
+        private Duration deadline = Duration.ofSeconds(3);
+        private Map<String, Duration> deadlines = new LinkedHashMap<>();
+        private Retry retry = new Retry();
+        private Breaker breaker = new Breaker();
+
+        public Duration deadlineFor(String operation) {
+            return deadlines.getOrDefault(operation, deadline);
+        }
+    }
+
+    @Data
+    public static class Retry {
+
+        private int maxAttempts = 2;
+        private Duration backoff = Duration.ofMillis(100);
+        private double budgetRatio = 0.1;
+        private int budgetCapacity = 10;
+    }
+
+    @Data
+    public static class Breaker {
+
+        private int windowSize = 50;
+        private int minimumCalls = 10;
+        private int failureRateThreshold = 50;
+        private Duration slowCallDuration = Duration.ofSeconds(2);
+        private int slowCallRateThreshold = 80;
+        private Duration openDuration = Duration.ofSeconds(30);
+        private int halfOpenCalls = 3;
+    }
+}
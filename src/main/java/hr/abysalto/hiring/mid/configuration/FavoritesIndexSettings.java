@@ -0,0 +1,17 @@
+package hr.abysalto.hiring.mid.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "favorites.index")
+public class FavoritesIndexSettings {
+
+    // total size of the per-user bitmaps; the coldest users are evicted past it
+    private DataSize maximumWeight = DataSize.ofMegabytes(4);
+    // reloads users now and then, so changes made directly in the database show up
+    private Duration timeToLive = Duration.ofMinutes(10);
+}
@@ -0,0 +1,20 @@
+package hr.abysalto.hiring.mid.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "security.password")
+public class PasswordSettings {
+
+    // BCrypt log rounds; stored hashes with a different cost are rehashed on the next successful login
+    private int bcryptStrength = 10;
+    private Hashing hashing = new Hashing();
+
+    @Data
+    public static class Hashing {
+
+        private int threads = Runtime.getRuntime().availableProcessors();
+        private int queueCapacity = 64;
+    }
+}
@@ -0,0 +1,39 @@
+package hr.abysalto.hiring.mid.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitSettings {
+
+    private boolean enabled = true;
+    // past it, clients without a bucket share one per group until idle buckets expire
+    private long maxBuckets = 100_000;
+    private Duration idleTimeout = Duration.ofMinutes(10);
+    // checked in declaration order; the first group whose paths match a request applies
+    private Map<String, Group> groups = new LinkedHashMap<>();
+
+    @Data
+    public static class Group {
+
+        private List<String> paths = new ArrayList<>();
+        private int capacity = 10;
+        // time to earn back one request
+        private Duration refillPeriod = Duration.ofSeconds(1);
+        private Key key = Key.IP;
+    }
+
+    public enum Key {
+        // client address
+        IP,
+        // authenticated user id, falling back to the client address for anonymous requests
+        USER
+    }
+}
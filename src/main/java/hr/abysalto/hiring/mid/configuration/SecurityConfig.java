@@ -1,19 +1,33 @@
 package hr.abysalto.hiring.mid.configuration;
 
+import hr.abysalto.hiring.mid.components.RateLimiter;
+import hr.abysalto.hiring.mid.security.BoundedPasswordEncoder;
+import hr.abysalto.hiring.mid.security.CachingAuthenticationProvider;
 import hr.abysalto.hiring.mid.security.CustomUserDetailsService;
+import hr.abysalto.hiring.mid.security.RateLimitFilter;
+import hr.abysalto.hiring.mid.security.TokenAuthenticationFilter;
+import hr.abysalto.hiring.mid.security.TokenService;
+import hr.abysalto.hiring.mid.security.VerifiedCredentialCache;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -21,10 +35,16 @@ import java.util.Arrays;
 
 @Configuration
 @EnableWebSecurity
+@EnableConfigurationProperties({TokenSettings.class, BasicAuthSettings.class, PasswordSettings.class, RateLimitSettings.class})
 @RequiredArgsConstructor
 public class SecurityConfig {
 
 	private final CustomUserDetailsService customUserDetailsService;
+	private final TokenService tokenService;
+	private final VerifiedCredentialCache verifiedCredentialCache;
+	private final BasicAuthSettings basicAuthSettings;
+	private final RateLimiter rateLimiter;
+	private final RateLimitSettings rateLimitSettings;
 
 	@Bean
 	public WebSecurityCustomizer webSecurityCustomizer() {
@@ -42,24 +62,40 @@ public class SecurityConfig {
 								.requestMatchers("/v3/api-docs*/**").permitAll()
 								.requestMatchers("/h2-console/**").permitAll()
 								.requestMatchers("/api/auth/register").permitAll()
-								.requestMatchers("/api/auth/login").authenticated()
+								.requestMatchers("/api/auth/login").permitAll()
 								.anyRequest().authenticated())
-				.headers(headers -> headers.frameOptions(frame -> frame.sameOrigin()))
-				.httpBasic(Customizer.withDefaults());
+				.sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+				.addFilterBefore(new TokenAuthenticationFilter(tokenService), BasicAuthenticationFilter.class)
+				.headers(headers -> headers.frameOptions(frame -> frame.sameOrigin()));
+
+		// after both authentication filters, so per-user groups key on the user for Bearer and Basic clients alike
+		if (rateLimitSettings.isEnabled()) {
+			http.addFilterAfter(new RateLimitFilter(rateLimiter, rateLimitSettings), BasicAuthenticationFilter.class);
+		}
+
+		// Bearer tokens are the default; Basic (BCrypt on every request) is an opt-in fallback
+		if (basicAuthSettings.isEnabled()) {
+			http.httpBasic(Customizer.withDefaults());
+		} else {
+			http.httpBasic(AbstractHttpConfigurer::disable)
+					.exceptionHandling(exceptions -> exceptions.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)));
+		}
 		return http.build();
 	}
 
-	@Bean
-	public PasswordEncoder passwordEncoder() {
-		return new BCryptPasswordEncoder();
+	@Bean(destroyMethod = "shutdown")
+	public BoundedPasswordEncoder passwordEncoder(PasswordSettings passwordSettings, MeterRegistry meterRegistry) {
+		return new BoundedPasswordEncoder(passwordSettings, meterRegistry);
 	}
 
 	@Bean
-	public DaoAuthenticationProvider authenticationProvider() {
+	public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
 		DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
 		authProvider.setUserDetailsService(customUserDetailsService);
-		authProvider.setPasswordEncoder(passwordEncoder());
-		return authProvider;
+		authProvider.setPasswordEncoder(passwordEncoder);
+		// rehash on login when the stored BCrypt cost differs from security.password.bcrypt-strength
+		authProvider.setUserDetailsPasswordService(customUserDetailsService);
+		return new CachingAuthenticationProvider(authProvider, verifiedCredentialCache);
 	}
 
 	@Bean
@@ -0,0 +1,142 @@
+package hr.abysalto.hiring.mid.configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Ticker;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Caffeine-backed cache whose entries have a soft and a hard TTL. The hard TTL is the
+ * Caffeine expiry; past the soft TTL an entry is still returned immediately, and the
+ * cache's refresher reloads it in the background. The refresher is fixed when the cache
+ * is defined, so a refresh never re-runs the caller's {@code @Cacheable} invocation. A
+ * failed refresh keeps the stale entry until the hard TTL; a refresher returning null
+ * means the key no longer exists, and the entry is evicted. Without a refresher entries
+ * simply live until the hard TTL.
+ */
+@Slf4j
+public class StaleWhileRevalidateCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final Cache<Object, Entry> cache;
+    private final long softTtlNanos;
+    private final Ticker ticker;
+    private final Executor refreshExecutor;
+    private final Function<Object, Object> refresher;
+    private final Set<Object> refreshing = ConcurrentHashMap.newKeySet();
+    private final LongAdder staleServed = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+
+    StaleWhileRevalidateCache(String name, Cache<Object, Entry> cache, Duration softTtl, Ticker ticker,
+                              Executor refreshExecutor, Function<Object, Object> refresher) {
+        super(true);
+        this.name = name;
+        this.cache = cache;
+        this.softTtlNanos = softTtl.toNanos();
+        this.ticker = ticker;
+        this.refreshExecutor = refreshExecutor;
+        this.refresher = refresher;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Cache<Object, Entry> getNativeCache() {
+        return cache;
+    }
+
+    public long getStaleServed() {
+        return staleServed.sum();
+    }
+
+    public long getRefreshFailures() {
+        return refreshFailures.sum();
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Entry entry = cache.getIfPresent(key);
+        return entry != null ? entry.value() : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Entry entry = cache.get(key, k -> load(k, valueLoader));
+        if (refresher != null && ticker.read() - entry.writtenAt() >= softTtlNanos) {
+            staleServed.increment();
+            refreshInBackground(key);
+        }
+        return (T) fromStoreValue(entry.value());
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        cache.put(key, new Entry(toStoreValue(value), ticker.read()));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        Entry existing = cache.asMap().putIfAbsent(key, new Entry(toStoreValue(value), ticker.read()));
+        return existing != null ? toValueWrapper(existing.value()) : null;
+    }
+
+    @Override
+    public void evict(Object key) {
+        cache.invalidate(key);
+    }
+
+    @Override
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    private Entry load(Object key, Callable<?> valueLoader) {
+        try {
+            return new Entry(toStoreValue(valueLoader.call()), ticker.read());
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    private void refreshInBackground(Object key) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    Object value = refresher.apply(key);
+                    if (value != null) {
+                        cache.put(key, new Entry(toStoreValue(value), ticker.read()));
+                    } else {
+                        log.info("Evicting '{}' from cache '{}': it no longer exists", key, name);
+                        cache.invalidate(key);
+                    }
+                } catch (RuntimeException e) {
+                    refreshFailures.increment();
+                    log.warn("Background refresh of '{}' in cache '{}' failed, serving stale: {}", key, name, e.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+        }
+    }
+
+    record Entry(Object value, long writtenAt) {
+    }
+}
@@ -0,0 +1,17 @@
+package hr.abysalto.hiring.mid.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "security.token")
+public class TokenSettings {
+
+    // HMAC-SHA256 key, at least 32 bytes; when empty a random key is generated per start
+    private String secret = "";
+    private Duration timeToLive = Duration.ofHours(1);
+    // how often cached token versions are re-read from USERS, for changes made outside the application
+    private Duration versionRefreshInterval = Duration.ofMinutes(1);
+}
@@ -4,14 +4,21 @@ import hr.abysalto.hiring.mid.dto.request.LoginRequest;
 import hr.abysalto.hiring.mid.dto.request.RegisterRequest;
 import hr.abysalto.hiring.mid.dto.response.AuthResponse;
 import hr.abysalto.hiring.mid.dto.response.UserResponse;
+import hr.abysalto.hiring.mid.security.AuthenticatedUser;
+import hr.abysalto.hiring.mid.security.TokenClaims;
 import hr.abysalto.hiring.mid.service.AuthService;
 import hr.abysalto.hiring.mid.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.www.BasicAuthenticationConverter;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 @Tag(name = "Authentication", description = "User authentication endpoints")
 @RestController
@@ -21,6 +28,7 @@ public class AuthController {
 
     private final UserService userService;
     private final AuthService authService;
+    private final BasicAuthenticationConverter basicAuthenticationConverter = new BasicAuthenticationConverter();
 
     @Operation(summary = "Register new user")
     @PostMapping("/register")
@@ -29,10 +37,41 @@ public class AuthController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
-    @Operation(summary = "Login user")
+    @Operation(summary = "Login user with a JSON body or an HTTP Basic header")
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@RequestBody LoginRequest request) {
-        AuthResponse response = authService.login(request);
+    public ResponseEntity<AuthResponse> login(@RequestBody(required = false) LoginRequest request,
+                                              Authentication authentication,
+                                              HttpServletRequest httpRequest) {
+        // the Basic filter (when enabled) has already verified these credentials
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user
+                && !(authentication.getCredentials() instanceof TokenClaims)) {
+            return ResponseEntity.ok(authService.login(user));
+        }
+
+        LoginRequest credentials = request != null ? request : basicCredentials(httpRequest);
+        if (credentials == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Credentials required");
+        }
+
+        AuthResponse response = authService.login(credentials);
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+
+    @Operation(summary = "Revoke the bearer token used for this request")
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(Authentication authentication) {
+        authService.logout(authentication);
+        return ResponseEntity.noContent().build();
+    }
+
+    private LoginRequest basicCredentials(HttpServletRequest request) {
+        UsernamePasswordAuthenticationToken token = basicAuthenticationConverter.convert(request);
+        if (token == null) {
+            return null;
+        }
+        return LoginRequest.builder()
+                .username(token.getName())
+                .password((String) token.getCredentials())
+                .build();
+    }
+}
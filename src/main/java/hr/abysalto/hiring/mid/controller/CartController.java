@@ -1,19 +1,21 @@
 package hr.abysalto.hiring.mid.controller;
 
-import hr.abysalto.hiring.mid.domain.User;
 import hr.abysalto.hiring.mid.dto.request.AddToCartRequest;
+import hr.abysalto.hiring.mid.dto.request.CartBatchRequest;
 import hr.abysalto.hiring.mid.dto.response.CartItemResponse;
 import hr.abysalto.hiring.mid.dto.response.CartResponse;
+import hr.abysalto.hiring.mid.dto.response.CartSummaryResponse;
+import hr.abysalto.hiring.mid.security.AuthenticatedUser;
 import hr.abysalto.hiring.mid.service.CartService;
-import hr.abysalto.hiring.mid.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 @Tag(name = "Cart", description = "Shopping cart management endpoints")
 @RestController
@@ -22,46 +24,54 @@ import org.springframework.web.bind.annotation.*;
 public class CartController {
 
     private final CartService cartService;
-    private final UserService userService;
+
+    @Value("${cart.batch.max-items:100}")
+    private int maxBatchItems;
 
     @Operation(summary = "Add product to cart")
     @PostMapping
-    public ResponseEntity<CartItemResponse> addToCart(@RequestBody AddToCartRequest request) {
-        Long userId = getCurrentUserId();
-        CartItemResponse response = cartService.addToCart(userId, request);
+    public ResponseEntity<CartItemResponse> addToCart(@AuthenticationPrincipal AuthenticatedUser user, @RequestBody AddToCartRequest request) {
+        CartItemResponse response = cartService.addToCart(user.getId(), request);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @Operation(summary = "Add and remove several products in one transaction",
+            description = "Removals are applied before additions. Returns the updated cart.")
+    @PostMapping("/batch")
+    public ResponseEntity<CartResponse> applyBatch(@AuthenticationPrincipal AuthenticatedUser user, @RequestBody CartBatchRequest request) {
+        if (request.getAdd().size() + request.getRemove().size() > maxBatchItems) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + maxBatchItems + " changes per batch");
+        }
+
+        CartResponse response = cartService.applyBatch(user.getId(), request);
+        return ResponseEntity.ok(response);
+    }
+
     @Operation(summary = "Get current user's cart")
     @GetMapping
-    public ResponseEntity<CartResponse> getCart() {
-        Long userId = getCurrentUserId();
-        CartResponse response = cartService.getUserCart(userId);
+    public ResponseEntity<CartResponse> getCart(@AuthenticationPrincipal AuthenticatedUser user) {
+        CartResponse response = cartService.getUserCart(user.getId());
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Get cart totals without line items", description = "Cheap enough for header and badge polling.")
+    @GetMapping("/summary")
+    public ResponseEntity<CartSummaryResponse> getCartSummary(@AuthenticationPrincipal AuthenticatedUser user) {
+        CartSummaryResponse response = cartService.getCartSummary(user.getId());
         return ResponseEntity.ok(response);
     }
 
     @Operation(summary = "Remove product from cart")
     @DeleteMapping("/{productId}")
-    public ResponseEntity<Void> removeFromCart(@PathVariable Long productId) {
-        Long userId = getCurrentUserId();
-        cartService.removeFromCart(userId, productId);
+    public ResponseEntity<Void> removeFromCart(@AuthenticationPrincipal AuthenticatedUser user, @PathVariable Long productId) {
+        cartService.removeFromCart(user.getId(), productId);
         return ResponseEntity.noContent().build();
     }
 
     @Operation(summary = "Clear entire cart")
     @DeleteMapping
-    public ResponseEntity<Void> clearCart() {
-        Long userId = getCurrentUserId();
-        cartService.clearCart(userId);
+    public ResponseEntity<Void> clearCart(@AuthenticationPrincipal AuthenticatedUser user) {
+        cartService.clearCart(user.getId());
         return ResponseEntity.noContent().build();
     }
-
-    private Long getCurrentUserId() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-
-        return userService.findByUsername(username)
-                .map(User::getId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-    }
 }
\ No newline at end of file
@@ -1,18 +1,22 @@
 package hr.abysalto.hiring.mid.controller;
 
-import hr.abysalto.hiring.mid.domain.User;
+import hr.abysalto.hiring.mid.dto.response.ProductBatchResponse;
 import hr.abysalto.hiring.mid.dto.response.ProductListResponse;
 import hr.abysalto.hiring.mid.dto.response.ProductResponse;
+import hr.abysalto.hiring.mid.security.AuthenticatedUser;
 import hr.abysalto.hiring.mid.service.ProductService;
-import hr.abysalto.hiring.mid.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
 
 @Tag(name = "Products", description = "Product browsing endpoints")
 @RestController
@@ -21,45 +25,51 @@ import org.springframework.web.bind.annotation.*;
 public class ProductController {
 
     private final ProductService productService;
-    private final UserService userService;
+
+    @Value("${products.batch.max-ids:100}")
+    private int maxBatchIds;
 
     @Operation(summary = "Get all products with pagination")
     @GetMapping
     public ResponseEntity<ProductListResponse> getAllProducts(
+            @AuthenticationPrincipal AuthenticatedUser user,
             @Parameter(description = "Number of items to return") @RequestParam(defaultValue = "10") Integer limit,
             @Parameter(description = "Number of items to skip") @RequestParam(defaultValue = "0") Integer skip,
             @RequestParam(required = false) String sortBy,
             @RequestParam(defaultValue = "asc") String order) {
 
-        Long userId = getCurrentUserId();
-        ProductListResponse response = productService.getAllProducts(limit, skip, sortBy, order, userId);
+        ProductListResponse response = productService.getAllProducts(limit, skip, sortBy, order, user.getId());
         return ResponseEntity.ok(response);
     }
 
     @Operation(summary = "Get single product by ID")
     @GetMapping("/{productId}")
-    public ResponseEntity<ProductResponse> getProductById(@PathVariable Long productId) {
-        Long userId = getCurrentUserId();
-        ProductResponse response = productService.getProductById(productId, userId);
+    public ResponseEntity<ProductResponse> getProductById(@AuthenticationPrincipal AuthenticatedUser user, @PathVariable Long productId) {
+        ProductResponse response = productService.getProductById(productId, user.getId());
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Get several products by ID, in the requested order")
+    @GetMapping("/batch")
+    public ResponseEntity<ProductBatchResponse> getProductsByIds(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @Parameter(description = "Comma-separated product IDs") @RequestParam List<Long> ids) {
+
+        if (ids.size() > maxBatchIds) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + maxBatchIds + " ids per batch");
+        }
+
+        ProductBatchResponse response = productService.getProductsByIds(ids, user.getId());
         return ResponseEntity.ok(response);
     }
 
     @Operation(summary = "Search products by query")
     @GetMapping("/search")
     public ResponseEntity<ProductListResponse> searchProducts(
+            @AuthenticationPrincipal AuthenticatedUser user,
             @Parameter(description = "Search query") @RequestParam String q) {
 
-        Long userId = getCurrentUserId();
-        ProductListResponse response = productService.searchProducts(q, userId);
+        ProductListResponse response = productService.searchProducts(q, user.getId());
         return ResponseEntity.ok(response);
     }
-
-    private Long getCurrentUserId() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-
-        return userService.findByUsername(username)
-                .map(User::getId)
-                .orElse(null);
-    }
 }
\ No newline at end of file
@@ -1,15 +1,17 @@
 package hr.abysalto.hiring.mid.controller;
 
-import hr.abysalto.hiring.mid.domain.User;
+import hr.abysalto.hiring.mid.dto.request.ChangePasswordRequest;
 import hr.abysalto.hiring.mid.dto.response.UserResponse;
+import hr.abysalto.hiring.mid.security.AuthenticatedUser;
 import hr.abysalto.hiring.mid.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -23,13 +25,15 @@ public class UserController {
 
     @Operation(summary = "Get current authenticated user info")
     @GetMapping("/me")
-    public ResponseEntity<UserResponse> getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-
-        User user = userService.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public ResponseEntity<UserResponse> getCurrentUser(@AuthenticationPrincipal AuthenticatedUser user) {
         return ResponseEntity.ok(userService.mapToResponse(user));
     }
+
+    @Operation(summary = "Change the current user's password and revoke their tokens")
+    @PutMapping("/me/password")
+    public ResponseEntity<Void> changePassword(@AuthenticationPrincipal AuthenticatedUser user,
+                                               @RequestBody ChangePasswordRequest request) {
+        userService.changePassword(user.getId(), request.getCurrentPassword(), request.getNewPassword());
+        return ResponseEntity.noContent().build();
+    }
 }
\ No newline at end of file
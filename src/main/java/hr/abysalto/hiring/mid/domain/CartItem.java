@@ -10,7 +10,7 @@ import org.springframework.data.relational.core.mapping.Table;
 import java.time.LocalDateTime;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Table("CART_ITEMS")
@@ -25,9 +25,11 @@ public class CartItem {
 
     private String productTitle;
 
-    private Double productPrice;
+    private long productPriceCents;
 
-    private Integer quantity;
+    private int quantity;
+
+    private boolean outOfStock;
 
     private LocalDateTime addedAt;
 }
@@ -0,0 +1,31 @@
+package hr.abysalto.hiring.mid.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("CART_SUMMARY")
+public class CartSummary {
+
+    @Id
+    private Long userId;
+
+    private int itemCount;
+
+    private int totalQuantity;
+
+    private long totalPriceCents;
+
+    private long version;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,42 @@
+package hr.abysalto.hiring.mid.domain;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Cart amounts are carried as {@code long} cents end to end; CART_ITEMS and CART_SUMMARY
+ * store them as BIGINT. Conversion only happens where prices enter the cart (the catalog's
+ * double prices) and where they leave it (JSON responses, written as exact decimals).
+ */
+public final class Money {
+
+    private Money() {
+    }
+
+    public static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    public static BigDecimal toDecimal(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * Writes a cents field as a decimal amount, e.g. {@code 99999} as {@code 999.99}.
+     */
+    public static final class Serializer extends StdSerializer<Long> {
+
+        public Serializer() {
+            super(Long.class);
+        }
+
+        @Override
+        public void serialize(Long cents, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeNumber(toDecimal(cents));
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package hr.abysalto.hiring.mid.domain;
+
+/**
+ * The part of a catalog product that cart operations need, independent of the user asking.
+ * Titles are interned: the same titles repeat across cached entries and cart lines.
+ */
+public record ProductPrice(long productId, String title, long priceCents, boolean outOfStock) {
+
+    public ProductPrice {
+        title = title == null ? null : title.intern();
+    }
+}
@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.ReadOnlyProperty;
 import org.springframework.data.relational.core.mapping.Table;
 
 import java.time.LocalDateTime;
@@ -32,4 +33,8 @@ public class User {
     private LocalDateTime createdAt;
 
     private boolean enabled;
+
+    // changed only through UserRepository.incrementTokenVersion, so saving a user never rolls it back
+    @ReadOnlyProperty
+    private int tokenVersion;
 }
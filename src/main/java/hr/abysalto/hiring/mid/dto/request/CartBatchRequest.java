@@ -0,0 +1,22 @@
+package hr.abysalto.hiring.mid.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartBatchRequest {
+
+    @Builder.Default
+    private List<AddToCartRequest> add = new ArrayList<>();
+
+    @Builder.Default
+    private List<Long> remove = new ArrayList<>();
+}
@@ -0,0 +1,16 @@
+package hr.abysalto.hiring.mid.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangePasswordRequest {
+
+    private String currentPassword;
+    private String newPassword;
+}
@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -12,5 +14,8 @@ import lombok.NoArgsConstructor;
 public class AuthResponse {
 
     private String message;
+    private String token;
+    private String tokenType;
+    private Instant expiresAt;
     private UserResponse user;
 }
\ No newline at end of file
@@ -1,5 +1,8 @@
 package hr.abysalto.hiring.mid.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import hr.abysalto.hiring.mid.domain.Money;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -16,8 +19,18 @@ public class CartItemResponse {
     private Long id;
     private Long productId;
     private String productTitle;
-    private Double productPrice;
-    private Integer quantity;
-    private Double subtotal;
+
+    @JsonProperty("productPrice")
+    @JsonSerialize(using = Money.Serializer.class)
+    private long productPriceCents;
+
+    private int quantity;
+
+    private boolean outOfStock;
+
+    @JsonProperty("subtotal")
+    @JsonSerialize(using = Money.Serializer.class)
+    private long subtotalCents;
+
     private LocalDateTime addedAt;
 }
\ No newline at end of file
@@ -1,5 +1,8 @@
 package hr.abysalto.hiring.mid.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import hr.abysalto.hiring.mid.domain.Money;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -15,6 +18,9 @@ public class CartResponse {
 
     private Long userId;
     private List<CartItemResponse> items;
-    private Integer totalItems;
-    private Double totalPrice;
+    private int totalItems;
+
+    @JsonProperty("totalPrice")
+    @JsonSerialize(using = Money.Serializer.class)
+    private long totalPriceCents;
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package hr.abysalto.hiring.mid.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import hr.abysalto.hiring.mid.domain.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartSummaryResponse {
+
+    private Long userId;
+    private int itemCount;
+    private int totalItems;
+
+    @JsonProperty("totalPrice")
+    @JsonSerialize(using = Money.Serializer.class)
+    private long totalPriceCents;
+
+    private long version;
+}
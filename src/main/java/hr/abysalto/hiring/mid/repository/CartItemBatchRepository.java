@@ -0,0 +1,78 @@
+package hr.abysalto.hiring.mid.repository;
+
+import hr.abysalto.hiring.mid.domain.CartItem;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Multi-row cart writes, each sent to the database as a single JDBC batch, and the
+ * table-wide scans behind cart revalidation and the abandoned-cart sweep.
+ */
+public interface CartItemBatchRepository {
+
+    /**
+     * Same MERGE as {@link CartItemRepository#upsert}, once per item.
+     */
+    void upsertAll(Collection<CartItem> items);
+
+    void deleteAllByUserIdAndProductIds(Long userId, Collection<Long> productIds);
+
+    /**
+     * Writes each item's quantity, title and price as given, inserting missing lines.
+     */
+    void replaceAll(Collection<CartItem> items);
+
+    /**
+     * Deletes the lines identified by each item's user and product id.
+     */
+    void deleteLines(Collection<CartItem> items);
+
+    /**
+     * Next page of distinct product ids held in any cart, in id order after {@code afterProductId}.
+     */
+    List<Long> findProductIdsAfter(long afterProductId, int limit);
+
+    /**
+     * Distinct title, price and stock flag combinations stored for the given products, with
+     * the number of lines holding each.
+     */
+    List<ProductLines> findProductLines(Collection<Long> productIds);
+
+    /**
+     * Writes each item's title, price and stock flag to every cart line of its product.
+     *
+     * @return number of lines changed, per item
+     */
+    int[] refreshProducts(Collection<CartItem> products);
+
+    /**
+     * Flags every cart line of the given products as out of stock.
+     */
+    void markOutOfStock(Collection<Long> productIds);
+
+    /**
+     * Newest line and line count of each cart in the next {@code limit} rows after
+     * {@code afterUserId}, in user id order. The last cart is always reported whole.
+     */
+    List<CartActivity> findCartActivityAfter(long afterUserId, int limit);
+
+    /**
+     * Deletes the carts of the given users that still have no line added or changed at or after {@code cutoff}.
+     *
+     * @return number of lines deleted
+     */
+    int deleteIdleCarts(Collection<Long> userIds, LocalDateTime cutoff);
+
+    /**
+     * The given users that have at least one cart line.
+     */
+    List<Long> findUsersWithLines(Collection<Long> userIds);
+
+    record ProductLines(Long productId, String productTitle, long productPriceCents, boolean outOfStock, int lines) {
+    }
+
+    record CartActivity(Long userId, LocalDateTime lastUpdatedAt, int lines) {
+    }
+}
@@ -0,0 +1,214 @@
+package hr.abysalto.hiring.mid.repository;
+
+import hr.abysalto.hiring.mid.domain.CartItem;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+class CartItemBatchRepositoryImpl implements CartItemBatchRepository {
+
+    private static final String UPSERT = """
+            MERGE INTO CART_ITEMS c
+            USING (VALUES (CAST(:userId AS BIGINT), CAST(:productId AS BIGINT))) s (USER_ID, PRODUCT_ID)
+            ON c.USER_ID = s.USER_ID AND c.PRODUCT_ID = s.PRODUCT_ID
+            WHEN MATCHED THEN UPDATE SET QUANTITY = c.QUANTITY + :quantity, OUT_OF_STOCK = :outOfStock, UPDATED_AT = CURRENT_TIMESTAMP
+            WHEN NOT MATCHED THEN INSERT (USER_ID, PRODUCT_ID, PRODUCT_TITLE, PRODUCT_PRICE_CENTS, QUANTITY, OUT_OF_STOCK, ADDED_AT, UPDATED_AT)
+                VALUES (s.USER_ID, s.PRODUCT_ID, :productTitle, :productPriceCents, :quantity, :outOfStock, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+            """;
+
+    private static final String REPLACE = """
+            MERGE INTO CART_ITEMS (USER_ID, PRODUCT_ID, PRODUCT_TITLE, PRODUCT_PRICE_CENTS, QUANTITY, OUT_OF_STOCK, ADDED_AT, UPDATED_AT)
+            KEY (USER_ID, PRODUCT_ID)
+            VALUES (:userId, :productId, :productTitle, :productPriceCents, :quantity, :outOfStock, :addedAt, CURRENT_TIMESTAMP)
+            """;
+
+    private static final String PRODUCT_IDS = """
+            SELECT DISTINCT PRODUCT_ID FROM CART_ITEMS
+            WHERE PRODUCT_ID > :afterProductId
+            ORDER BY PRODUCT_ID
+            LIMIT :limit
+            """;
+
+    private static final String PRODUCT_LINES = """
+            SELECT PRODUCT_ID, PRODUCT_TITLE, PRODUCT_PRICE_CENTS, OUT_OF_STOCK, COUNT(*) LINES
+            FROM CART_ITEMS
+            WHERE PRODUCT_ID IN (:productIds)
+            GROUP BY PRODUCT_ID, PRODUCT_TITLE, PRODUCT_PRICE_CENTS, OUT_OF_STOCK
+            """;
+
+    private static final String REFRESH_PRODUCT = """
+            UPDATE CART_ITEMS
+            SET PRODUCT_TITLE = :productTitle, PRODUCT_PRICE_CENTS = :productPriceCents, OUT_OF_STOCK = :outOfStock
+            WHERE PRODUCT_ID = :productId
+              AND (PRODUCT_TITLE IS DISTINCT FROM :productTitle
+                   OR PRODUCT_PRICE_CENTS <> :productPriceCents
+                   OR OUT_OF_STOCK <> :outOfStock)
+            """;
+
+    private static final String MARK_OUT_OF_STOCK =
+            "UPDATE CART_ITEMS SET OUT_OF_STOCK = TRUE WHERE PRODUCT_ID IN (:productIds) AND OUT_OF_STOCK = FALSE";
+
+    private static final String CART_ACTIVITY = """
+            SELECT USER_ID, MAX(UPDATED_AT) LAST_UPDATED_AT, COUNT(*) LINES
+            FROM CART_ITEMS
+            WHERE USER_ID > :afterUserId
+              AND USER_ID <= (SELECT MAX(USER_ID) FROM (
+                  SELECT USER_ID FROM CART_ITEMS WHERE USER_ID > :afterUserId ORDER BY USER_ID LIMIT :limit))
+            GROUP BY USER_ID
+            ORDER BY USER_ID
+            """;
+
+    private static final String DELETE_IDLE_CARTS = """
+            DELETE FROM CART_ITEMS
+            WHERE USER_ID IN (:userIds)
+              AND NOT EXISTS (SELECT 1 FROM CART_ITEMS r WHERE r.USER_ID = CART_ITEMS.USER_ID AND r.UPDATED_AT >= :cutoff)
+            """;
+
+    private static final String USERS_WITH_LINES = "SELECT DISTINCT USER_ID FROM CART_ITEMS WHERE USER_ID IN (:userIds)";
+
+    private static final String DELETE = "DELETE FROM CART_ITEMS WHERE USER_ID = :userId AND PRODUCT_ID = :productId";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public void upsertAll(Collection<CartItem> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] batch = items.stream()
+                .map(item -> new MapSqlParameterSource()
+                        .addValue("userId", item.getUserId())
+                        .addValue("productId", item.getProductId())
+                        .addValue("productTitle", item.getProductTitle())
+                        .addValue("productPriceCents", item.getProductPriceCents())
+                        .addValue("quantity", item.getQuantity())
+                        .addValue("outOfStock", item.isOutOfStock()))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(UPSERT, batch);
+    }
+
+    @Override
+    public void replaceAll(Collection<CartItem> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] batch = items.stream()
+                .map(item -> lineParameters(item)
+                        .addValue("productTitle", item.getProductTitle())
+                        .addValue("productPriceCents", item.getProductPriceCents())
+                        .addValue("quantity", item.getQuantity())
+                        .addValue("outOfStock", item.isOutOfStock())
+                        .addValue("addedAt", item.getAddedAt()))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(REPLACE, batch);
+    }
+
+    @Override
+    public void deleteLines(Collection<CartItem> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] batch = items.stream()
+                .map(this::lineParameters)
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(DELETE, batch);
+    }
+
+    @Override
+    public void deleteAllByUserIdAndProductIds(Long userId, Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] batch = productIds.stream()
+                .map(productId -> new MapSqlParameterSource()
+                        .addValue("userId", userId)
+                        .addValue("productId", productId))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(DELETE, batch);
+    }
+
+    @Override
+    public List<Long> findProductIdsAfter(long afterProductId, int limit) {
+        return jdbcTemplate.queryForList(PRODUCT_IDS, new MapSqlParameterSource()
+                .addValue("afterProductId", afterProductId)
+                .addValue("limit", limit), Long.class);
+    }
+
+    @Override
+    public List<ProductLines> findProductLines(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(PRODUCT_LINES, new MapSqlParameterSource("productIds", productIds),
+                (rs, rowNum) -> new ProductLines(
+                        rs.getLong("PRODUCT_ID"),
+                        rs.getString("PRODUCT_TITLE"),
+                        rs.getLong("PRODUCT_PRICE_CENTS"),
+                        rs.getBoolean("OUT_OF_STOCK"),
+                        rs.getInt("LINES")));
+    }
+
+    @Override
+    public int[] refreshProducts(Collection<CartItem> products) {
+        if (products.isEmpty()) {
+            return new int[0];
+        }
+        SqlParameterSource[] batch = products.stream()
+                .map(product -> new MapSqlParameterSource()
+                        .addValue("productId", product.getProductId())
+                        .addValue("productTitle", product.getProductTitle())
+                        .addValue("productPriceCents", product.getProductPriceCents())
+                        .addValue("outOfStock", product.isOutOfStock()))
+                .toArray(SqlParameterSource[]::new);
+        return jdbcTemplate.batchUpdate(REFRESH_PRODUCT, batch);
+    }
+
+    @Override
+    public void markOutOfStock(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(MARK_OUT_OF_STOCK, new MapSqlParameterSource("productIds", productIds));
+    }
+
+    @Override
+    public List<CartActivity> findCartActivityAfter(long afterUserId, int limit) {
+        return jdbcTemplate.query(CART_ACTIVITY, new MapSqlParameterSource()
+                        .addValue("afterUserId", afterUserId)
+                        .addValue("limit", limit),
+                (rs, rowNum) -> new CartActivity(
+                        rs.getLong("USER_ID"),
+                        rs.getObject("LAST_UPDATED_AT", LocalDateTime.class),
+                        rs.getInt("LINES")));
+    }
+
+    @Override
+    public int deleteIdleCarts(Collection<Long> userIds, LocalDateTime cutoff) {
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(DELETE_IDLE_CARTS, new MapSqlParameterSource()
+                .addValue("userIds", userIds)
+                .addValue("cutoff", cutoff));
+    }
+
+    @Override
+    public List<Long> findUsersWithLines(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.queryForList(USERS_WITH_LINES, new MapSqlParameterSource("userIds", userIds), Long.class);
+    }
+
+    private MapSqlParameterSource lineParameters(CartItem item) {
+        return new MapSqlParameterSource()
+                .addValue("userId", item.getUserId())
+                .addValue("productId", item.getProductId());
+    }
+}
@@ -11,17 +11,37 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CartItemRepository extends CrudRepository<CartItem, Long> {
+public interface CartItemRepository extends CrudRepository<CartItem, Long>, CartItemBatchRepository {
 
     List<CartItem> findByUserId(Long userId);
 
     Optional<CartItem> findByUserIdAndProductId(Long userId, Long productId);
 
+    /**
+     * Inserts the item or adds {@code quantity} to the existing row in a single MERGE and
+     * returns the resulting row. The stock flag is current, so it is written either way. Relies on the unique (USER_ID, PRODUCT_ID) constraint.
+     */
+    @Query("""
+            SELECT * FROM FINAL TABLE (
+                MERGE INTO CART_ITEMS c
+                USING (VALUES (CAST(:userId AS BIGINT), CAST(:productId AS BIGINT))) s (USER_ID, PRODUCT_ID)
+                ON c.USER_ID = s.USER_ID AND c.PRODUCT_ID = s.PRODUCT_ID
+                WHEN MATCHED THEN UPDATE SET QUANTITY = c.QUANTITY + :quantity, OUT_OF_STOCK = :outOfStock, UPDATED_AT = CURRENT_TIMESTAMP
+                WHEN NOT MATCHED THEN INSERT (USER_ID, PRODUCT_ID, PRODUCT_TITLE, PRODUCT_PRICE_CENTS, QUANTITY, OUT_OF_STOCK, ADDED_AT, UPDATED_AT)
+                    VALUES (s.USER_ID, s.PRODUCT_ID, :productTitle, :productPriceCents, :quantity, :outOfStock, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+            )
+            """)
+    CartItem upsert(@Param("userId") Long userId, @Param("productId") Long productId,
+                    @Param("productTitle") String productTitle, @Param("productPriceCents") long productPriceCents,
+                    @Param("outOfStock") boolean outOfStock, @Param("quantity") int quantity);
+
     @Modifying
     @Query("DELETE FROM CART_ITEMS WHERE USER_ID = :userId")
     void deleteByUserId(@Param("userId") Long userId);
 
-    @Modifying
-    @Query("DELETE FROM CART_ITEMS WHERE USER_ID = :userId AND PRODUCT_ID = :productId")
-    void deleteByUserIdAndProductId(@Param("userId") Long userId, @Param("productId") Long productId);
+    /**
+     * Deletes the item and returns the removed row, if there was one.
+     */
+    @Query("SELECT * FROM OLD TABLE (DELETE FROM CART_ITEMS WHERE USER_ID = :userId AND PRODUCT_ID = :productId)")
+    Optional<CartItem> removeByUserIdAndProductId(@Param("userId") Long userId, @Param("productId") Long productId);
 }
\ No newline at end of file
@@ -0,0 +1,105 @@
+package hr.abysalto.hiring.mid.repository;
+
+import hr.abysalto.hiring.mid.domain.CartSummary;
+import org.springframework.data.jdbc.repository.query.Modifying;
+import org.springframework.data.jdbc.repository.query.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+/**
+ * Per-user cart totals, kept in step with CART_ITEMS by {@code CartService} inside the
+ * same transaction as each cart change.
+ */
+@Repository
+public interface CartSummaryRepository extends CrudRepository<CartSummary, Long> {
+
+    /**
+     * @return 0 when the user has no summary row yet
+     */
+    @Modifying
+    @Query("""
+            UPDATE CART_SUMMARY
+            SET ITEM_COUNT = ITEM_COUNT + :itemCount,
+                TOTAL_QUANTITY = TOTAL_QUANTITY + :quantity,
+                TOTAL_PRICE_CENTS = TOTAL_PRICE_CENTS + :priceCents,
+                VERSION = VERSION + 1,
+                UPDATED_AT = CURRENT_TIMESTAMP
+            WHERE USER_ID = :userId
+            """)
+    int applyDelta(@Param("userId") Long userId, @Param("itemCount") int itemCount,
+                   @Param("quantity") int quantity, @Param("priceCents") long priceCents);
+
+    /**
+     * Rebuilds the row from CART_ITEMS, creating it if needed.
+     */
+    @Modifying
+    @Query("""
+            MERGE INTO CART_SUMMARY s
+            USING (
+                SELECT CAST(:userId AS BIGINT) USER_ID, COUNT(*) ITEM_COUNT,
+                       COALESCE(SUM(QUANTITY), 0) TOTAL_QUANTITY, COALESCE(SUM(PRODUCT_PRICE_CENTS * QUANTITY), 0) TOTAL_PRICE_CENTS
+                FROM CART_ITEMS WHERE USER_ID = :userId
+            ) c
+            ON s.USER_ID = c.USER_ID
+            WHEN MATCHED THEN UPDATE SET ITEM_COUNT = c.ITEM_COUNT, TOTAL_QUANTITY = c.TOTAL_QUANTITY,
+                TOTAL_PRICE_CENTS = c.TOTAL_PRICE_CENTS, VERSION = s.VERSION + 1, UPDATED_AT = CURRENT_TIMESTAMP
+            WHEN NOT MATCHED THEN INSERT (USER_ID, ITEM_COUNT, TOTAL_QUANTITY, TOTAL_PRICE_CENTS, VERSION, UPDATED_AT)
+                VALUES (c.USER_ID, c.ITEM_COUNT, c.TOTAL_QUANTITY, c.TOTAL_PRICE_CENTS, 1, CURRENT_TIMESTAMP)
+            """)
+    void recompute(@Param("userId") Long userId);
+
+    /**
+     * Like {@link #recompute} but sets VERSION to the given value, for changes that were
+     * counted before they reached the database.
+     */
+    @Modifying
+    @Query("""
+            MERGE INTO CART_SUMMARY s
+            USING (
+                SELECT CAST(:userId AS BIGINT) USER_ID, COUNT(*) ITEM_COUNT,
+                       COALESCE(SUM(QUANTITY), 0) TOTAL_QUANTITY, COALESCE(SUM(PRODUCT_PRICE_CENTS * QUANTITY), 0) TOTAL_PRICE_CENTS
+                FROM CART_ITEMS WHERE USER_ID = :userId
+            ) c
+            ON s.USER_ID = c.USER_ID
+            WHEN MATCHED THEN UPDATE SET ITEM_COUNT = c.ITEM_COUNT, TOTAL_QUANTITY = c.TOTAL_QUANTITY,
+                TOTAL_PRICE_CENTS = c.TOTAL_PRICE_CENTS, VERSION = :version, UPDATED_AT = CURRENT_TIMESTAMP
+            WHEN NOT MATCHED THEN INSERT (USER_ID, ITEM_COUNT, TOTAL_QUANTITY, TOTAL_PRICE_CENTS, VERSION, UPDATED_AT)
+                VALUES (c.USER_ID, c.ITEM_COUNT, c.TOTAL_QUANTITY, c.TOTAL_PRICE_CENTS, :version, CURRENT_TIMESTAMP)
+            """)
+    void recompute(@Param("userId") Long userId, @Param("version") long version);
+
+    /**
+     * {@link #recompute(Long)} for every user holding one of the given products.
+     */
+    @Modifying
+    @Query("""
+            MERGE INTO CART_SUMMARY s
+            USING (
+                SELECT USER_ID, COUNT(*) ITEM_COUNT, SUM(QUANTITY) TOTAL_QUANTITY, SUM(PRODUCT_PRICE_CENTS * QUANTITY) TOTAL_PRICE_CENTS
+                FROM CART_ITEMS
+                WHERE USER_ID IN (SELECT USER_ID FROM CART_ITEMS WHERE PRODUCT_ID IN (:productIds))
+                GROUP BY USER_ID
+            ) c
+            ON s.USER_ID = c.USER_ID
+            WHEN MATCHED THEN UPDATE SET ITEM_COUNT = c.ITEM_COUNT, TOTAL_QUANTITY = c.TOTAL_QUANTITY,
+                TOTAL_PRICE_CENTS = c.TOTAL_PRICE_CENTS, VERSION = s.VERSION + 1, UPDATED_AT = CURRENT_TIMESTAMP
+            WHEN NOT MATCHED THEN INSERT (USER_ID, ITEM_COUNT, TOTAL_QUANTITY, TOTAL_PRICE_CENTS, VERSION, UPDATED_AT)
+                VALUES (c.USER_ID, c.ITEM_COUNT, c.TOTAL_QUANTITY, c.TOTAL_PRICE_CENTS, 1, CURRENT_TIMESTAMP)
+            """)
+    void recomputeForProducts(@Param("productIds") Collection<Long> productIds);
+
+    /**
+     * Zeroes the totals of the given users whose carts are now empty, keeping VERSION increasing.
+     */
+    @Modifying
+    @Query("""
+            UPDATE CART_SUMMARY
+            SET ITEM_COUNT = 0, TOTAL_QUANTITY = 0, TOTAL_PRICE_CENTS = 0, VERSION = VERSION + 1, UPDATED_AT = CURRENT_TIMESTAMP
+            WHERE USER_ID IN (:userIds)
+              AND NOT EXISTS (SELECT 1 FROM CART_ITEMS WHERE CART_ITEMS.USER_ID = CART_SUMMARY.USER_ID)
+            """)
+    void resetEmpty(@Param("userIds") Collection<Long> userIds);
+}
@@ -15,10 +15,16 @@ public interface FavoriteRepository extends CrudRepository<Favorite, Long> {
 
     List<Favorite> findByUserId(Long userId);
 
+    @Query("SELECT PRODUCT_ID FROM FAVORITES WHERE USER_ID = :userId")
+    List<Long> findProductIdsByUserId(@Param("userId") Long userId);
+
     Optional<Favorite> findByUserIdAndProductId(Long userId, Long productId);
 
     boolean existsByUserIdAndProductId(Long userId, Long productId);
 
+    @Query("SELECT PRODUCT_ID FROM FAVORITES GROUP BY PRODUCT_ID ORDER BY COUNT(*) DESC, PRODUCT_ID LIMIT :limit")
+    List<Long> findMostFavoritedProductIds(@Param("limit") int limit);
+
     @Modifying
     @Query("DELETE FROM FAVORITES WHERE USER_ID = :userId AND PRODUCT_ID = :productId")
     void deleteByUserIdAndProductId(@Param("userId") Long userId, @Param("productId") Long productId);
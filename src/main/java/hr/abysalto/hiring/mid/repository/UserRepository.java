@@ -1,7 +1,10 @@
 package hr.abysalto.hiring.mid.repository;
 
 import hr.abysalto.hiring.mid.domain.User;
+import org.springframework.data.jdbc.repository.query.Modifying;
+import org.springframework.data.jdbc.repository.query.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -16,4 +19,15 @@ public interface UserRepository extends CrudRepository<User, Long> {
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
+
+    @Modifying
+    @Query("UPDATE USERS SET PASSWORD = :password WHERE USERNAME = :username")
+    int updatePassword(@Param("username") String username, @Param("password") String password);
+
+    @Query("SELECT TOKEN_VERSION FROM USERS WHERE ID = :id")
+    Optional<Integer> findTokenVersionById(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE USERS SET TOKEN_VERSION = TOKEN_VERSION + 1 WHERE ID = :id")
+    int incrementTokenVersion(@Param("id") Long id);
 }
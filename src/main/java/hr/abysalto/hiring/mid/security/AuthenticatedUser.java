@@ -0,0 +1,69 @@
+package hr.abysalto.hiring.mid.security;
+
+import hr.abysalto.hiring.mid.domain.User;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Security principal for both Basic and bearer authentication. Carries the user id and
+ * profile so controllers can resolve it with {@code @AuthenticationPrincipal} instead of
+ * loading the USERS row a second time.
+ */
+@Getter
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@ToString(exclude = "password")
+public class AuthenticatedUser implements UserDetails, CredentialsContainer {
+
+    private final Long id;
+
+    private final String username;
+
+    private String password;
+
+    private final String email;
+
+    private final String firstName;
+
+    private final String lastName;
+
+    private final LocalDateTime createdAt;
+
+    private final boolean enabled;
+
+    // bumped on USERS whenever all of the user's tokens are revoked
+    private final int tokenVersion;
+
+    public static AuthenticatedUser from(User user) {
+        return AuthenticatedUser.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .password(user.getPassword())
+                .email(user.getEmail())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .createdAt(user.getCreatedAt())
+                .enabled(user.isEnabled())
+                .tokenVersion(user.getTokenVersion())
+                .build();
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of();
+    }
+
+    @Override
+    public void eraseCredentials() {
+        password = null;
+    }
+}
@@ -0,0 +1,11 @@
+package hr.abysalto.hiring.mid.security;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class PasswordHashingRejectedException extends ResponseStatusException {
+
+    public PasswordHashingRejectedException() {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Password hashing capacity exhausted, retry shortly");
+    }
+}
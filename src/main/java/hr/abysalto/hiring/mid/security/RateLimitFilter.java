@@ -0,0 +1,84 @@
+package hr.abysalto.hiring.mid.security;
+
+import hr.abysalto.hiring.mid.components.RateLimiter;
+import hr.abysalto.hiring.mid.configuration.RateLimitSettings;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies {@link RateLimiter} to the configured endpoint groups and answers over-limit
+ * requests with 429 and {@code Retry-After}. Runs after bearer token and HTTP Basic
+ * authentication so per-user groups can key on the user id. A request with bad Basic
+ * credentials is answered 401 before it gets here; the login endpoint takes its
+ * credentials in the body and is limited as usual.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final List<Rule> rules = new ArrayList<>();
+
+    public RateLimitFilter(RateLimiter rateLimiter, RateLimitSettings settings) {
+        this.rateLimiter = rateLimiter;
+        for (Map.Entry<String, RateLimitSettings.Group> entry : settings.getGroups().entrySet()) {
+            List<RequestMatcher> matchers = entry.getValue().getPaths().stream()
+                    .<RequestMatcher>map(AntPathRequestMatcher::new)
+                    .toList();
+            rules.add(new Rule(entry.getKey(), new OrRequestMatcher(matchers), entry.getValue().getKey()));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        for (Rule rule : rules) {
+            if (rule.matcher().matches(request)) {
+                long wait = rateLimiter.tryAcquire(rule.group(), clientKey(rule.key(), request));
+                if (wait > 0) {
+                    reject(response, wait);
+                    return;
+                }
+                break;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private String clientKey(RateLimitSettings.Key key, HttpServletRequest request) {
+        if (key == RateLimitSettings.Key.USER) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+                return "user:" + user.getId();
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"status\":429,\"error\":\"Too Many Requests\"}");
+    }
+
+    private record Rule(String group, RequestMatcher matcher, RateLimitSettings.Key key) {
+    }
+}
@@ -0,0 +1,18 @@
+package hr.abysalto.hiring.mid.security;
+
+import java.time.Instant;
+
+public record TokenClaims(String tokenId, AuthenticatedUser user, Instant issuedAt, Instant expiresAt) {
+
+    public Long userId() {
+        return user.getId();
+    }
+
+    public String username() {
+        return user.getUsername();
+    }
+
+    public int tokenVersion() {
+        return user.getTokenVersion();
+    }
+}
@@ -0,0 +1,108 @@
+package hr.abysalto.hiring.mid.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Ticker;
+import hr.abysalto.hiring.mid.configuration.TokenSettings;
+import hr.abysalto.hiring.mid.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Single revoked tokens are remembered only until they would have expired anyway, so the
+ * list stays proportional to logouts within one token lifetime. It is deliberately not
+ * size-bounded: evicting an entry early would silently un-revoke a token.
+ * <p>
+ * Revoking all of a user's tokens bumps {@code USERS.TOKEN_VERSION} instead, and a token
+ * is valid only while the version it was issued under is current, so the revocation
+ * survives a restart. Versions are cached per user and reloaded from USERS every
+ * {@code security.token.version-refresh-interval}, so changes made directly in the database
+ * apply to active users too; one that has not been used for a token lifetime is dropped.
+ */
+@Component
+public class TokenRevocationList {
+
+    private final Cache<String, Instant> revokedTokens = Caffeine.newBuilder()
+            .expireAfter(new Expiry<String, Instant>() {
+                @Override
+                public long expireAfterCreate(String tokenId, Instant expiresAt, long currentTime) {
+                    return remaining(expiresAt).toNanos();
+                }
+
+                @Override
+                public long expireAfterUpdate(String tokenId, Instant expiresAt, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+
+                @Override
+                public long expireAfterRead(String tokenId, Instant expiresAt, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+
+    private final UserRepository userRepository;
+    // absent for users that no longer exist, so their tokens are all rejected
+    private final LoadingCache<Long, Integer> tokenVersions;
+
+    @Autowired
+    public TokenRevocationList(TokenSettings settings, UserRepository userRepository) {
+        this(settings, userRepository, Ticker.systemTicker(), ForkJoinPool.commonPool());
+    }
+
+    TokenRevocationList(TokenSettings settings, UserRepository userRepository, Ticker ticker, Executor refreshExecutor) {
+        this.userRepository = userRepository;
+        this.tokenVersions = Caffeine.newBuilder()
+                .refreshAfterWrite(settings.getVersionRefreshInterval())
+                .expireAfterAccess(settings.getTimeToLive())
+                .ticker(ticker)
+                .executor(refreshExecutor)
+                .build(userId -> userRepository.findTokenVersionById(userId).orElse(null));
+    }
+
+    /**
+     * Remembers the version read with the user's row at login, so issuing a token and the
+     * requests that follow need no query of their own. A version that is already newer
+     * wins: the row may have been read before a concurrent revocation.
+     */
+    public void loggedIn(AuthenticatedUser user) {
+        if (user.getId() != null) {
+            tokenVersions.asMap().merge(user.getId(), user.getTokenVersion(), Math::max);
+        }
+    }
+
+    public void revoke(TokenClaims claims) {
+        revokedTokens.put(claims.tokenId(), claims.expiresAt());
+    }
+
+    public void revokeAllForUser(Long userId) {
+        userRepository.incrementTokenVersion(userId);
+        Optional<Integer> version = userRepository.findTokenVersionById(userId);
+        if (version.isPresent()) {
+            tokenVersions.asMap().merge(userId, version.get(), Math::max);
+        } else {
+            tokenVersions.invalidate(userId);
+        }
+    }
+
+    public boolean isRevoked(TokenClaims claims) {
+        if (revokedTokens.getIfPresent(claims.tokenId()) != null) {
+            return true;
+        }
+        Integer version = tokenVersions.get(claims.userId());
+        return version == null || claims.tokenVersion() != version;
+    }
+
+    private static Duration remaining(Instant expiresAt) {
+        Duration remaining = Duration.between(Instant.now(), expiresAt);
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+}
@@ -0,0 +1,174 @@
+package hr.abysalto.hiring.mid.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hr.abysalto.hiring.mid.configuration.TokenSettings;
+import hr.abysalto.hiring.mid.service.UserCredentialsChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Issues and verifies HS256-signed JWTs carrying the user id and profile. Verification
+ * is a single HMAC plus a revocation lookup; no BCrypt, and USERS is read only for users
+ * who have not logged in recently.
+ */
+@Slf4j
+@Service
+public class TokenService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final String HEADER = ENCODER.encodeToString("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    private final TokenRevocationList revocationList;
+    private final ObjectMapper objectMapper;
+    private final Duration timeToLive;
+    private final Clock clock;
+    private final ThreadLocal<Mac> macs;
+
+    @Autowired
+    public TokenService(TokenSettings settings, TokenRevocationList revocationList, ObjectMapper objectMapper) {
+        this(settings, revocationList, objectMapper, Clock.systemUTC());
+    }
+
+    TokenService(TokenSettings settings, TokenRevocationList revocationList, ObjectMapper objectMapper, Clock clock) {
+        this.revocationList = revocationList;
+        this.objectMapper = objectMapper;
+        this.timeToLive = settings.getTimeToLive();
+        this.clock = clock;
+
+        SecretKeySpec key = new SecretKeySpec(secret(settings.getSecret()), ALGORITHM);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 is not available", e);
+            }
+        });
+    }
+
+    public IssuedToken issue(AuthenticatedUser user) {
+        revocationList.loggedIn(user);
+        Instant issuedAt = clock.instant();
+        Instant expiresAt = issuedAt.plus(timeToLive);
+
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", user.getUsername());
+        claims.put("uid", user.getId());
+        claims.put("email", user.getEmail());
+        claims.put("given_name", user.getFirstName());
+        claims.put("family_name", user.getLastName());
+        claims.put("created_at", user.getCreatedAt() != null ? user.getCreatedAt().toString() : null);
+        claims.put("iat", issuedAt.getEpochSecond());
+        claims.put("exp", expiresAt.getEpochSecond());
+        claims.put("jti", UUID.randomUUID().toString());
+        claims.put("ver", user.getTokenVersion());
+
+        try {
+            String signingInput = HEADER + '.' + ENCODER.encodeToString(objectMapper.writeValueAsBytes(claims));
+            return new IssuedToken(signingInput + '.' + ENCODER.encodeToString(sign(signingInput)), expiresAt);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to issue token", e);
+        }
+    }
+
+    public Optional<TokenClaims> verify(String token) {
+        int payloadStart = token.indexOf('.');
+        int signatureStart = token.lastIndexOf('.');
+        if (payloadStart < 0 || signatureStart == payloadStart || !token.startsWith(HEADER + '.')) {
+            return Optional.empty();
+        }
+
+        try {
+            String signingInput = token.substring(0, signatureStart);
+            byte[] signature = DECODER.decode(token.substring(signatureStart + 1));
+            if (!MessageDigest.isEqual(sign(signingInput), signature)) {
+                return Optional.empty();
+            }
+
+            JsonNode payload = objectMapper.readTree(DECODER.decode(token.substring(payloadStart + 1, signatureStart)));
+            AuthenticatedUser user = AuthenticatedUser.builder()
+                    .id(payload.path("uid").asLong())
+                    .username(payload.path("sub").asText())
+                    .email(text(payload, "email"))
+                    .firstName(text(payload, "given_name"))
+                    .lastName(text(payload, "family_name"))
+                    .createdAt(payload.hasNonNull("created_at") ? LocalDateTime.parse(payload.get("created_at").asText()) : null)
+                    .enabled(true)
+                    .tokenVersion(payload.path("ver").asInt())
+                    .build();
+            TokenClaims claims = new TokenClaims(
+                    payload.path("jti").asText(),
+                    user,
+                    Instant.ofEpochSecond(payload.path("iat").asLong()),
+                    Instant.ofEpochSecond(payload.path("exp").asLong()));
+
+            if (!clock.instant().isBefore(claims.expiresAt()) || revocationList.isRevoked(claims)) {
+                return Optional.empty();
+            }
+            return Optional.of(claims);
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+
+    public void revoke(TokenClaims claims) {
+        revocationList.revoke(claims);
+    }
+
+    public void revokeAllForUser(Long userId) {
+        revocationList.revokeAllForUser(userId);
+    }
+
+    @EventListener
+    public void onCredentialsChanged(UserCredentialsChangedEvent event) {
+        revokeAllForUser(event.userId());
+    }
+
+    private static String text(JsonNode payload, String field) {
+        return payload.hasNonNull(field) ? payload.get(field).asText() : null;
+    }
+
+    private byte[] sign(String signingInput) {
+        return macs.get().doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static byte[] secret(String configured) {
+        if (configured == null || configured.isEmpty()) {
+            log.warn("security.token.secret is not set; using a random key, tokens will not survive a restart");
+            byte[] key = new byte[32];
+            new SecureRandom().nextBytes(key);
+            return key;
+        }
+
+        byte[] key = configured.getBytes(StandardCharsets.UTF_8);
+        if (key.length < 32) {
+            throw new IllegalStateException("security.token.secret must be at least 32 bytes");
+        }
+        return key;
+    }
+
+    public record IssuedToken(String token, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,130 @@
+package hr.abysalto.hiring.mid.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import hr.abysalto.hiring.mid.configuration.BasicAuthSettings;
+import hr.abysalto.hiring.mid.service.UserCredentialsChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers recent successful HTTP Basic authentications so repeat requests skip both the
+ * USERS lookup and BCrypt. Entries hold an HMAC of the presented password under a key that
+ * is generated per process and never leaves memory; any mismatch falls through to the full
+ * check.
+ */
+@Component
+public class VerifiedCredentialCache {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final boolean enabled;
+    private final Cache<String, Entry> entries;
+    private final ThreadLocal<Mac> macs;
+    private final AtomicLong invalidations = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+
+    @Autowired
+    public VerifiedCredentialCache(BasicAuthSettings settings, MeterRegistry meterRegistry) {
+        this(settings.getCredentialCache(), meterRegistry, Ticker.systemTicker());
+    }
+
+    VerifiedCredentialCache(BasicAuthSettings.CredentialCache settings, MeterRegistry meterRegistry, Ticker ticker) {
+        this.enabled = settings.isEnabled();
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(settings.getMaximumSize())
+                .expireAfterWrite(settings.getTimeToLive())
+                .ticker(ticker)
+                .build();
+
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        SecretKeySpec keySpec = new SecretKeySpec(key, ALGORITHM);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(keySpec);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 is not available", e);
+            }
+        });
+
+        this.hits = Counter.builder("security.credential.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("security.credential.cache.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("security.credential.cache.size", entries, Cache::estimatedSize).register(meterRegistry);
+    }
+
+    public Optional<AuthenticatedUser> lookup(String username, String password) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        Entry entry = entries.getIfPresent(username);
+        if (entry == null || !MessageDigest.isEqual(entry.digest(), digest(username, password))) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(entry.user());
+    }
+
+    /**
+     * Taken before verifying credentials and handed back to {@link #store}, so a result that
+     * raced with a password change is never cached.
+     */
+    public long stamp() {
+        return invalidations.get();
+    }
+
+    public void store(long stamp, String username, String password, AuthenticatedUser user) {
+        if (!enabled) {
+            return;
+        }
+
+        entries.put(username, new Entry(digest(username, password), user.toBuilder().password(null).build()));
+        if (invalidations.get() != stamp) {
+            entries.invalidate(username);
+        }
+    }
+
+    public void invalidate(String username) {
+        invalidations.incrementAndGet();
+        entries.invalidate(username);
+    }
+
+    @EventListener
+    public void onCredentialsChanged(UserCredentialsChangedEvent event) {
+        invalidate(event.username());
+    }
+
+    long size() {
+        entries.cleanUp();
+        return entries.estimatedSize();
+    }
+
+    private byte[] digest(String username, String password) {
+        Mac mac = macs.get();
+        mac.update(username.getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) 0);
+        return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private record Entry(byte[] digest, AuthenticatedUser user) {
+    }
+}
@@ -1,43 +1,59 @@
 package hr.abysalto.hiring.mid.service;
 
-import hr.abysalto.hiring.mid.domain.User;
 import hr.abysalto.hiring.mid.dto.request.LoginRequest;
 import hr.abysalto.hiring.mid.dto.response.AuthResponse;
-import hr.abysalto.hiring.mid.dto.response.UserResponse;
+import hr.abysalto.hiring.mid.security.AuthenticatedUser;
+import hr.abysalto.hiring.mid.security.TokenClaims;
+import hr.abysalto.hiring.mid.security.TokenService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.stereotype.Service;
 
-import java.util.Optional;
-
 @Service
 @RequiredArgsConstructor
 public class AuthService {
 
     private final UserService userService;
+    private final TokenService tokenService;
+    private final AuthenticationManager authenticationManager;
 
     public AuthResponse login(LoginRequest request) {
-
-        Optional<User> userOpt = userService.findByUsername(request.getUsername());
-
-        if (userOpt.isEmpty()) {
-            throw new RuntimeException("Invalid username or password");
-        }
-
-        User user = userOpt.get();
-
-        if (!userService.verifyPassword(request.getPassword(), user.getPassword())) {
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    UsernamePasswordAuthenticationToken.unauthenticated(request.getUsername(), request.getPassword()));
+        } catch (DisabledException e) {
+            throw new RuntimeException("User account is disabled");
+        } catch (AuthenticationException e) {
             throw new RuntimeException("Invalid username or password");
         }
 
-        if (!user.isEnabled()) {
-            throw new RuntimeException("User account is disabled");
-        }
+        return login((AuthenticatedUser) authentication.getPrincipal());
+    }
 
-        UserResponse userResponse = userService.mapToResponse(user);
+    /**
+     * Issues a token for a user whose credentials were already verified on this request,
+     * e.g. by the HTTP Basic filter, without checking the password a second time.
+     */
+    public AuthResponse login(AuthenticatedUser user) {
+        TokenService.IssuedToken token = tokenService.issue(user);
 
         return AuthResponse.builder()
                 .message("Login successful")
-                .user(userResponse)
+                .token(token.token())
+                .tokenType("Bearer")
+                .expiresAt(token.expiresAt())
+                .user(userService.mapToResponse(user))
                 .build();
     }
-}
\ No newline at end of file
+
+    public void logout(Authentication authentication) {
+        if (authentication != null && authentication.getCredentials() instanceof TokenClaims claims) {
+            tokenService.revoke(claims);
+        }
+    }
+}
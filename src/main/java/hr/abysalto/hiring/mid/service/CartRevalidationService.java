@@ -0,0 +1,206 @@
+package hr.abysalto.hiring.mid.service;
+
+import hr.abysalto.hiring.mid.components.WriteBehindCartStore;
+import hr.abysalto.hiring.mid.domain.CartItem;
+import hr.abysalto.hiring.mid.domain.ProductPrice;
+import hr.abysalto.hiring.mid.repository.CartItemBatchRepository.ProductLines;
+import hr.abysalto.hiring.mid.repository.CartItemRepository;
+import hr.abysalto.hiring.mid.repository.CartSummaryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Brings the title, price and stock flag stored on cart lines in line with the catalog.
+ * Walks the distinct product ids in CART_ITEMS page by page, looks each page up with one
+ * batch catalog call and rewrites only the lines that drifted, one transaction per page.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(value = "cart.revalidation.enabled", havingValue = "true", matchIfMissing = true)
+public class CartRevalidationService {
+
+    private final CartItemRepository cartItemRepository;
+    private final CartSummaryRepository cartSummaryRepository;
+    private final WriteBehindCartStore writeBehindCartStore;
+    private final ProductService productService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    private final Counter productsChecked;
+    private final Counter productsMissing;
+    private final Counter productsUnavailable;
+    private final Counter linesRepriced;
+    private final Counter linesRetitled;
+    private final Counter linesOutOfStock;
+    private final DistributionSummary priceDrift;
+    private final Timer duration;
+
+    public CartRevalidationService(CartItemRepository cartItemRepository, CartSummaryRepository cartSummaryRepository,
+                                   WriteBehindCartStore writeBehindCartStore, ProductService productService,
+                                   TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+                                   @Value("${cart.revalidation.batch-size:100}") int batchSize) {
+        this.cartItemRepository = cartItemRepository;
+        this.cartSummaryRepository = cartSummaryRepository;
+        this.writeBehindCartStore = writeBehindCartStore;
+        this.productService = productService;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+
+        this.productsChecked = productCounter(meterRegistry, "checked");
+        this.productsMissing = productCounter(meterRegistry, "missing");
+        this.productsUnavailable = productCounter(meterRegistry, "unavailable");
+        this.linesRepriced = lineCounter(meterRegistry, "price");
+        this.linesRetitled = lineCounter(meterRegistry, "title");
+        this.linesOutOfStock = lineCounter(meterRegistry, "out_of_stock");
+        this.priceDrift = DistributionSummary.builder("cart.revalidation.price.drift")
+                .description("Absolute price change of a repriced cart line")
+                .baseUnit("cents")
+                .register(meterRegistry);
+        this.duration = Timer.builder("cart.revalidation.duration")
+                .description("Time to revalidate every cart line")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${cart.revalidation.interval-ms:300000}",
+            fixedDelayString = "${cart.revalidation.interval-ms:300000}")
+    public void refresh() {
+        try {
+            revalidateAll();
+        } catch (Exception e) {
+            log.warn("Cart revalidation failed: {}", e.getMessage());
+        }
+    }
+
+    public synchronized Result revalidateAll() {
+        Timer.Sample sample = Timer.start();
+        Result total = new Result(0, 0);
+
+        long cursor = 0;
+        List<Long> productIds;
+        do {
+            productIds = cartItemRepository.findProductIdsAfter(cursor, batchSize);
+            if (productIds.isEmpty()) {
+                break;
+            }
+            total = total.plus(revalidate(productIds));
+            cursor = productIds.get(productIds.size() - 1);
+        } while (productIds.size() == batchSize);
+
+        long nanos = sample.stop(duration);
+        log.info("Cart revalidation checked {} products in {} ms, {} lines updated",
+                total.products(), nanos / 1_000_000, total.linesUpdated());
+        return total;
+    }
+
+    private Result revalidate(List<Long> productIds) {
+        ProductService.Lookup<ProductPrice> catalog = productService.getCurrentProductPrices(productIds);
+        productsMissing.increment(catalog.missingIds().size());
+        productsUnavailable.increment(catalog.unavailableIds().size());
+
+        Map<Long, CartItem> current = new LinkedHashMap<>();
+        catalog.found().forEach((productId, product) -> current.put(productId, CartItem.builder()
+                .productId(productId)
+                .productTitle(product.title())
+                .productPriceCents(product.priceCents())
+                .outOfStock(product.outOfStock())
+                .build()));
+        Set<Long> missingIds = new HashSet<>(catalog.missingIds());
+
+        Map<Long, CartItem> updates = new LinkedHashMap<>();
+        Set<Long> flagged = new LinkedHashSet<>();
+        Set<Long> repriced = new HashSet<>();
+        int linesUpdated = 0;
+        for (ProductLines lines : cartItemRepository.findProductLines(productIds)) {
+            // gone from the catalog: keep the last known title and price, but it can no longer be bought
+            if (missingIds.contains(lines.productId())) {
+                if (!lines.outOfStock()) {
+                    flagged.add(lines.productId());
+                    linesOutOfStock.increment(lines.lines());
+                    linesUpdated += lines.lines();
+                }
+                continue;
+            }
+
+            CartItem target = current.get(lines.productId());
+            if (target == null) {
+                continue;
+            }
+            boolean priceChanged = target.getProductPriceCents() != lines.productPriceCents();
+            boolean titleChanged = !Objects.equals(target.getProductTitle(), lines.productTitle());
+            boolean stockChanged = target.isOutOfStock() != lines.outOfStock();
+            if (!priceChanged && !titleChanged && !stockChanged) {
+                continue;
+            }
+
+            updates.put(lines.productId(), target);
+            if (priceChanged) {
+                repriced.add(lines.productId());
+                linesRepriced.increment(lines.lines());
+                long drift = Math.abs(target.getProductPriceCents() - lines.productPriceCents());
+                for (int i = 0; i < lines.lines(); i++) {
+                    priceDrift.record(drift);
+                }
+            }
+            if (titleChanged) {
+                linesRetitled.increment(lines.lines());
+            }
+            if (stockChanged && target.isOutOfStock()) {
+                linesOutOfStock.increment(lines.lines());
+            }
+            linesUpdated += lines.lines();
+        }
+        productsChecked.increment(productIds.size());
+
+        if (!updates.isEmpty() || !flagged.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                cartItemRepository.refreshProducts(updates.values());
+                cartItemRepository.markOutOfStock(flagged);
+                if (!repriced.isEmpty()) {
+                    cartSummaryRepository.recomputeForProducts(repriced);
+                }
+            });
+            updates.values().forEach(product -> writeBehindCartStore.refreshProduct(product.getProductId(),
+                    product.getProductTitle(), product.getProductPriceCents(), product.isOutOfStock()));
+            writeBehindCartStore.markOutOfStock(flagged);
+        }
+
+        return new Result(productIds.size(), linesUpdated);
+    }
+
+    private static Counter productCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("cart.revalidation.products")
+                .description("Distinct cart products looked up in the catalog")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static Counter lineCounter(MeterRegistry meterRegistry, String change) {
+        return Counter.builder("cart.revalidation.lines")
+                .description("Cart lines rewritten to match the catalog")
+                .tag("change", change)
+                .register(meterRegistry);
+    }
+
+    public record Result(int products, int linesUpdated) {
+
+        Result plus(Result other) {
+            return new Result(products + other.products, linesUpdated + other.linesUpdated);
+        }
+    }
+}
@@ -1,18 +1,28 @@
 package hr.abysalto.hiring.mid.service;
 
+import hr.abysalto.hiring.mid.components.WriteBehindCartStore;
 import hr.abysalto.hiring.mid.domain.CartItem;
+import hr.abysalto.hiring.mid.domain.ProductPrice;
 import hr.abysalto.hiring.mid.dto.request.AddToCartRequest;
+import hr.abysalto.hiring.mid.dto.request.CartBatchRequest;
 import hr.abysalto.hiring.mid.dto.response.CartItemResponse;
 import hr.abysalto.hiring.mid.dto.response.CartResponse;
-import hr.abysalto.hiring.mid.dto.response.ProductResponse;
+import hr.abysalto.hiring.mid.dto.response.CartSummaryResponse;
 import hr.abysalto.hiring.mid.repository.CartItemRepository;
+import hr.abysalto.hiring.mid.repository.CartSummaryRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,71 +30,205 @@ import java.util.stream.Collectors;
 public class CartService {
 
     private final CartItemRepository cartItemRepository;
+    private final CartSummaryRepository cartSummaryRepository;
+    private final WriteBehindCartStore writeBehindCartStore;
     private final ProductService productService;
 
     @Transactional
     public CartItemResponse addToCart(Long userId, AddToCartRequest request) {
-        ProductResponse product = productService.getProductById(request.getProductId(), userId);
+        requirePositiveQuantity(request);
+        ProductPrice product = productService.getProductPrice(request.getProductId());
 
-        Optional<CartItem> existingItem = cartItemRepository
-                .findByUserIdAndProductId(userId, request.getProductId());
+        if (writeBehindCartStore.isEnabled()) {
+            return mapToCartItemResponse(writeBehindCartStore.add(userId, request.getProductId(),
+                    product.title(), product.priceCents(), product.outOfStock(), request.getQuantity()));
+        }
 
         CartItem cartItem;
-
-        if (existingItem.isPresent()) {
-            cartItem = existingItem.get();
-            cartItem.setQuantity(cartItem.getQuantity() + request.getQuantity());
-        } else {
-            cartItem = CartItem.builder()
-                    .userId(userId)
-                    .productId(request.getProductId())
-                    .productTitle(product.getTitle())
-                    .productPrice(product.getPrice())
-                    .quantity(request.getQuantity())
-                    .addedAt(LocalDateTime.now())
-                    .build();
+        try {
+            cartItem = upsert(userId, request, product);
+        } catch (DuplicateKeyException e) {
+            // a concurrent add inserted the row first; retrying takes the update branch
+            cartItem = upsert(userId, request, product);
         }
 
-        cartItem = cartItemRepository.save(cartItem);
+        // quantities are positive, so the row is new exactly when it holds only this request's quantity
+        int newItems = cartItem.getQuantity() == request.getQuantity() ? 1 : 0;
+        updateSummary(userId, newItems, request.getQuantity(), cartItem.getProductPriceCents() * request.getQuantity());
 
         return mapToCartItemResponse(cartItem);
     }
 
+    private CartItem upsert(Long userId, AddToCartRequest request, ProductPrice product) {
+        return cartItemRepository.upsert(userId, request.getProductId(),
+                product.title(), product.priceCents(), product.outOfStock(), request.getQuantity());
+    }
+
+    /**
+     * Applies removals and then additions in one transaction: products are resolved in a
+     * single batched lookup and each kind of change goes to the database as one JDBC batch.
+     * Repeated product ids in {@code add} are summed.
+     */
     @Transactional
-    public void removeFromCart(Long userId, Long productId) {
-        if (cartItemRepository.findByUserIdAndProductId(userId, productId).isEmpty()) {
-            throw new RuntimeException("Product not in cart");
+    public CartResponse applyBatch(Long userId, CartBatchRequest request) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (AddToCartRequest item : request.getAdd()) {
+            requirePositiveQuantity(item);
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+
+        Map<Long, ProductPrice> products = resolveProducts(quantities.keySet());
+
+        List<CartItem> items = quantities.entrySet().stream()
+                .map(entry -> CartItem.builder()
+                        .userId(userId)
+                        .productId(entry.getKey())
+                        .productTitle(products.get(entry.getKey()).title())
+                        .productPriceCents(products.get(entry.getKey()).priceCents())
+                        .outOfStock(products.get(entry.getKey()).outOfStock())
+                        .quantity(entry.getValue())
+                        .build())
+                .collect(Collectors.toList());
+
+        if (writeBehindCartStore.isEnabled()) {
+            new LinkedHashSet<>(request.getRemove()).forEach(productId -> writeBehindCartStore.remove(userId, productId));
+            items.forEach(item -> writeBehindCartStore.add(userId, item.getProductId(),
+                    item.getProductTitle(), item.getProductPriceCents(), item.isOutOfStock(), item.getQuantity()));
+            return getUserCart(userId);
         }
 
-        cartItemRepository.deleteByUserIdAndProductId(userId, productId);
+        cartItemRepository.deleteAllByUserIdAndProductIds(userId, new LinkedHashSet<>(request.getRemove()));
+        try {
+            cartItemRepository.upsertAll(items);
+        } catch (DuplicateKeyException e) {
+            // part of the batch may already be applied, so roll it all back rather than retry
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Cart was modified concurrently, retry the request");
+        }
+        cartSummaryRepository.recompute(userId);
+
+        return getUserCart(userId);
     }
 
-    public CartResponse getUserCart(Long userId) {
-        List<CartItem> cartItems = cartItemRepository.findByUserId(userId);
+    private Map<Long, ProductPrice> resolveProducts(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
 
-        List<CartItemResponse> itemResponses = cartItems.stream()
-                .map(this::mapToCartItemResponse)
-                .collect(Collectors.toList());
+        ProductService.Lookup<ProductPrice> batch = productService.getProductPrices(productIds);
+        if (!batch.missingIds().isEmpty()) {
+            throw new ProductNotFoundException(batch.missingIds().get(0));
+        }
+        if (!batch.unavailableIds().isEmpty()) {
+            throw new RuntimeException("Failed to fetch products " + batch.unavailableIds() + " from DummyJSON API");
+        }
+
+        return batch.found();
+    }
+
+    @Transactional
+    public void removeFromCart(Long userId, Long productId) {
+        if (writeBehindCartStore.isEnabled()) {
+            writeBehindCartStore.remove(userId, productId)
+                    .orElseThrow(() -> new RuntimeException("Product not in cart"));
+            return;
+        }
+
+        CartItem removed = cartItemRepository.removeByUserIdAndProductId(userId, productId)
+                .orElseThrow(() -> new RuntimeException("Product not in cart"));
 
-        Integer totalItems = cartItems.stream()
-                .mapToInt(CartItem::getQuantity)
-                .sum();
+        updateSummary(userId, -1, -removed.getQuantity(), -removed.getProductPriceCents() * removed.getQuantity());
+    }
+
+    public CartSummaryResponse getCartSummary(Long userId) {
+        if (writeBehindCartStore.isEnabled()) {
+            return summarize(userId, writeBehindCartStore.items(userId), writeBehindCartStore.version(userId));
+        }
 
-        Double totalPrice = itemResponses.stream()
-                .mapToDouble(CartItemResponse::getSubtotal)
-                .sum();
+        return cartSummaryRepository.findById(userId)
+                .map(summary -> CartSummaryResponse.builder()
+                        .userId(userId)
+                        .itemCount(summary.getItemCount())
+                        .totalItems(summary.getTotalQuantity())
+                        .totalPriceCents(summary.getTotalPriceCents())
+                        .version(summary.getVersion())
+                        .build())
+                .orElseGet(() -> CartSummaryResponse.builder()
+                        .userId(userId)
+                        .itemCount(0)
+                        .totalItems(0)
+                        .totalPriceCents(0)
+                        .version(0L)
+                        .build());
+    }
+
+    public CartResponse getUserCart(Long userId) {
+        List<CartItem> cartItems = writeBehindCartStore.isEnabled()
+                ? writeBehindCartStore.items(userId)
+                : cartItemRepository.findByUserId(userId);
+
+        List<CartItemResponse> itemResponses = new ArrayList<>(cartItems.size());
+        int totalItems = 0;
+        long totalPriceCents = 0;
+        for (CartItem item : cartItems) {
+            CartItemResponse itemResponse = mapToCartItemResponse(item);
+            itemResponses.add(itemResponse);
+            totalItems += itemResponse.getQuantity();
+            totalPriceCents += itemResponse.getSubtotalCents();
+        }
 
         return CartResponse.builder()
                 .userId(userId)
                 .items(itemResponses)
                 .totalItems(totalItems)
-                .totalPrice(totalPrice)
+                .totalPriceCents(totalPriceCents)
                 .build();
     }
 
     @Transactional
     public void clearCart(Long userId) {
+        if (writeBehindCartStore.isEnabled()) {
+            writeBehindCartStore.clear(userId);
+            return;
+        }
+
         cartItemRepository.deleteByUserId(userId);
+        cartSummaryRepository.recompute(userId);
+    }
+
+    private CartSummaryResponse summarize(Long userId, List<CartItem> items, long version) {
+        int totalItems = 0;
+        long totalPriceCents = 0;
+        for (CartItem item : items) {
+            totalItems += item.getQuantity();
+            totalPriceCents += item.getProductPriceCents() * item.getQuantity();
+        }
+
+        return CartSummaryResponse.builder()
+                .userId(userId)
+                .itemCount(items.size())
+                .totalItems(totalItems)
+                .totalPriceCents(totalPriceCents)
+                .version(version)
+                .build();
+    }
+
+    private void updateSummary(Long userId, int itemCount, int quantity, long priceCents) {
+        if (cartSummaryRepository.applyDelta(userId, itemCount, quantity, priceCents) > 0) {
+            return;
+        }
+        try {
+            // first change for this user; the rebuild already sees this transaction's item write
+            cartSummaryRepository.recompute(userId);
+        } catch (DuplicateKeyException e) {
+            // a concurrent first change created the row without our write
+            cartSummaryRepository.applyDelta(userId, itemCount, quantity, priceCents);
+        }
+    }
+
+    private void requirePositiveQuantity(AddToCartRequest request) {
+        if (request.getQuantity() == null || request.getQuantity() < 1) {
+            throw new RuntimeException("Quantity must be positive");
+        }
     }
 
     private CartItemResponse mapToCartItemResponse(CartItem item) {
@@ -92,9 +236,10 @@ public class CartService {
                 .id(item.getId())
                 .productId(item.getProductId())
                 .productTitle(item.getProductTitle())
-                .productPrice(item.getProductPrice())
+                .productPriceCents(item.getProductPriceCents())
                 .quantity(item.getQuantity())
-                .subtotal(item.getProductPrice() * item.getQuantity())
+                .outOfStock(item.isOutOfStock())
+                .subtotalCents(item.getProductPriceCents() * item.getQuantity())
                 .addedAt(item.getAddedAt())
                 .build();
     }
@@ -0,0 +1,154 @@
+package hr.abysalto.hiring.mid.service;
+
+import hr.abysalto.hiring.mid.components.WriteBehindCartStore;
+import hr.abysalto.hiring.mid.configuration.CartSweeperSettings;
+import hr.abysalto.hiring.mid.repository.CartItemBatchRepository.CartActivity;
+import hr.abysalto.hiring.mid.repository.CartItemRepository;
+import hr.abysalto.hiring.mid.repository.CartSummaryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes abandoned carts: those with no line added or changed within {@code cart.sweeper.retention}.
+ * Walks CART_ITEMS in user id order a chunk of rows at a time, each chunk in its own short
+ * transaction, and paces itself to {@code cart.sweeper.max-rows-per-second} so request
+ * traffic keeps the database to itself most of the time.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(value = "cart.sweeper.enabled", havingValue = "true", matchIfMissing = true)
+public class CartSweeperService {
+
+    private final CartSweeperSettings settings;
+    private final CartItemRepository cartItemRepository;
+    private final CartSummaryRepository cartSummaryRepository;
+    private final WriteBehindCartStore writeBehindCartStore;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter rowsScanned;
+    private final Counter rowsDeleted;
+    private final Counter cartsDeleted;
+    private final Timer duration;
+
+    public CartSweeperService(CartSweeperSettings settings, CartItemRepository cartItemRepository,
+                              CartSummaryRepository cartSummaryRepository, WriteBehindCartStore writeBehindCartStore,
+                              TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.settings = settings;
+        this.cartItemRepository = cartItemRepository;
+        this.cartSummaryRepository = cartSummaryRepository;
+        this.writeBehindCartStore = writeBehindCartStore;
+        this.transactionTemplate = transactionTemplate;
+
+        this.rowsScanned = rowCounter(meterRegistry, "scanned");
+        this.rowsDeleted = rowCounter(meterRegistry, "deleted");
+        this.cartsDeleted = Counter.builder("cart.sweeper.carts")
+                .description("Abandoned carts deleted")
+                .register(meterRegistry);
+        this.duration = Timer.builder("cart.sweeper.duration")
+                .description("Time to sweep the whole cart table")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${cart.sweeper.interval-ms:3600000}", fixedDelayString = "${cart.sweeper.interval-ms:3600000}")
+    public void refresh() {
+        try {
+            sweep();
+        } catch (Exception e) {
+            log.warn("Abandoned cart sweep failed: {}", e.getMessage());
+        }
+    }
+
+    public synchronized Result sweep() {
+        Timer.Sample sample = Timer.start();
+        LocalDateTime cutoff = LocalDateTime.now().minus(settings.getRetention());
+        long started = System.nanoTime();
+
+        long cursor = 0;
+        long scanned = 0;
+        long deleted = 0;
+        while (true) {
+            List<CartActivity> carts = cartItemRepository.findCartActivityAfter(cursor, settings.getChunkSize());
+            if (carts.isEmpty()) {
+                break;
+            }
+            cursor = carts.get(carts.size() - 1).userId();
+
+            List<Long> idle = carts.stream()
+                    .filter(cart -> cart.lastUpdatedAt() != null && cart.lastUpdatedAt().isBefore(cutoff))
+                    // the in-memory copy is what the user sees; leave it to its own flushes
+                    .filter(cart -> !writeBehindCartStore.isHot(cart.userId()))
+                    .map(CartActivity::userId)
+                    .toList();
+            int lines = carts.stream().mapToInt(CartActivity::lines).sum();
+
+            if (!idle.isEmpty()) {
+                Deletion deletion = transactionTemplate.execute(status -> {
+                    int rows = cartItemRepository.deleteIdleCarts(idle, cutoff);
+                    // carts that got a new or changed line since the scan were spared by the delete
+                    Set<Long> spared = new HashSet<>(cartItemRepository.findUsersWithLines(idle));
+                    List<Long> userIds = idle.stream().filter(userId -> !spared.contains(userId)).toList();
+                    if (!userIds.isEmpty()) {
+                        cartSummaryRepository.resetEmpty(userIds);
+                    }
+                    return new Deletion(rows, userIds);
+                });
+                // a cart loaded into memory between the scan and the delete keeps its lines
+                writeBehindCartStore.retainLoaded(deletion.userIds());
+                deleted += deletion.rows();
+                rowsDeleted.increment(deletion.rows());
+                cartsDeleted.increment(deletion.userIds().size());
+            }
+            scanned += lines;
+            rowsScanned.increment(lines);
+
+            if (!pace(started, scanned)) {
+                break;
+            }
+        }
+
+        long nanos = sample.stop(duration);
+        log.info("Abandoned cart sweep scanned {} rows and deleted {} in {} ms", scanned, deleted, nanos / 1_000_000);
+        return new Result(scanned, deleted);
+    }
+
+    // Sleeps until the rows scanned so far fit the configured rate; false when interrupted.
+    private boolean pace(long started, long scanned) {
+        long due = started + scanned * TimeUnit.SECONDS.toNanos(1) / Math.max(1, settings.getMaxRowsPerSecond());
+        long wait = due - System.nanoTime();
+        if (wait <= 0) {
+            return true;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(wait);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static Counter rowCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("cart.sweeper.rows")
+                .description("Cart rows examined and deleted by the abandoned cart sweep")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    public record Result(long rowsScanned, long rowsDeleted) {
+    }
+
+    private record Deletion(int rows, List<Long> userIds) {
+    }
+}
@@ -0,0 +1,83 @@
+package hr.abysalto.hiring.mid.service;
+
+import hr.abysalto.hiring.mid.client.DummyJsonClient;
+import hr.abysalto.hiring.mid.components.CatalogReplica;
+import hr.abysalto.hiring.mid.components.ProductPayloadDecoder;
+import hr.abysalto.hiring.mid.domain.Product;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(value = "catalog.replica.enabled", havingValue = "true", matchIfMissing = true)
+public class CatalogSyncService {
+
+    @Value("${catalog.replica.chunk-size:100}")
+    private int chunkSize;
+
+    private final CatalogReplica catalogReplica;
+    private final ProductPayloadDecoder productPayloadDecoder;
+    private final DummyJsonClient dummyJsonClient;
+
+    private final Set<Long> seenInCycle = new HashSet<>();
+    private int cursor = 0;
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${catalog.replica.refresh-interval-ms:60000}")
+    public void refresh() {
+        try {
+            if (catalogReplica.isReady()) {
+                refreshNextChunk();
+            } else {
+                fullSync();
+            }
+        } catch (Exception e) {
+            log.warn("Catalog replica refresh failed: {}", e.getMessage());
+        }
+    }
+
+    public synchronized void fullSync() {
+        cursor = 0;
+        seenInCycle.clear();
+
+        while (!refreshNextChunk()) {
+            // keep paging until the whole catalog has been visited
+        }
+        log.info("Catalog replica synchronized: {} products", catalogReplica.size());
+    }
+
+    synchronized boolean refreshNextChunk() {
+        String url = String.format("/products?limit=%d&skip=%d", chunkSize, cursor);
+
+        ProductPayloadDecoder.CatalogChunk chunk;
+        try {
+            chunk = dummyJsonClient.get("sync", url, productPayloadDecoder::readCatalogChunk);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to sync products from DummyJSON API", e);
+        }
+
+        List<Product> products = chunk.products();
+        int total = chunk.total();
+
+        catalogReplica.upsert(products);
+        products.forEach(product -> seenInCycle.add(product.getId()));
+        cursor += products.size();
+
+        if (products.isEmpty() || cursor >= total) {
+            catalogReplica.retainOnly(seenInCycle);
+            catalogReplica.markReady();
+            cursor = 0;
+            seenInCycle.clear();
+            return true;
+        }
+        return false;
+    }
+}
@@ -1,5 +1,6 @@
 package hr.abysalto.hiring.mid.service;
 
+import hr.abysalto.hiring.mid.components.FavoritesIndex;
 import hr.abysalto.hiring.mid.domain.Favorite;
 import hr.abysalto.hiring.mid.repository.FavoriteRepository;
 import lombok.RequiredArgsConstructor;
@@ -14,6 +15,7 @@ import java.util.stream.Collectors;
 public class FavoriteService {
 
     private final FavoriteRepository favoriteRepository;
+    private final FavoritesIndex favoritesIndex;
 
     public void addToFavorites(Long userId, Long productId) {
         // Check if already exists
@@ -28,6 +30,7 @@ public class FavoriteService {
                 .build();
 
         favoriteRepository.save(favorite);
+        favoritesIndex.added(userId, productId);
     }
 
     public void removeFromFavorites(Long userId, Long productId) {
@@ -36,6 +39,7 @@ public class FavoriteService {
         }
 
         favoriteRepository.deleteByUserIdAndProductId(userId, productId);
+        favoritesIndex.removed(userId, productId);
     }
 
     public List<Long> getUserFavoriteProductIds(Long userId) {
@@ -0,0 +1,272 @@
+package hr.abysalto.hiring.mid.service;
+
+import hr.abysalto.hiring.mid.client.DummyJsonClient;
+import hr.abysalto.hiring.mid.client.DummyJsonClientException;
+import hr.abysalto.hiring.mid.components.CatalogChangedEvent;
+import hr.abysalto.hiring.mid.components.CatalogReplica;
+import hr.abysalto.hiring.mid.components.ProductPayloadDecoder;
+import hr.abysalto.hiring.mid.components.ProductSearchIndex;
+import hr.abysalto.hiring.mid.components.RequestCoalescer;
+import hr.abysalto.hiring.mid.domain.Money;
+import hr.abysalto.hiring.mid.domain.Product;
+import hr.abysalto.hiring.mid.domain.ProductPrice;
+import hr.abysalto.hiring.mid.dto.response.ProductListResponse;
+import hr.abysalto.hiring.mid.dto.response.ProductResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class ProductCatalogService {
+
+    private final CatalogReplica catalogReplica;
+    private final ProductSearchIndex productSearchIndex;
+    private final RequestCoalescer requestCoalescer;
+    private final ProductPayloadDecoder productPayloadDecoder;
+    private final DummyJsonClient dummyJsonClient;
+    private final CacheManager cacheManager;
+
+    public record PageKey(Integer limit, Integer skip, String sortBy, String order) {
+    }
+
+    public static PageKey pageKey(Integer limit, Integer skip, String sortBy, String order) {
+        return new PageKey(limit, skip, sortBy, order);
+    }
+
+    // one entry per page for all users; cleared by onCatalogChanged whenever the replica changes
+    @Cacheable(value = "products", sync = true,
+            key = "T(hr.abysalto.hiring.mid.service.ProductCatalogService).pageKey(#limit, #skip, #sortBy, #order)")
+    public ProductListResponse getProducts(Integer limit, Integer skip, String sortBy, String order) {
+        return loadProducts(pageKey(limit, skip, sortBy, order));
+    }
+
+    /**
+     * {@link #getProducts} without the cache; the cache also refreshes stale pages through it.
+     */
+    public ProductListResponse loadProducts(PageKey key) {
+        Integer limit = key.limit();
+        Integer skip = key.skip();
+        String sortBy = key.sortBy();
+        String order = key.order();
+
+        if (catalogReplica.isReady()) {
+            CatalogReplica.CatalogPage page = catalogReplica.page(limit, skip, sortBy, order);
+
+            List<ProductResponse> products = page.products().stream()
+                    .map(this::mapToResponse)
+                    .collect(Collectors.toList());
+
+            return ProductListResponse.builder()
+                    .products(products)
+                    .total(page.total())
+                    .skip(skip)
+                    .limit(products.size())
+                    .build();
+        }
+
+        StringBuilder urlBuilder = new StringBuilder(String.format("/products?limit=%d&skip=%d", limit, skip));
+
+        if (sortBy != null && !sortBy.isEmpty()) {
+            urlBuilder.append("&sortBy=").append(sortBy);
+            urlBuilder.append("&order=").append(order != null ? order : "asc");
+        }
+
+        String url = urlBuilder.toString();
+
+        return requestCoalescer.execute("products", url,
+                () -> fetchPage("products", url, "Failed to fetch products from DummyJSON API"));
+    }
+
+    @Cacheable(value = "product", sync = true, key = "#productId")
+    public ProductResponse getProduct(Long productId) {
+        return loadProduct(productId);
+    }
+
+    public ProductResponse loadProduct(Long productId) {
+        if (catalogReplica.isReady()) {
+            Product product = catalogReplica.findById(productId)
+                    .orElseThrow(() -> new ProductNotFoundException(productId));
+            return mapToResponse(product);
+        }
+
+        return fetchProduct(productId);
+    }
+
+    /**
+     * Title, price and stock of a product for cart operations. Cached on its own in a few
+     * dozen bytes per product, and answered from the replica or the product cache when
+     * either already has it.
+     */
+    @Cacheable(value = "productPrice", sync = true, key = "#productId")
+    public ProductPrice getProductPrice(Long productId) {
+        if (catalogReplica.isReady()) {
+            return catalogReplica.findById(productId)
+                    .map(this::mapToPrice)
+                    .orElseThrow(() -> new ProductNotFoundException(productId));
+        }
+
+        Cache cache = cacheManager.getCache("product");
+        ProductResponse cached = cache != null ? cache.get(productId, ProductResponse.class) : null;
+        return mapToPrice(cached != null ? cached : fetchProduct(productId));
+    }
+
+    // Answers without leaving the process: the replica when it is ready, otherwise the product cache.
+    public Optional<ProductResponse> findLocally(Long productId) {
+        if (catalogReplica.isReady()) {
+            return catalogReplica.findById(productId).map(this::mapToResponse);
+        }
+
+        Cache cache = cacheManager.getCache("product");
+        return Optional.ofNullable(cache != null ? cache.get(productId, ProductResponse.class) : null);
+    }
+
+    // The replica is always at least as fresh as the price cache, so it answers first when ready.
+    public Optional<ProductPrice> findPriceLocally(Long productId) {
+        if (catalogReplica.isReady()) {
+            return catalogReplica.findById(productId).map(this::mapToPrice);
+        }
+
+        Cache cache = cacheManager.getCache("productPrice");
+        ProductPrice cached = cache != null ? cache.get(productId, ProductPrice.class) : null;
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return findLocally(productId).map(this::mapToPrice);
+    }
+
+    /**
+     * Same as {@link #getProductPrice}, but never answered from a cache, for jobs that compare
+     * stored copies against the catalog.
+     */
+    public ProductPrice loadProductPrice(Long productId) {
+        if (catalogReplica.isReady()) {
+            return catalogReplica.findById(productId)
+                    .map(this::mapToPrice)
+                    .orElseThrow(() -> new ProductNotFoundException(productId));
+        }
+
+        return mapToPrice(fetchProduct(productId));
+    }
+
+    public Optional<ProductPrice> findPriceInReplica(Long productId) {
+        return catalogReplica.isReady() ? catalogReplica.findById(productId).map(this::mapToPrice) : Optional.empty();
+    }
+
+    /**
+     * Keeps cached reads in step with the replica: changed and removed products are evicted,
+     * and the shared pages, whose keys cannot be mapped back to product ids, are cleared.
+     */
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.changed().isEmpty() && event.removed().isEmpty()) {
+            return;
+        }
+
+        for (String name : List.of("product", "productPrice")) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                event.changed().forEach(product -> cache.evict(product.getId()));
+                event.removed().forEach(cache::evict);
+            }
+        }
+
+        Cache pages = cacheManager.getCache("products");
+        if (pages != null) {
+            pages.clear();
+        }
+    }
+
+    public ProductListResponse searchProducts(String query) {
+        if (query == null || query.isBlank()) {
+            return ProductListResponse.builder()
+                    .products(List.of())
+                    .total(0)
+                    .skip(0)
+                    .limit(0)
+                    .build();
+        }
+
+        if (catalogReplica.isReady()) {
+            List<ProductResponse> products = productSearchIndex.search(query).stream()
+                    .map(this::mapToResponse)
+                    .collect(Collectors.toList());
+
+            return ProductListResponse.builder()
+                    .products(products)
+                    .total(products.size())
+                    .skip(0)
+                    .limit(products.size())
+                    .build();
+        }
+
+        String url = "/products/search?q=" + URLEncoder.encode(query, StandardCharsets.UTF_8);
+
+        ProductListResponse results = requestCoalescer.execute("search", url,
+                () -> fetchPage("search", url, "Failed to search products from DummyJSON API"));
+
+        return results.toBuilder()
+                .skip(0)
+                .limit(results.getProducts().size())
+                .build();
+    }
+
+    private ProductResponse fetchProduct(Long productId) {
+        String url = String.format("/products/%d", productId);
+
+        return requestCoalescer.execute("product", url, () -> {
+            try {
+                return dummyJsonClient.get("product", url, productPayloadDecoder::readResponse);
+            } catch (DummyJsonClientException e) {
+                if (e.getStatusCode() == 404) {
+                    throw new ProductNotFoundException(productId);
+                }
+                throw new RuntimeException("Failed to fetch product from DummyJSON API", e);
+            }
+        });
+    }
+
+    private ProductListResponse fetchPage(String operation, String url, String errorMessage) {
+        try {
+            return dummyJsonClient.get(operation, url, productPayloadDecoder::readResponsePage);
+        } catch (Exception e) {
+            throw new RuntimeException(errorMessage, e);
+        }
+    }
+
+    private ProductPrice mapToPrice(Product product) {
+        return new ProductPrice(product.getId(), product.getTitle(), Money.toCents(product.getPrice()),
+                product.getStock() != null && product.getStock() <= 0);
+    }
+
+    private ProductPrice mapToPrice(ProductResponse product) {
+        return new ProductPrice(product.getId(), product.getTitle(), Money.toCents(product.getPrice()),
+                product.getStock() != null && product.getStock() <= 0);
+    }
+
+    private ProductResponse mapToResponse(Product product) {
+        return ProductResponse.builder()
+                .id(product.getId())
+                .title(product.getTitle())
+                .description(product.getDescription())
+                .price(product.getPrice())
+                .discountPercentage(product.getDiscountPercentage())
+                .rating(product.getRating())
+                .stock(product.getStock())
+                .brand(product.getBrand())
+                .category(product.getCategory())
+                .thumbnail(product.getThumbnail())
+                .images(product.getImages())
+                .isFavorite(false)
+                .build();
+    }
+}
@@ -0,0 +1,8 @@
+package hr.abysalto.hiring.mid.service;
+
+public class ProductNotFoundException extends RuntimeException {
+
+    public ProductNotFoundException(Long productId) {
+        super("Product not found: " + productId);
+    }
+}
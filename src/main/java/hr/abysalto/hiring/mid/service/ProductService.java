@@ -1,152 +1,149 @@
 package hr.abysalto.hiring.mid.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import hr.abysalto.hiring.mid.domain.Favorite;
-import hr.abysalto.hiring.mid.domain.Product;
+import hr.abysalto.hiring.mid.components.FanOutExecutor;
+import hr.abysalto.hiring.mid.components.FavoritesIndex;
+import hr.abysalto.hiring.mid.components.ProductIdBitmap;
+import hr.abysalto.hiring.mid.domain.ProductPrice;
+import hr.abysalto.hiring.mid.dto.response.ProductBatchResponse;
 import hr.abysalto.hiring.mid.dto.response.ProductListResponse;
 import hr.abysalto.hiring.mid.dto.response.ProductResponse;
-import hr.abysalto.hiring.mid.repository.FavoriteRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.Cacheable;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
-
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class ProductService {
 
-    @Value("${dummyjson.base-url}")
-    private String dummyJsonBaseUrl;
-
-    private final FavoriteRepository favoriteRepository;
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final FavoritesIndex favoritesIndex;
+    private final ProductCatalogService productCatalogService;
+    private final FanOutExecutor fanOutExecutor;
 
-    @Cacheable(value = "products", key = "#limit + '_' + #skip + '_' + #sortBy + '_' + #order + '_' + #userId")
     public ProductListResponse getAllProducts(Integer limit, Integer skip, String sortBy, String order, Long userId) {
-        StringBuilder urlBuilder = new StringBuilder(String.format("%s/products?limit=%d&skip=%d", dummyJsonBaseUrl, limit, skip));
-
-        if (sortBy != null && !sortBy.isEmpty()) {
-            urlBuilder.append("&sortBy=").append(sortBy);
-            urlBuilder.append("&order=").append(order != null ? order : "asc");
-        }
-
-        String url = urlBuilder.toString();
-
-        try {
-            String response = restTemplate.getForObject(url, String.class);
-            JsonNode root = objectMapper.readTree(response);
-            JsonNode productsArray = root.get("products");
-
-            Set<Long> favoriteProductIds = Set.of();
-            if (userId != null) {
-                favoriteProductIds = favoriteRepository.findByUserId(userId)
-                        .stream()
-                        .map(Favorite::getProductId)
-                        .collect(Collectors.toSet());
-            }
+        ProductListResponse page = productCatalogService.getProducts(limit, skip, sortBy, order);
+        return withFavorites(page, userId);
+    }
 
-            List<ProductResponse> products = new ArrayList<>();
-            if (productsArray != null && productsArray.isArray()) {
-                for (JsonNode productNode : productsArray) {
-                    Product product = objectMapper.treeToValue(productNode, Product.class);
+    public ProductResponse getProductById(Long productId, Long userId) {
+        ProductResponse product = productCatalogService.getProduct(productId);
+        return withFavorite(product, favoritesIndex.forUser(userId));
+    }
 
-                    boolean isFavorite = favoriteProductIds.contains(product.getId());
+    public ProductListResponse searchProducts(String query, Long userId) {
+        ProductListResponse results = productCatalogService.searchProducts(query);
+        return withFavorites(results, userId);
+    }
 
-                    ProductResponse productResponse = mapToResponse(product, isFavorite);
-                    products.add(productResponse);
-                }
-            }
+    public ProductBatchResponse getProductsByIds(List<Long> productIds, Long userId) {
+        Lookup<ProductResponse> lookup = lookup(productIds, productCatalogService::findLocally, productCatalogService::getProduct);
 
-            return ProductListResponse.builder()
-                    .products(products)
-                    .total(root.get("total").asInt())
-                    .skip(root.get("skip").asInt())
-                    .limit(root.get("limit").asInt())
-                    .build();
+        List<ProductResponse> products = withFavorites(new ArrayList<>(lookup.found().values()), favoritesIndex.forUser(userId));
 
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to fetch products from DummyJSON API", e);
-        }
+        return ProductBatchResponse.builder()
+                .products(products)
+                .missingIds(lookup.missingIds())
+                .unavailableIds(lookup.unavailableIds())
+                .build();
     }
 
-    @Cacheable(value = "product", key = "#productId + '_' + #userId")
-    public ProductResponse getProductById(Long productId, Long userId) {
-        String url = String.format("%s/products/%d", dummyJsonBaseUrl, productId);
+    /**
+     * Title and price for cart operations: no favorites lookup and no copy of the full product.
+     */
+    public ProductPrice getProductPrice(Long productId) {
+        return productCatalogService.getProductPrice(productId);
+    }
 
-        try {
-            String response = restTemplate.getForObject(url, String.class);
-            Product product = objectMapper.readValue(response, Product.class);
+    /**
+     * Batch form of {@link #getProductPrice}, with the same fan-out as {@link #getProductsByIds}.
+     */
+    public Lookup<ProductPrice> getProductPrices(Collection<Long> productIds) {
+        return lookup(productIds, productCatalogService::findPriceLocally, productCatalogService::getProductPrice);
+    }
 
-            boolean isFavorite = false;
-            if (userId != null) {
-                isFavorite = favoriteRepository.existsByUserIdAndProductId(userId, productId);
-            }
+    /**
+     * {@link #getProductPrices} straight from the catalog, skipping the price cache, so
+     * background revalidation never compares against stale or deleted products.
+     */
+    public Lookup<ProductPrice> getCurrentProductPrices(Collection<Long> productIds) {
+        return lookup(productIds, productCatalogService::findPriceInReplica, productCatalogService::loadProductPrice);
+    }
 
-            return mapToResponse(product, isFavorite);
+    private <T> Lookup<T> lookup(Collection<Long> productIds, Function<Long, Optional<T>> local, Function<Long, T> remote) {
+        List<Long> ids = productIds.stream().filter(Objects::nonNull).distinct().toList();
 
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to fetch product from DummyJSON API", e);
+        Map<Long, T> found = new LinkedHashMap<>();
+        Map<Long, CompletableFuture<T>> pending = new LinkedHashMap<>();
+        for (Long id : ids) {
+            local.apply(id).ifPresentOrElse(
+                    product -> found.put(id, product),
+                    () -> pending.put(id, fanOutExecutor.submit(() -> remote.apply(id))));
         }
-    }
 
-    public ProductListResponse searchProducts(String query, Long userId) {
-        String url = String.format("%s/products/search?q=%s", dummyJsonBaseUrl, query);
-
-        try {
-            String response = restTemplate.getForObject(url, String.class);
-            JsonNode root = objectMapper.readTree(response);
-            JsonNode productsArray = root.get("products");
-
-            Set<Long> favoriteProductIds = Set.of();
-            if (userId != null) {
-                favoriteProductIds = favoriteRepository.findByUserId(userId)
-                        .stream()
-                        .map(Favorite::getProductId)
-                        .collect(Collectors.toSet());
+        List<Long> missingIds = new ArrayList<>();
+        List<Long> unavailableIds = new ArrayList<>();
+        pending.forEach((id, future) -> {
+            try {
+                found.put(id, future.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof ProductNotFoundException) {
+                    missingIds.add(id);
+                } else {
+                    log.warn("Batch lookup of product {} failed: {}", id, e.getCause().getMessage());
+                    unavailableIds.add(id);
+                }
             }
-
-            List<ProductResponse> products = new ArrayList<>();
-            for (JsonNode productNode : productsArray) {
-                Product product = objectMapper.treeToValue(productNode, Product.class);
-                boolean isFavorite = favoriteProductIds.contains(product.getId());
-                ProductResponse productResponse = mapToResponse(product, isFavorite);
-                products.add(productResponse);
+        });
+
+        // back in request order
+        Map<Long, T> ordered = new LinkedHashMap<>();
+        ids.forEach(id -> {
+            T product = found.get(id);
+            if (product != null) {
+                ordered.put(id, product);
             }
+        });
+        return new Lookup<>(ordered, missingIds, unavailableIds);
+    }
 
-            return ProductListResponse.builder()
-                    .products(products)
-                    .total(root.get("total").asInt())
-                    .skip(0)
-                    .limit(products.size())
-                    .build();
+    // Catalog responses are cached and shared by all users, so only the products whose flag
+    // differs for this user are copied; a page without favorites on it is returned as is.
+    private ProductListResponse withFavorites(ProductListResponse page, Long userId) {
+        List<ProductResponse> products = withFavorites(page.getProducts(), favoritesIndex.forUser(userId));
+        return products == page.getProducts() ? page : page.toBuilder().products(products).build();
+    }
 
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to search products from DummyJSON API", e);
+    private static List<ProductResponse> withFavorites(List<ProductResponse> products, ProductIdBitmap favorites) {
+        List<ProductResponse> overlaid = products;
+        for (int i = 0; i < products.size(); i++) {
+            ProductResponse product = products.get(i);
+            ProductResponse marked = withFavorite(product, favorites);
+            if (marked != product) {
+                if (overlaid == products) {
+                    overlaid = new ArrayList<>(products);
+                }
+                overlaid.set(i, marked);
+            }
         }
+        return overlaid;
     }
 
-    private ProductResponse mapToResponse(Product product, boolean isFavorite) {
-        return ProductResponse.builder()
-                .id(product.getId())
-                .title(product.getTitle())
-                .description(product.getDescription())
-                .price(product.getPrice())
-                .discountPercentage(product.getDiscountPercentage())
-                .rating(product.getRating())
-                .stock(product.getStock())
-                .brand(product.getBrand())
-                .category(product.getCategory())
-                .thumbnail(product.getThumbnail())
-                .images(product.getImages())
-                .isFavorite(isFavorite)
-                .build();
+    private static ProductResponse withFavorite(ProductResponse product, ProductIdBitmap favorites) {
+        Boolean isFavorite = product.getId() != null && favorites.contains(product.getId());
+        return isFavorite.equals(product.getIsFavorite()) ? product : product.toBuilder().isFavorite(isFavorite).build();
+    }
+
+    public record Lookup<T>(Map<Long, T> found, List<Long> missingIds, List<Long> unavailableIds) {
     }
-}
\ No newline at end of file
+}
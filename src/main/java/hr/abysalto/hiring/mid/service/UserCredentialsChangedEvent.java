@@ -0,0 +1,4 @@
+package hr.abysalto.hiring.mid.service;
+
+public record UserCredentialsChangedEvent(Long userId, String username) {
+}
@@ -4,7 +4,9 @@ import hr.abysalto.hiring.mid.domain.User;
 import hr.abysalto.hiring.mid.dto.request.RegisterRequest;
 import hr.abysalto.hiring.mid.dto.response.UserResponse;
 import hr.abysalto.hiring.mid.repository.UserRepository;
+import hr.abysalto.hiring.mid.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -17,6 +19,7 @@ public class UserService {
 
     private final UserRepository userRepository;
     final PasswordEncoder passwordEncoder;  // ← INJECTED, ne new BCryptPasswordEncoder()
+    private final ApplicationEventPublisher eventPublisher;
 
     public UserResponse registerUser(RegisterRequest request) {
         if (userRepository.existsByUsername(request.getUsername())) {
@@ -50,6 +53,19 @@ public class UserService {
         return userRepository.findById(id);
     }
 
+    public void changePassword(Long userId, String currentPassword, String newPassword) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        if (!passwordEncoder.matches(currentPassword, user.getPassword())) {
+            throw new RuntimeException("Invalid current password");
+        }
+
+        user.setPassword(passwordEncoder.encode(newPassword));
+        userRepository.save(user);
+        eventPublisher.publishEvent(new UserCredentialsChangedEvent(user.getId(), user.getUsername()));
+    }
+
     public boolean verifyPassword(String rawPassword, String encodedPassword) {
         return passwordEncoder.matches(rawPassword, encodedPassword);
     }
@@ -64,4 +80,15 @@ public class UserService {
                 .createdAt(user.getCreatedAt())
                 .build();
     }
-}
\ No newline at end of file
+
+    public UserResponse mapToResponse(AuthenticatedUser user) {
+        return UserResponse.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .email(user.getEmail())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .createdAt(user.getCreatedAt())
+                .build();
+    }
+}
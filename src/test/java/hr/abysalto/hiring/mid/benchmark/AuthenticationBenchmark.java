@@ -0,0 +1,72 @@
+package hr.abysalto.hiring.mid.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hr.abysalto.hiring.mid.configuration.TokenSettings;
+import hr.abysalto.hiring.mid.repository.UserRepository;
+import hr.abysalto.hiring.mid.security.AuthenticatedUser;
+import hr.abysalto.hiring.mid.security.TokenClaims;
+import hr.abysalto.hiring.mid.security.TokenRevocationList;
+import hr.abysalto.hiring.mid.security.TokenService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Per-request authentication cost: HTTP Basic through DaoAuthenticationProvider (BCrypt
+ * at the default cost of 10; the user lookup is in memory, so the real path is slower
+ * by a DB query) versus verifying a signed bearer token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthenticationBenchmark {
+
+    private DaoAuthenticationProvider basicAuthProvider;
+    private TokenService tokenService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+        basicAuthProvider = new DaoAuthenticationProvider(passwordEncoder);
+        basicAuthProvider.setUserDetailsService(new InMemoryUserDetailsManager(User.withUsername("testuser")
+                .password(passwordEncoder.encode("password123"))
+                .build()));
+
+        TokenSettings settings = new TokenSettings();
+        settings.setSecret("benchmark-secret-benchmark-secret");
+        tokenService = new TokenService(settings, new TokenRevocationList(settings, mock(UserRepository.class)), new ObjectMapper());
+        token = tokenService.issue(AuthenticatedUser.builder().id(1L).username("testuser").enabled(true).build()).token();
+    }
+
+    @Benchmark
+    public Authentication basicAuth() {
+        return basicAuthProvider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("testuser", "password123"));
+    }
+
+    @Benchmark
+    public Optional<TokenClaims> bearerToken() {
+        return tokenService.verify(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AuthenticationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,63 @@
+package hr.abysalto.hiring.mid.benchmark;
+
+import hr.abysalto.hiring.mid.domain.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+final class BenchmarkData {
+
+    private static final String[] TITLES = {"iPhone", "Phone Case", "Red Lipstick", "Kitchen Knife", "Sunglasses", "Laptop"};
+    private static final String[] BRANDS = {"Apple", "Generic", "Chic Cosmetics", "Chef", "Ray-Ban", "Dell"};
+    private static final String[] CATEGORIES = {"smartphones", "mobile-accessories", "beauty", "kitchen-accessories", "sunglasses", "laptops"};
+
+    private BenchmarkData() {
+    }
+
+    static List<Product> products(int count) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            int variant = i % TITLES.length;
+            products.add(Product.builder()
+                    .id((long) i)
+                    .title(TITLES[variant] + " " + i)
+                    .description("An " + BRANDS[variant] + " mobile product number " + i + " with a long marketing description")
+                    .brand(BRANDS[variant])
+                    .category(CATEGORIES[variant])
+                    .price(10.0 + i)
+                    .discountPercentage(5.5)
+                    .rating(4.2)
+                    .stock(i % 50)
+                    .tags(new String[]{CATEGORIES[variant], "sale"})
+                    .thumbnail("https://cdn.example.com/" + i + "/thumb.webp")
+                    .images(new String[]{"https://cdn.example.com/" + i + "/1.webp"})
+                    .build());
+        }
+        return products;
+    }
+
+    static String productPage(List<Product> products, int total) {
+        return products.stream()
+                .map(BenchmarkData::productJson)
+                .collect(Collectors.joining(",", "{\"products\":[", "],\"total\":" + total + ",\"skip\":0,\"limit\":" + products.size() + "}"));
+    }
+
+    private static String productJson(Product product) {
+        return String.format("""
+                {"id":%d,"title":"%s","description":"%s","category":"%s","price":%s,"discountPercentage":%s,\
+                "rating":%s,"stock":%d,"tags":["%s","sale"],"brand":"%s","sku":"SKU-%d","weight":4,\
+                "dimensions":{"width":23.17,"height":14.43,"depth":28.01},"warrantyInformation":"1 month warranty",\
+                "shippingInformation":"Ships in 1 month","availabilityStatus":"In Stock",\
+                "reviews":[{"rating":2,"comment":"Very unhappy with my purchase!","date":"2024-05-23T08:56:21.618Z",\
+                "reviewerName":"John Doe","reviewerEmail":"john.doe@x.dummyjson.com"},{"rating":5,"comment":"Great!",\
+                "date":"2024-05-23T08:56:21.618Z","reviewerName":"Jane Doe","reviewerEmail":"jane.doe@x.dummyjson.com"}],\
+                "returnPolicy":"30 days return policy","minimumOrderQuantity":24,\
+                "meta":{"createdAt":"2024-05-23T08:56:21.618Z","updatedAt":"2024-05-23T08:56:21.618Z",\
+                "barcode":"9164035109868","qrCode":"https://assets.dummyjson.com/public/qr-code.png"},\
+                "thumbnail":"%s","images":["%s"]}""",
+                product.getId(), product.getTitle(), product.getDescription(), product.getCategory(), product.getPrice(),
+                product.getDiscountPercentage(), product.getRating(), product.getStock(), product.getCategory(),
+                product.getBrand(), product.getId(), product.getThumbnail(), product.getImages()[0]);
+    }
+}
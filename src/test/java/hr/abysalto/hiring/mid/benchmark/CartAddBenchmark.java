@@ -0,0 +1,119 @@
+package hr.abysalto.hiring.mid.benchmark;
+
+import hr.abysalto.hiring.mid.Application;
+import hr.abysalto.hiring.mid.domain.CartItem;
+import hr.abysalto.hiring.mid.domain.Money;
+import hr.abysalto.hiring.mid.dto.request.AddToCartRequest;
+import hr.abysalto.hiring.mid.dto.response.CartItemResponse;
+import hr.abysalto.hiring.mid.dto.response.ProductResponse;
+import hr.abysalto.hiring.mid.repository.CartItemRepository;
+import hr.abysalto.hiring.mid.repository.CartSummaryRepository;
+import hr.abysalto.hiring.mid.service.CartService;
+import hr.abysalto.hiring.mid.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * POST /api/cart's service call with the product already cached: the previous path, which
+ * went through {@code getProductById} (favorites lookup plus a per-call copy of the full
+ * product), versus the price lookup now used by {@link CartService#addToCart}. Run with
+ * {@code -prof gc} to compare allocation per add.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartAddBenchmark {
+
+    private static final int PRODUCTS = 20;
+
+    private ConfigurableApplicationContext context;
+    private CartService cartService;
+    private ProductService productService;
+    private CartItemRepository cartItemRepository;
+    private CartSummaryRepository cartSummaryRepository;
+    private TransactionTemplate transactionTemplate;
+    private Long userId;
+    private List<AddToCartRequest> requests;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:cartaddbench", "--catalog.replica.enabled=false",
+                        "--app.cache.warmup.enabled=false", "--logging.level.root=WARN");
+
+        // the product cache is what either path reads when the replica is off
+        Cache productCache = context.getBean(CacheManager.class).getCache("product");
+        LongStream.rangeClosed(1, PRODUCTS).forEach(id -> productCache.put(id, ProductResponse.builder()
+                .id(id)
+                .title("Product " + id)
+                .description("A reasonably long product description, like the ones the catalog returns")
+                .price(10.0 * id)
+                .stock(100)
+                .brand("Brand")
+                .category("category")
+                .thumbnail("https://cdn.example.com/" + id + "/thumb.webp")
+                .images(new String[]{"https://cdn.example.com/" + id + "/1.webp"})
+                .build()));
+
+        cartService = context.getBean(CartService.class);
+        productService = context.getBean(ProductService.class);
+        cartItemRepository = context.getBean(CartItemRepository.class);
+        cartSummaryRepository = context.getBean(CartSummaryRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        userId = context.getBean(JdbcTemplate.class)
+                .queryForObject("SELECT ID FROM USERS WHERE USERNAME = 'testuser'", Long.class);
+        requests = LongStream.rangeClosed(1, PRODUCTS)
+                .mapToObj(id -> AddToCartRequest.builder().productId(id).quantity(1).build())
+                .toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CartItemResponse priceLookup() {
+        next = (next + 1) % PRODUCTS;
+        return cartService.addToCart(userId, requests.get(next));
+    }
+
+    @Benchmark
+    public CartItem fullProductLookup() {
+        next = (next + 1) % PRODUCTS;
+        AddToCartRequest request = requests.get(next);
+        return transactionTemplate.execute(status -> {
+            ProductResponse product = productService.getProductById(request.getProductId(), userId);
+            long priceCents = Money.toCents(product.getPrice());
+            CartItem item = cartItemRepository.upsert(userId, request.getProductId(), product.getTitle(), priceCents,
+                    product.getStock() != null && product.getStock() <= 0, request.getQuantity());
+            cartSummaryRepository.applyDelta(userId, 0, request.getQuantity(), priceCents * request.getQuantity());
+            return item;
+        });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CartAddBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
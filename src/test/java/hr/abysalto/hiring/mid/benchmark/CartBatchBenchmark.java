@@ -0,0 +1,113 @@
+package hr.abysalto.hiring.mid.benchmark;
+
+import hr.abysalto.hiring.mid.Application;
+import hr.abysalto.hiring.mid.components.WriteBehindCartStore;
+import hr.abysalto.hiring.mid.domain.ProductPrice;
+import hr.abysalto.hiring.mid.dto.request.AddToCartRequest;
+import hr.abysalto.hiring.mid.dto.request.CartBatchRequest;
+import hr.abysalto.hiring.mid.dto.response.CartResponse;
+import hr.abysalto.hiring.mid.repository.CartItemRepository;
+import hr.abysalto.hiring.mid.repository.CartSummaryRepository;
+import hr.abysalto.hiring.mid.service.CartService;
+import hr.abysalto.hiring.mid.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Restoring a 20-item cart: 20 POST /api/cart calls (a transaction, product lookup and
+ * MERGE each) versus one POST /api/cart/batch. Runs against the application's H2 schema
+ * with the product lookups stubbed, so only the cart work is measured. The long warm-up is
+ * needed for the Spring Data and H2 code paths to settle.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20, time = 2)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartBatchBenchmark {
+
+    private static final int ITEMS = 20;
+
+    private ConfigurableApplicationContext context;
+    private CartService cartService;
+    private Long userId;
+    private List<AddToCartRequest> items;
+    private CartBatchRequest batch;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:cartbench", "--catalog.replica.enabled=false",
+                        "--app.cache.warmup.enabled=false", "--logging.level.root=WARN");
+
+        List<ProductPrice> products = LongStream.rangeClosed(1, ITEMS)
+                .mapToObj(id -> new ProductPrice(id, "Product " + id, 1000L * id, false))
+                .toList();
+        Map<Long, ProductPrice> byId = new LinkedHashMap<>();
+        products.forEach(product -> byId.put(product.productId(), product));
+        ProductService productService = mock(ProductService.class);
+        when(productService.getProductPrice(anyLong()))
+                .thenAnswer(invocation -> byId.get(invocation.<Long>getArgument(0)));
+        when(productService.getProductPrices(anyCollection()))
+                .thenReturn(new ProductService.Lookup<>(byId, List.of(), List.of()));
+
+        // same @Transactional boundaries as the application bean, with the stubbed product lookups
+        ProxyFactory proxyFactory = new ProxyFactory(new CartService(context.getBean(CartItemRepository.class),
+                context.getBean(CartSummaryRepository.class), context.getBean(WriteBehindCartStore.class), productService));
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(context.getBean(TransactionInterceptor.class));
+        cartService = (CartService) proxyFactory.getProxy();
+
+        userId = context.getBean(JdbcTemplate.class)
+                .queryForObject("SELECT ID FROM USERS WHERE USERNAME = 'testuser'", Long.class);
+        items = products.stream()
+                .map(product -> AddToCartRequest.builder().productId(product.productId()).quantity(1).build())
+                .toList();
+        batch = CartBatchRequest.builder().add(items).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CartResponse oneAtATime() {
+        cartService.clearCart(userId);
+        items.forEach(item -> cartService.addToCart(userId, item));
+        return cartService.getUserCart(userId);
+    }
+
+    @Benchmark
+    public CartResponse batched() {
+        cartService.clearCart(userId);
+        return cartService.applyBatch(userId, batch);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CartBatchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
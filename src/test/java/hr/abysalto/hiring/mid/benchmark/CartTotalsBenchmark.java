@@ -0,0 +1,106 @@
+package hr.abysalto.hiring.mid.benchmark;
+
+import hr.abysalto.hiring.mid.components.WriteBehindCartStore;
+import hr.abysalto.hiring.mid.configuration.CartWriteBehindSettings;
+import hr.abysalto.hiring.mid.domain.CartItem;
+import hr.abysalto.hiring.mid.dto.response.CartResponse;
+import hr.abysalto.hiring.mid.repository.CartItemRepository;
+import hr.abysalto.hiring.mid.service.CartService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Building the response for a 50-line cart once the rows are loaded. {@code boxedDoubles}
+ * replays the previous implementation (boxed Double prices, three stream passes);
+ * {@code primitiveCents} is CartService.getUserCart with long cents and one loop.
+ * Run with {@code -prof gc} to see bytes allocated per read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartTotalsBenchmark {
+
+    private static final int LINES = 50;
+
+    private CartService cartService;
+    private List<LegacyItem> legacyItems;
+
+    @Setup
+    public void setUp() {
+        List<CartItem> items = new ArrayList<>();
+        legacyItems = new ArrayList<>();
+        LocalDateTime addedAt = LocalDateTime.now();
+        for (int i = 1; i <= LINES; i++) {
+            long priceCents = 999 + i * 1_001L;
+            items.add(CartItem.builder()
+                    .id((long) i)
+                    .userId(1L)
+                    .productId((long) i)
+                    .productTitle("Product " + i)
+                    .productPriceCents(priceCents)
+                    .quantity(i % 3 + 1)
+                    .addedAt(addedAt)
+                    .build());
+            legacyItems.add(new LegacyItem((long) i, (long) i, "Product " + i, priceCents / 100.0, i % 3 + 1, addedAt));
+        }
+
+        // only findByUserId is called on the read path
+        CartItemRepository repository = (CartItemRepository) Proxy.newProxyInstance(
+                CartItemRepository.class.getClassLoader(), new Class<?>[]{CartItemRepository.class},
+                (proxy, method, args) -> items);
+        WriteBehindCartStore writeBehind = new WriteBehindCartStore(new CartWriteBehindSettings(), repository, null, null);
+        cartService = new CartService(repository, null, writeBehind, null);
+    }
+
+    @Benchmark
+    public CartResponse primitiveCents() {
+        return cartService.getUserCart(1L);
+    }
+
+    @Benchmark
+    public LegacyCartResponse boxedDoubles() {
+        List<LegacyItemResponse> itemResponses = legacyItems.stream()
+                .map(item -> new LegacyItemResponse(item.id, item.productId, item.productTitle, item.productPrice,
+                        item.quantity, item.productPrice * item.quantity, item.addedAt))
+                .collect(Collectors.toList());
+
+        Integer totalItems = legacyItems.stream()
+                .mapToInt(LegacyItem::quantity)
+                .sum();
+
+        Double totalPrice = itemResponses.stream()
+                .mapToDouble(LegacyItemResponse::subtotal)
+                .sum();
+
+        return new LegacyCartResponse(1L, itemResponses, totalItems, totalPrice);
+    }
+
+    private record LegacyItem(Long id, Long productId, String productTitle, Double productPrice,
+                              Integer quantity, LocalDateTime addedAt) {
+    }
+
+    private record LegacyItemResponse(Long id, Long productId, String productTitle, Double productPrice,
+                                      Integer quantity, Double subtotal, LocalDateTime addedAt) {
+    }
+
+    public record LegacyCartResponse(Long userId, List<LegacyItemResponse> items, Integer totalItems, Double totalPrice) {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CartTotalsBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
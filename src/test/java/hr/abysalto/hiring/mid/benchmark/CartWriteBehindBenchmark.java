@@ -0,0 +1,112 @@
+package hr.abysalto.hiring.mid.benchmark;
+
+import hr.abysalto.hiring.mid.Application;
+import hr.abysalto.hiring.mid.components.WriteBehindCartStore;
+import hr.abysalto.hiring.mid.domain.ProductPrice;
+import hr.abysalto.hiring.mid.dto.request.AddToCartRequest;
+import hr.abysalto.hiring.mid.dto.response.CartItemResponse;
+import hr.abysalto.hiring.mid.repository.CartItemRepository;
+import hr.abysalto.hiring.mid.repository.CartSummaryRepository;
+import hr.abysalto.hiring.mid.service.CartService;
+import hr.abysalto.hiring.mid.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Throughput of POST /api/cart's service call: a MERGE plus summary update per change
+ * ({@code jdbc}) versus appending to the write-behind log, with and without an fsync per
+ * change. The write-behind modes flush in the background on the application's schedule.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 20, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartWriteBehindBenchmark {
+
+    private static final int PRODUCTS = 20;
+
+    @Param({"jdbc", "write-behind-fsync", "write-behind"})
+    public String mode;
+
+    private ConfigurableApplicationContext context;
+    private CartService cartService;
+    private Path logDirectory;
+    private Long userId;
+    private List<AddToCartRequest> requests;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        logDirectory = Files.createTempDirectory("cart-log");
+        context = new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:cartwritebench", "--catalog.replica.enabled=false",
+                        "--app.cache.warmup.enabled=false", "--logging.level.root=WARN",
+                        "--cart.write-behind.enabled=" + !mode.equals("jdbc"),
+                        "--cart.write-behind.sync-on-write=" + mode.equals("write-behind-fsync"),
+                        "--cart.write-behind.log-directory=" + logDirectory);
+
+        List<ProductPrice> products = LongStream.rangeClosed(1, PRODUCTS)
+                .mapToObj(id -> new ProductPrice(id, "Product " + id, 1000L * id, false))
+                .toList();
+        ProductService productService = mock(ProductService.class);
+        when(productService.getProductPrice(anyLong()))
+                .thenAnswer(invocation -> products.get(invocation.<Long>getArgument(0).intValue() - 1));
+
+        ProxyFactory proxyFactory = new ProxyFactory(new CartService(context.getBean(CartItemRepository.class),
+                context.getBean(CartSummaryRepository.class), context.getBean(WriteBehindCartStore.class), productService));
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(context.getBean(TransactionInterceptor.class));
+        cartService = (CartService) proxyFactory.getProxy();
+
+        userId = context.getBean(JdbcTemplate.class)
+                .queryForObject("SELECT ID FROM USERS WHERE USERNAME = 'testuser'", Long.class);
+        requests = products.stream()
+                .map(product -> AddToCartRequest.builder().productId(product.productId()).quantity(1).build())
+                .toList();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        try (var files = Files.list(logDirectory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(logDirectory);
+    }
+
+    @Benchmark
+    public CartItemResponse addToCart() {
+        next = (next + 1) % PRODUCTS;
+        return cartService.addToCart(userId, requests.get(next));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CartWriteBehindBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
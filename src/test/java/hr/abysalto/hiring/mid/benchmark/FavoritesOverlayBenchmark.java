@@ -0,0 +1,141 @@
+package hr.abysalto.hiring.mid.benchmark;
+
+import hr.abysalto.hiring.mid.Application;
+import hr.abysalto.hiring.mid.components.FavoritesIndex;
+import hr.abysalto.hiring.mid.components.ProductIdBitmap;
+import hr.abysalto.hiring.mid.domain.Favorite;
+import hr.abysalto.hiring.mid.dto.response.ProductListResponse;
+import hr.abysalto.hiring.mid.dto.response.ProductResponse;
+import hr.abysalto.hiring.mid.repository.FavoriteRepository;
+import hr.abysalto.hiring.mid.service.ProductCatalogService;
+import hr.abysalto.hiring.mid.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Marking favorites on a cached 30-product catalog page: the previous path, a FAVORITES query
+ * and a set of boxed ids per request plus a copy of every product, versus the per-user bitmap
+ * in {@link FavoritesIndex}. The user has 12 favorites across the 194-product catalog, two of
+ * them on the page; {@code cachedPage} is the catalog cache read both paths start with. Run with
+ * {@code -prof gc}: {@code buildHashSet} and {@code buildBitmap} create one user's favorites in
+ * either form, so their allocation per op is, apart from the bitmap's sort buffer, what each
+ * user holds in memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 15, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FavoritesOverlayBenchmark {
+
+    private static final List<Long> FAVORITES = List.of(4L, 21L, 37L, 52L, 68L, 90L, 101L, 117L, 133L, 150L, 171L, 188L);
+    private static final long[] FAVORITE_IDS = FAVORITES.stream().mapToLong(Long::longValue).toArray();
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private ProductCatalogService productCatalogService;
+    private FavoriteRepository favoriteRepository;
+    private Long userId;
+    private Long otherUserId;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:favoritesbench", "--catalog.replica.enabled=false",
+                        "--app.cache.warmup.enabled=false", "--logging.level.root=WARN");
+
+        List<ProductResponse> products = LongStream.rangeClosed(1, 30)
+                .mapToObj(id -> ProductResponse.builder()
+                        .id(id)
+                        .title("Product " + id)
+                        .price(10.0 * id)
+                        .stock(100)
+                        .isFavorite(false)
+                        .build())
+                .toList();
+        context.getBean(CacheManager.class).getCache("products").put(ProductCatalogService.pageKey(30, 0, null, "asc"),
+                ProductListResponse.builder().products(products).total(194).skip(0).limit(30).build());
+
+        productService = context.getBean(ProductService.class);
+        productCatalogService = context.getBean(ProductCatalogService.class);
+        favoriteRepository = context.getBean(FavoriteRepository.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        userId = jdbcTemplate.queryForObject("SELECT ID FROM USERS WHERE USERNAME = 'testuser'", Long.class);
+        jdbcTemplate.update("INSERT INTO USERS (USERNAME, PASSWORD, EMAIL) VALUES ('otheruser', 'x', 'other@example.com')");
+        otherUserId = jdbcTemplate.queryForObject("SELECT ID FROM USERS WHERE USERNAME = 'otheruser'", Long.class);
+        FAVORITES.forEach(productId -> {
+            jdbcTemplate.update("INSERT INTO FAVORITES (USER_ID, PRODUCT_ID) VALUES (?, ?)", userId, productId);
+            jdbcTemplate.update("INSERT INTO FAVORITES (USER_ID, PRODUCT_ID) VALUES (?, ?)", otherUserId, productId + 40);
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ProductListResponse cachedPage() {
+        return productCatalogService.getProducts(30, 0, null, "asc");
+    }
+
+    @Benchmark
+    public ProductListResponse queryAndHashSet() {
+        ProductListResponse page = productCatalogService.getProducts(30, 0, null, "asc");
+        Set<Long> favoriteProductIds = favoriteRepository.findByUserId(userId).stream()
+                .map(Favorite::getProductId)
+                .collect(Collectors.toSet());
+        List<ProductResponse> products = page.getProducts().stream()
+                .map(product -> product.toBuilder().isFavorite(favoriteProductIds.contains(product.getId())).build())
+                .collect(Collectors.toList());
+        return page.toBuilder().products(products).build();
+    }
+
+    @Benchmark
+    public ProductListResponse bitmapIndex() {
+        return productService.getAllProducts(30, 0, null, "asc", userId);
+    }
+
+    @Benchmark
+    public ProductListResponse bitmapIndexNoneOnPage() {
+        return productService.getAllProducts(30, 0, null, "asc", otherUserId);
+    }
+
+    @Benchmark
+    public Set<Long> buildHashSet() {
+        // boxed as the JDBC row mapper boxes them
+        Set<Long> favorites = new HashSet<>();
+        for (long id : FAVORITE_IDS) {
+            favorites.add(id);
+        }
+        return favorites;
+    }
+
+    @Benchmark
+    public ProductIdBitmap buildBitmap() {
+        return ProductIdBitmap.of(FAVORITES);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FavoritesOverlayBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,89 @@
+package hr.abysalto.hiring.mid.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hr.abysalto.hiring.mid.configuration.TokenSettings;
+import hr.abysalto.hiring.mid.dto.request.LoginRequest;
+import hr.abysalto.hiring.mid.dto.response.AuthResponse;
+import hr.abysalto.hiring.mid.repository.UserRepository;
+import hr.abysalto.hiring.mid.security.AuthenticatedUser;
+import hr.abysalto.hiring.mid.security.TokenRevocationList;
+import hr.abysalto.hiring.mid.security.TokenService;
+import hr.abysalto.hiring.mid.service.AuthService;
+import hr.abysalto.hiring.mid.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Cost of POST /api/auth/login with a Basic header when Basic auth is enabled. Previously
+ * the filter verified the header and AuthService verified the same credentials again;
+ * now the filter's result is reused. BCrypt at the default cost of 10, no credential
+ * cache, user lookup in memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoginBenchmark {
+
+    private ProviderManager authenticationManager;
+    private AuthService authService;
+    private LoginRequest request;
+
+    @Setup
+    public void setUp() {
+        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+        String hash = passwordEncoder.encode("password123");
+
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(passwordEncoder);
+        provider.setUserDetailsService(username -> AuthenticatedUser.builder()
+                .id(1L)
+                .username(username)
+                .password(hash)
+                .createdAt(LocalDateTime.now())
+                .enabled(true)
+                .build());
+        authenticationManager = new ProviderManager(provider);
+
+        TokenSettings settings = new TokenSettings();
+        settings.setSecret("benchmark-secret-benchmark-secret");
+        TokenService tokenService = new TokenService(settings, new TokenRevocationList(settings, mock(UserRepository.class)), new ObjectMapper());
+        authService = new AuthService(new UserService(null, passwordEncoder, null), tokenService, authenticationManager);
+
+        request = LoginRequest.builder().username("testuser").password("password123").build();
+    }
+
+    @Benchmark
+    public AuthResponse verifiedTwice() {
+        basicFilter();
+        return authService.login(request);
+    }
+
+    @Benchmark
+    public AuthResponse verifiedOnce() {
+        return authService.login((AuthenticatedUser) basicFilter().getPrincipal());
+    }
+
+    private Authentication basicFilter() {
+        return authenticationManager.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("testuser", "password123"));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LoginBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,86 @@
+package hr.abysalto.hiring.mid.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hr.abysalto.hiring.mid.components.ProductPayloadDecoder;
+import hr.abysalto.hiring.mid.domain.Product;
+import hr.abysalto.hiring.mid.dto.response.ProductListResponse;
+import hr.abysalto.hiring.mid.dto.response.ProductResponse;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding one upstream page: the previous String + readTree + treeToValue path versus the
+ * streaming projection decoder. Run with the GC profiler (as {@link #main} does) to compare
+ * gc.alloc.rate.norm, i.e. bytes allocated per decoded page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductDecodingBenchmark {
+
+    @Param({"10", "30"})
+    private int pageSize;
+
+    private byte[] body;
+    private ObjectMapper objectMapper;
+    private ProductPayloadDecoder decoder;
+
+    @Setup
+    public void setUp() {
+        body = BenchmarkData.productPage(BenchmarkData.products(pageSize), 194).getBytes(StandardCharsets.UTF_8);
+        objectMapper = new ObjectMapper();
+        decoder = new ProductPayloadDecoder();
+    }
+
+    @Benchmark
+    public List<ProductResponse> treeModel() throws IOException {
+        String response = new String(body, StandardCharsets.UTF_8);
+        JsonNode root = objectMapper.readTree(response);
+
+        List<ProductResponse> products = new ArrayList<>();
+        for (JsonNode productNode : root.get("products")) {
+            Product product = objectMapper.treeToValue(productNode, Product.class);
+            products.add(ProductResponse.builder()
+                    .id(product.getId())
+                    .title(product.getTitle())
+                    .description(product.getDescription())
+                    .price(product.getPrice())
+                    .discountPercentage(product.getDiscountPercentage())
+                    .rating(product.getRating())
+                    .stock(product.getStock())
+                    .brand(product.getBrand())
+                    .category(product.getCategory())
+                    .thumbnail(product.getThumbnail())
+                    .images(product.getImages())
+                    .isFavorite(false)
+                    .build());
+        }
+        return products;
+    }
+
+    @Benchmark
+    public ProductListResponse streamingProjection() throws IOException {
+        return decoder.readResponsePage(new ByteArrayInputStream(body));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductDecodingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
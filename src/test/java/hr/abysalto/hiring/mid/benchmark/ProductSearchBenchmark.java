@@ -0,0 +1,89 @@
+package hr.abysalto.hiring.mid.benchmark;
+
+import hr.abysalto.hiring.mid.client.CircuitBreaker;
+import hr.abysalto.hiring.mid.client.DummyJsonClient;
+import hr.abysalto.hiring.mid.components.CatalogChangedEvent;
+import hr.abysalto.hiring.mid.components.CatalogReplica;
+import hr.abysalto.hiring.mid.components.ProductPayloadDecoder;
+import hr.abysalto.hiring.mid.components.ProductSearchIndex;
+import hr.abysalto.hiring.mid.components.RequestCoalescer;
+import hr.abysalto.hiring.mid.configuration.DummyJsonSettings;
+import hr.abysalto.hiring.mid.domain.Product;
+import hr.abysalto.hiring.mid.dto.response.ProductListResponse;
+import hr.abysalto.hiring.mid.service.ProductCatalogService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Index lookup versus the upstream search path. The upstream variant uses a canned
+ * response body, so it measures only our parsing and mapping; real calls add the
+ * network round trip on top.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductSearchBenchmark {
+
+    private static final String[] QUERIES = {"phone", "lipst", "apple mob", "kitchen", "sunglasses"};
+
+    private ProductSearchIndex productSearchIndex;
+    private ProductCatalogService upstreamCatalogService;
+    private int queryIndex;
+
+    @Setup
+    public void setUp() {
+        List<Product> products = BenchmarkData.products(200);
+        productSearchIndex = new ProductSearchIndex();
+        productSearchIndex.onCatalogChanged(new CatalogChangedEvent(products, List.of()));
+
+        byte[] body = BenchmarkData.productPage(products.subList(0, 20), products.size()).getBytes();
+        DummyJsonSettings settings = new DummyJsonSettings();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DummyJsonClient cannedClient = new DummyJsonClient(HttpClients.createMinimal(), settings,
+                new CircuitBreaker(settings, meterRegistry), meterRegistry) {
+            @Override
+            public <T> T get(String operation, String pathAndQuery, BodyReader<T> bodyReader) {
+                try {
+                    return bodyReader.read(new ByteArrayInputStream(body));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+        upstreamCatalogService = new ProductCatalogService(new CatalogReplica(event -> {
+        }), productSearchIndex, new RequestCoalescer(new SimpleMeterRegistry()), new ProductPayloadDecoder(), cannedClient, new NoOpCacheManager());
+    }
+
+    @Benchmark
+    public List<Product> indexSearch() {
+        return productSearchIndex.search(nextQuery());
+    }
+
+    @Benchmark
+    public ProductListResponse upstreamSearch() {
+        return upstreamCatalogService.searchProducts(nextQuery());
+    }
+
+    private String nextQuery() {
+        queryIndex = (queryIndex + 1) % QUERIES.length;
+        return QUERIES[queryIndex];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ProductSearchBenchmark.class.getSimpleName()).build()).run();
+    }
+}
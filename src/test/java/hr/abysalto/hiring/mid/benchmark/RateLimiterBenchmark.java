@@ -0,0 +1,96 @@
+package hr.abysalto.hiring.mid.benchmark;
+
+import hr.abysalto.hiring.mid.components.RateLimiter;
+import hr.abysalto.hiring.mid.configuration.RateLimitSettings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limiter throughput with 16 threads: every thread hitting one hot key (worst-case
+ * CAS contention) versus spreading over 10k client keys. {@code synchronizedHotKey} is a
+ * conventional lock-per-bucket token bucket for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(16)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    private static final int CLIENTS = 10_000;
+
+    private RateLimiter rateLimiter;
+    private String[] clientKeys;
+    private LockingBucket lockingBucket;
+
+    @Setup
+    public void setUp() {
+        RateLimitSettings.Group group = new RateLimitSettings.Group();
+        group.setCapacity(100);
+        group.setRefillPeriod(Duration.ofNanos(100));
+
+        RateLimitSettings settings = new RateLimitSettings();
+        settings.getGroups().put("upstream", group);
+        rateLimiter = new RateLimiter(settings, new SimpleMeterRegistry());
+
+        clientKeys = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            clientKeys[i] = "ip:10.0." + (i / 256) + "." + (i % 256);
+        }
+        lockingBucket = new LockingBucket(100, 100);
+    }
+
+    @Benchmark
+    public long hotKey() {
+        return rateLimiter.tryAcquire("upstream", "ip:10.0.0.1");
+    }
+
+    @Benchmark
+    public long spreadKeys() {
+        return rateLimiter.tryAcquire("upstream", clientKeys[ThreadLocalRandom.current().nextInt(CLIENTS)]);
+    }
+
+    @Benchmark
+    public boolean synchronizedHotKey() {
+        return lockingBucket.tryAcquire(System.nanoTime());
+    }
+
+    private static final class LockingBucket {
+
+        private final double capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long lastRefill = System.nanoTime();
+
+        private LockingBucket(int capacity, long refillNanos) {
+            this.capacity = capacity;
+            this.tokensPerNano = 1.0 / refillNanos;
+            this.tokens = capacity;
+        }
+
+        private synchronized boolean tryAcquire(long now) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+            if (tokens >= 1) {
+                tokens--;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RateLimiterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,94 @@
+package hr.abysalto.hiring.mid.client;
+
+import hr.abysalto.hiring.mid.configuration.DummyJsonSettings;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private static final long FAST = Duration.ofMillis(50).toNanos();
+    private static final long SLOW = Duration.ofSeconds(3).toNanos();
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        DummyJsonSettings.Breaker settings = new DummyJsonSettings.Breaker();
+        settings.setWindowSize(10);
+        settings.setMinimumCalls(4);
+        settings.setFailureRateThreshold(50);
+        settings.setSlowCallDuration(Duration.ofSeconds(2));
+        settings.setSlowCallRateThreshold(75);
+        settings.setOpenDuration(Duration.ofSeconds(30));
+        settings.setHalfOpenCalls(2);
+
+        circuitBreaker = new CircuitBreaker(settings, clock::get);
+    }
+
+    @Test
+    void shouldStayClosedBelowMinimumCalls() {
+        record(true, FAST, 3);
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    void shouldOpenWhenFailureRateCrossesThreshold() {
+        record(false, FAST, 2);
+        record(true, FAST, 2);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    void shouldOpenWhenTooManyCallsAreSlow() {
+        record(false, FAST, 1);
+        record(false, SLOW, 3);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    void shouldLetLimitedProbesThroughAndCloseOnSuccess() {
+        record(true, FAST, 4);
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        assertTrue(circuitBreaker.tryAcquire());
+        assertTrue(circuitBreaker.tryAcquire());
+        assertFalse(circuitBreaker.tryAcquire());
+
+        circuitBreaker.onResult(false, FAST);
+        circuitBreaker.onResult(false, FAST);
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(0.0, circuitBreaker.getFailureRate());
+    }
+
+    @Test
+    void shouldReopenWhenProbeFails() {
+        record(true, FAST, 4);
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        assertTrue(circuitBreaker.tryAcquire());
+        circuitBreaker.onResult(true, FAST);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquire());
+    }
+
+    private void record(boolean failed, long duration, int times) {
+        for (int i = 0; i < times; i++) {
+            assertTrue(circuitBreaker.tryAcquire());
+            circuitBreaker.onResult(failed, duration);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package hr.abysalto.hiring.mid.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import hr.abysalto.hiring.mid.configuration.DummyJsonClientConfig;
+import hr.abysalto.hiring.mid.configuration.DummyJsonSettings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DummyJsonClientTest {
+
+    private static final String BODY = "{\"id\":1,\"title\":\"iPhone 9\"}";
+
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger gzipResponses = new AtomicInteger();
+    private final AtomicInteger flakyCalls = new AtomicInteger();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private HttpServer server;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+    private DummyJsonClient dummyJsonClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/products/1", exchange -> respond(exchange, 200, BODY));
+        server.createContext("/products/404", exchange -> respond(exchange, 404, "{\"message\":\"not found\"}"));
+        server.createContext("/products/flaky", exchange -> respond(exchange,
+                flakyCalls.incrementAndGet() == 1 ? 503 : 200, BODY));
+        server.createContext("/products/broken", exchange -> respond(exchange, 500, "{}"));
+        server.createContext("/products/slow", exchange -> {
+            try {
+                Thread.sleep(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, BODY);
+        });
+        server.start();
+
+        DummyJsonSettings settings = new DummyJsonSettings();
+        settings.setBaseUrl("http://127.0.0.1:" + server.getAddress().getPort());
+        settings.getClient().getDeadlines().put("slow", Duration.ofMillis(200));
+        settings.getClient().getRetry().setBackoff(Duration.ofMillis(10));
+        settings.getClient().getBreaker().setMinimumCalls(4);
+
+        DummyJsonClientConfig config = new DummyJsonClientConfig();
+        connectionManager = config.dummyJsonConnectionManager(settings, meterRegistry);
+        httpClient = config.dummyJsonHttpClient(connectionManager, settings);
+        dummyJsonClient = new DummyJsonClient(httpClient, settings, new CircuitBreaker(settings, meterRegistry), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        dummyJsonClient.shutdown();
+        httpClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    void shouldRequestGzipAndStreamDecompressedBody() {
+        String body = dummyJsonClient.get("product", "/products/1", this::readString);
+
+        assertEquals(BODY, body);
+        assertEquals(1, gzipResponses.get());
+    }
+
+    @Test
+    void shouldReusePooledConnection() {
+        for (int i = 0; i < 5; i++) {
+            dummyJsonClient.get("product", "/products/1", this::readString);
+        }
+
+        assertEquals(1, clientPorts.size());
+        assertEquals(1, connectionManager.getTotalStats().getAvailable());
+        assertEquals(0, connectionManager.getTotalStats().getLeased());
+        assertNotNull(meterRegistry.find("httpcomponents.httpclient.pool.total.connections").gauge());
+    }
+
+    @Test
+    void shouldSurfaceUpstreamStatus() {
+        DummyJsonClientException exception = assertThrows(DummyJsonClientException.class,
+                () -> dummyJsonClient.get("product", "/products/404", this::readString));
+
+        assertEquals(404, exception.getStatusCode());
+        assertTrue(exception.isClientError());
+        assertEquals(1, requests.get());
+        assertEquals(1, meterRegistry.get("dummyjson.client.requests").tag("outcome", "client_error").timer().count());
+    }
+
+    @Test
+    void shouldRetryUpstreamFaultOnce() {
+        String body = dummyJsonClient.get("product", "/products/flaky", this::readString);
+
+        assertEquals(BODY, body);
+        assertEquals(2, flakyCalls.get());
+        assertEquals(1, meterRegistry.get("dummyjson.client.retries").tag("outcome", "attempted").counter().count());
+    }
+
+    @Test
+    void shouldOpenCircuitAndRejectWithoutCallingUpstream() {
+        for (int i = 0; i < 2; i++) {
+            assertThrows(DummyJsonClientException.class,
+                    () -> dummyJsonClient.get("product", "/products/broken", this::readString));
+        }
+        int callsBeforeOpen = requests.get();
+
+        assertThrows(CircuitOpenException.class, () -> dummyJsonClient.get("product", "/products/1", this::readString));
+
+        assertEquals(4, callsBeforeOpen);
+        assertEquals(callsBeforeOpen, requests.get());
+        assertEquals(1, meterRegistry.get("dummyjson.client.rejected").counter().count());
+    }
+
+    @Test
+    void shouldAbortCallThatExceedsDeadline() {
+        long start = System.nanoTime();
+
+        DummyJsonClientException exception = assertThrows(DummyJsonClientException.class,
+                () -> dummyJsonClient.get("slow", "/products/slow", this::readString));
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 1500);
+        assertEquals(0, exception.getStatusCode());
+        // the timed-out attempt counts as an upstream fault and is retried once
+        assertEquals(2, meterRegistry.get("dummyjson.client.requests").tag("outcome", "timeout").timer().count());
+    }
+
+    @Test
+    void shouldRecordLatencyPerOperation() {
+        dummyJsonClient.get("product", "/products/1", this::readString);
+        dummyJsonClient.get("product", "/products/1", this::readString);
+
+        assertEquals(2, meterRegistry.get("dummyjson.client.requests")
+                .tag("operation", "product")
+                .tag("outcome", "success")
+                .timer().count());
+    }
+
+    private String readString(InputStream body) throws IOException {
+        return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    private void respond(HttpExchange exchange, int status, String body) throws IOException {
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        requests.incrementAndGet();
+        byte[] payload = body.getBytes(StandardCharsets.UTF_8);
+
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(payload);
+            }
+            payload = compressed.toByteArray();
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            gzipResponses.incrementAndGet();
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, payload.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(payload);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package hr.abysalto.hiring.mid.components;
+
+import hr.abysalto.hiring.mid.configuration.CacheSettings;
+import hr.abysalto.hiring.mid.dto.response.ProductListResponse;
+import hr.abysalto.hiring.mid.dto.response.ProductResponse;
+import hr.abysalto.hiring.mid.repository.FavoriteRepository;
+import hr.abysalto.hiring.mid.service.ProductCatalogService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheWarmerTest {
+
+    @Mock
+    private ProductCatalogService productCatalogService;
+
+    @Mock
+    private FavoriteRepository favoriteRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CacheSettings cacheSettings = new CacheSettings();
+    private final CatalogReplica catalogReplica = new CatalogReplica(event -> {
+    });
+
+    private CacheWarmer cacheWarmer;
+    private CacheWarmupHealthIndicator healthIndicator;
+
+    @BeforeEach
+    void setUp() {
+        cacheSettings.getWarmup().setPages(2);
+        cacheSettings.getWarmup().setPageSize(10);
+        cacheSettings.getWarmup().setSorts(List.of("default", "price:desc"));
+
+        cacheWarmer = new CacheWarmer(cacheSettings, catalogReplica, productCatalogService, favoriteRepository,
+                new FanOutExecutor(4, meterRegistry), meterRegistry);
+        healthIndicator = new CacheWarmupHealthIndicator(cacheWarmer);
+    }
+
+    @Test
+    void shouldReportDownUntilWarmupFinishes() {
+        assertEquals(Status.DOWN, healthIndicator.health().getStatus());
+    }
+
+    @Test
+    void shouldPrefetchPagesForEverySortOrderAndTopProducts() {
+        when(productCatalogService.getProducts(anyInt(), anyInt(), any(), anyString()))
+                .thenReturn(ProductListResponse.builder().products(List.of()).build());
+        when(favoriteRepository.findMostFavoritedProductIds(50)).thenReturn(List.of(7L, 3L));
+        when(productCatalogService.getProduct(anyLong())).thenReturn(ProductResponse.builder().build());
+
+        cacheWarmer.warmUp();
+
+        verify(productCatalogService).getProducts(10, 0, null, "asc");
+        verify(productCatalogService).getProducts(10, 10, null, "asc");
+        verify(productCatalogService).getProducts(10, 0, "price", "desc");
+        verify(productCatalogService).getProducts(10, 10, "price", "desc");
+        verify(productCatalogService).getProduct(7L);
+        verify(productCatalogService).getProduct(3L);
+
+        assertEquals(CacheWarmer.State.COMPLETED, cacheWarmer.getState());
+        assertEquals(4, cacheWarmer.getPagesWarmed());
+        assertEquals(2, cacheWarmer.getProductsWarmed());
+        assertEquals(Status.UP, healthIndicator.health().getStatus());
+        assertEquals(1, meterRegistry.get("cache.warmup.duration").timer().count());
+    }
+
+    @Test
+    void shouldCountFailuresAndStillComplete() {
+        when(productCatalogService.getProducts(anyInt(), anyInt(), any(), anyString()))
+                .thenThrow(new RuntimeException("Failed to fetch products from DummyJSON API"));
+        when(favoriteRepository.findMostFavoritedProductIds(50)).thenReturn(List.of());
+
+        cacheWarmer.warmUp();
+
+        assertEquals(CacheWarmer.State.COMPLETED, cacheWarmer.getState());
+        assertEquals(4, cacheWarmer.getFailures());
+        assertEquals(Status.UP, healthIndicator.health().getStatus());
+    }
+
+    @Test
+    void shouldBecomeReadyWhenWarmupTimesOut() {
+        cacheSettings.getWarmup().setTimeout(Duration.ofMillis(100));
+        when(productCatalogService.getProducts(anyInt(), anyInt(), any(), anyString())).thenAnswer(invocation -> {
+            Thread.sleep(1000);
+            return ProductListResponse.builder().products(List.of()).build();
+        });
+        when(favoriteRepository.findMostFavoritedProductIds(50)).thenReturn(List.of());
+
+        cacheWarmer.warmUp();
+
+        assertEquals(CacheWarmer.State.TIMED_OUT, cacheWarmer.getState());
+        assertEquals(Status.UP, healthIndicator.health().getStatus());
+    }
+
+    @Test
+    void shouldWaitForTheCatalogReplicaBeforeWarmingUp() throws Exception {
+        ReflectionTestUtils.setField(cacheWarmer, "replicaEnabled", true);
+        when(productCatalogService.getProducts(anyInt(), anyInt(), any(), anyString()))
+                .thenReturn(ProductListResponse.builder().products(List.of()).build());
+        when(favoriteRepository.findMostFavoritedProductIds(50)).thenReturn(List.of());
+
+        cacheWarmer.onApplicationReady();
+
+        assertEquals(CacheWarmer.State.PENDING, cacheWarmer.getState());
+        verifyNoInteractions(productCatalogService);
+
+        catalogReplica.markReady();
+        cacheWarmer.onCatalogReady();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!cacheWarmer.isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(CacheWarmer.State.COMPLETED, cacheWarmer.getState());
+        assertEquals(4, cacheWarmer.getPagesWarmed());
+        assertEquals(Status.UP, healthIndicator.health().getStatus());
+    }
+
+    @Test
+    void shouldReportDownUntilTheReplicaIsLoadedEvenWithoutWarmup() {
+        ReflectionTestUtils.setField(cacheWarmer, "replicaEnabled", true);
+        cacheSettings.getWarmup().setEnabled(false);
+
+        cacheWarmer.onApplicationReady();
+
+        assertEquals(Status.DOWN, healthIndicator.health().getStatus());
+        assertEquals(false, healthIndicator.health().getDetails().get("catalogReady"));
+
+        catalogReplica.markReady();
+
+        assertEquals(Status.UP, healthIndicator.health().getStatus());
+    }
+
+    @Test
+    void shouldSkipWhenDisabled() {
+        cacheSettings.getWarmup().setEnabled(false);
+
+        cacheWarmer.onApplicationReady();
+
+        assertEquals(CacheWarmer.State.DISABLED, cacheWarmer.getState());
+        assertEquals(Status.UP, healthIndicator.health().getStatus());
+        verifyNoInteractions(productCatalogService, favoriteRepository);
+    }
+}
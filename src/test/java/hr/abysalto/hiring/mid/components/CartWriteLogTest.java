@@ -0,0 +1,124 @@
+package hr.abysalto.hiring.mid.components;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CartWriteLogTest {
+
+    private static final LocalDateTime ADDED_AT = LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_000_000);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldReplayRecordsFromSealedSegments() {
+        try (CartWriteLog log = new CartWriteLog(directory, true)) {
+            log.append(CartWriteLog.Record.set(1L, 5L, "iPhone 15", 99999L, 2, ADDED_AT, false));
+            log.append(CartWriteLog.Record.remove(1L, 12L));
+            log.append(CartWriteLog.Record.clear(2L));
+        }
+
+        List<CartWriteLog.Record> records = replay();
+
+        assertEquals(List.of(
+                CartWriteLog.Record.set(1L, 5L, "iPhone 15", 99999L, 2, ADDED_AT, false),
+                CartWriteLog.Record.remove(1L, 12L),
+                CartWriteLog.Record.clear(2L)), records);
+    }
+
+    @Test
+    void shouldStopAtTornRecord() throws IOException {
+        Path segment;
+        try (CartWriteLog log = new CartWriteLog(directory, true)) {
+            log.append(CartWriteLog.Record.set(1L, 5L, "iPhone 15", 99999L, 2, ADDED_AT, false));
+            log.append(CartWriteLog.Record.set(1L, 5L, "iPhone 15", 99999L, 3, ADDED_AT, false));
+            segment = onlySegment();
+        }
+        byte[] bytes = Files.readAllBytes(segment);
+        Files.write(segment, Arrays.copyOf(bytes, bytes.length - 4));
+
+        List<CartWriteLog.Record> records = replay();
+
+        assertEquals(1, records.size());
+        assertEquals(2, records.get(0).quantity());
+    }
+
+    @Test
+    void shouldStopAtCorruptRecord() throws IOException {
+        Path segment;
+        try (CartWriteLog log = new CartWriteLog(directory, false)) {
+            log.append(CartWriteLog.Record.set(1L, 5L, "iPhone 15", 99999L, 2, ADDED_AT, false));
+            segment = onlySegment();
+        }
+        Files.write(segment, new byte[]{0, 0, 0, 4, 1, 2, 3, 4, 9, 9, 9, 9}, StandardOpenOption.APPEND);
+
+        assertEquals(1, replay().size());
+    }
+
+    @Test
+    void shouldStopAtRecordShorterThanItsLayout() throws IOException {
+        Path segment;
+        try (CartWriteLog log = new CartWriteLog(directory, false)) {
+            log.append(CartWriteLog.Record.set(1L, 5L, "iPhone 15", 99999L, 2, ADDED_AT, true));
+            segment = onlySegment();
+        }
+        byte[] record = Files.readAllBytes(segment);
+        // the same record without its trailing stock flag, under a matching length and CRC
+        byte[] payload = Arrays.copyOfRange(record, 8, record.length - 1);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        Files.write(segment, ByteBuffer.allocate(8 + payload.length)
+                .putInt(payload.length)
+                .putInt((int) crc.getValue())
+                .put(payload)
+                .array(), StandardOpenOption.APPEND);
+
+        List<CartWriteLog.Record> records = replay();
+
+        assertEquals(1, records.size());
+        assertTrue(records.get(0).outOfStock());
+    }
+
+    @Test
+    void rotateShouldSealSegmentsForDeletion() throws IOException {
+        try (CartWriteLog log = new CartWriteLog(directory, true)) {
+            log.append(CartWriteLog.Record.set(1L, 5L, "iPhone 15", 99999L, 2, ADDED_AT, false));
+
+            List<Path> sealed = log.rotate();
+            log.append(CartWriteLog.Record.remove(1L, 5L));
+            log.delete(sealed);
+
+            assertEquals(1, sealed.size());
+            assertFalse(Files.exists(sealed.get(0)));
+        }
+
+        assertEquals(List.of(CartWriteLog.Record.remove(1L, 5L)), replay());
+    }
+
+    private List<CartWriteLog.Record> replay() {
+        List<CartWriteLog.Record> records = new ArrayList<>();
+        try (CartWriteLog log = new CartWriteLog(directory, true)) {
+            log.replay(records::add);
+        }
+        return records;
+    }
+
+    private Path onlySegment() throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.findFirst().orElseThrow();
+        }
+    }
+}
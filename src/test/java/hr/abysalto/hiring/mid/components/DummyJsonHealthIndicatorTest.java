@@ -0,0 +1,37 @@
+package hr.abysalto.hiring.mid.components;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.HttpCodeStatusMapper;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.actuate.health.StatusAggregator;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class DummyJsonHealthIndicatorTest {
+
+    @Autowired
+    private StatusAggregator statusAggregator;
+
+    @Autowired
+    private HttpCodeStatusMapper httpCodeStatusMapper;
+
+    @Test
+    void degradedShouldOutrankUpButNotDown() {
+        assertEquals(DummyJsonHealthIndicator.DEGRADED,
+                statusAggregator.getAggregateStatus(Set.of(Status.UP, DummyJsonHealthIndicator.DEGRADED)));
+        assertEquals(Status.DOWN,
+                statusAggregator.getAggregateStatus(Set.of(Status.DOWN, DummyJsonHealthIndicator.DEGRADED)));
+    }
+
+    @Test
+    void degradedShouldStillAnswerOk() {
+        assertEquals(200, httpCodeStatusMapper.getStatusCode(DummyJsonHealthIndicator.DEGRADED));
+        assertEquals(503, httpCodeStatusMapper.getStatusCode(Status.DOWN));
+        assertEquals(503, httpCodeStatusMapper.getStatusCode(Status.OUT_OF_SERVICE));
+    }
+}
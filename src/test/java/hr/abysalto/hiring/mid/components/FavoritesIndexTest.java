@@ -0,0 +1,80 @@
+package hr.abysalto.hiring.mid.components;
+
+import hr.abysalto.hiring.mid.configuration.FavoritesIndexSettings;
+import hr.abysalto.hiring.mid.repository.FavoriteRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class FavoritesIndexTest {
+
+    private final FavoriteRepository favoriteRepository = mock(FavoriteRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final FavoritesIndexSettings settings = new FavoritesIndexSettings();
+
+    private FavoritesIndex favoritesIndex;
+
+    @BeforeEach
+    void setUp() {
+        when(favoriteRepository.findProductIdsByUserId(1L)).thenReturn(List.of(3L, 5L));
+        favoritesIndex = new FavoritesIndex(settings, favoriteRepository, meterRegistry);
+    }
+
+    @Test
+    void shouldLoadEachUserOnce() {
+        assertTrue(favoritesIndex.forUser(1L).contains(5));
+        assertFalse(favoritesIndex.forUser(1L).contains(4));
+
+        verify(favoriteRepository, times(1)).findProductIdsByUserId(1L);
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "favoritesIndex").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void shouldNotQueryForAnonymousUsers() {
+        assertSame(ProductIdBitmap.EMPTY, favoritesIndex.forUser(null));
+
+        verifyNoInteractions(favoriteRepository);
+    }
+
+    @Test
+    void shouldApplyChangesToLoadedUsers() {
+        favoritesIndex.forUser(1L);
+
+        favoritesIndex.added(1L, 8L);
+        favoritesIndex.removed(1L, 3L);
+
+        assertArrayEquals(new long[]{5, 8}, favoritesIndex.forUser(1L).toArray());
+        verify(favoriteRepository, times(1)).findProductIdsByUserId(1L);
+    }
+
+    @Test
+    void shouldLeaveUsersNotInMemoryToTheNextLoad() {
+        favoritesIndex.added(2L, 8L);
+        favoritesIndex.removed(2L, 8L);
+
+        verifyNoInteractions(favoriteRepository);
+        assertEquals(0, favoritesIndex.userCount());
+    }
+
+    @Test
+    void shouldEvictUsersPastTheMemoryBound() {
+        settings.setMaximumWeight(DataSize.ofKilobytes(4));
+        favoritesIndex = new FavoritesIndex(settings, favoriteRepository, meterRegistry);
+        when(favoriteRepository.findProductIdsByUserId(anyLong())).thenReturn(List.of(1L, 20L, 100L));
+
+        for (long userId = 1; userId <= 1000; userId++) {
+            favoritesIndex.forUser(userId);
+        }
+
+        // 64 + 40 + 16 + 2 * 8 bytes per user
+        assertTrue(favoritesIndex.userCount() <= 4096 / 136, "users held: " + favoritesIndex.userCount());
+        assertTrue(favoritesIndex.userCount() > 0);
+    }
+}
@@ -0,0 +1,67 @@
+package hr.abysalto.hiring.mid.components;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductIdBitmapTest {
+
+    @Test
+    void shouldContainExactlyTheGivenIds() {
+        ProductIdBitmap bitmap = ProductIdBitmap.of(Arrays.asList(5L, 130L, 64L, 5L, null, 63L));
+
+        assertEquals(4, bitmap.size());
+        assertArrayEquals(new long[]{5, 63, 64, 130}, bitmap.toArray());
+        for (long id = -1; id <= 200; id++) {
+            assertEquals(id == 5 || id == 63 || id == 64 || id == 130, bitmap.contains(id), "id " + id);
+        }
+    }
+
+    @Test
+    void shouldStoreNearbyIdsAsOneBitPerProduct() {
+        ProductIdBitmap catalog = ProductIdBitmap.of(LongStream.rangeClosed(1, 194).boxed().toList());
+
+        // 194 ids in four 64-bit words
+        assertEquals(40 + 16 + 4 * 8, catalog.sizeInBytes());
+        assertTrue(catalog.contains(1));
+        assertTrue(catalog.contains(194));
+        assertFalse(catalog.contains(195));
+    }
+
+    @Test
+    void shouldFallBackToSortedIdsWhenTheyAreFarApart() {
+        ProductIdBitmap bitmap = ProductIdBitmap.of(List.of(3L, 1_000_000L, Long.MAX_VALUE, -7L));
+
+        assertEquals(40 + 16 + 4 * 8, bitmap.sizeInBytes());
+        assertArrayEquals(new long[]{-7, 3, 1_000_000, Long.MAX_VALUE}, bitmap.toArray());
+        assertTrue(bitmap.contains(Long.MAX_VALUE));
+        assertTrue(bitmap.contains(-7));
+        assertFalse(bitmap.contains(4));
+    }
+
+    @Test
+    void shouldReturnChangedCopies() {
+        ProductIdBitmap original = ProductIdBitmap.of(List.of(1L, 2L));
+
+        ProductIdBitmap added = original.with(500_000L);
+        ProductIdBitmap removed = added.without(1L).without(500_000L);
+
+        assertArrayEquals(new long[]{1, 2}, original.toArray());
+        assertArrayEquals(new long[]{1, 2, 500_000}, added.toArray());
+        assertArrayEquals(new long[]{2}, removed.toArray());
+        assertSame(original, original.with(2L));
+        assertSame(original, original.without(3L));
+        assertSame(ProductIdBitmap.EMPTY, removed.without(2L));
+    }
+
+    @Test
+    void emptyShouldContainNothing() {
+        assertTrue(ProductIdBitmap.of(List.of()).isEmpty());
+        assertFalse(ProductIdBitmap.EMPTY.contains(0));
+        assertArrayEquals(new long[0], ProductIdBitmap.EMPTY.toArray());
+    }
+}
@@ -0,0 +1,99 @@
+package hr.abysalto.hiring.mid.components;
+
+import hr.abysalto.hiring.mid.domain.Product;
+import hr.abysalto.hiring.mid.dto.response.ProductListResponse;
+import hr.abysalto.hiring.mid.dto.response.ProductResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductPayloadDecoderTest {
+
+    private static final String PRODUCT = """
+            {
+              "id": 1,
+              "title": "Essence Mascara Lash Princess",
+              "description": "A popular mascara",
+              "category": "beauty",
+              "price": 9.99,
+              "discountPercentage": 7.17,
+              "rating": 4.94,
+              "stock": 5,
+              "tags": ["beauty", "mascara"],
+              "brand": "Essence",
+              "sku": "RCH45Q1A",
+              "weight": 2,
+              "dimensions": {"width": 23.17, "height": 14.43, "depth": 28.01},
+              "reviews": [{"rating": 2, "comment": "Very unhappy with my purchase!", "reviewerName": "John Doe"}],
+              "meta": {"createdAt": "2024-05-23T08:56:21.618Z", "barcode": "9164035109868"},
+              "thumbnail": "https://cdn.dummyjson.com/1/thumbnail.png",
+              "images": ["https://cdn.dummyjson.com/1/1.png", "https://cdn.dummyjson.com/1/2.png"]
+            }
+            """;
+
+    private final ProductPayloadDecoder decoder = new ProductPayloadDecoder();
+
+    @Test
+    void shouldDecodeProjectedFieldsAndSkipTheRest() throws IOException {
+        ProductResponse product = decoder.readResponse(stream(PRODUCT));
+
+        assertEquals(1L, product.getId());
+        assertEquals("Essence Mascara Lash Princess", product.getTitle());
+        assertEquals(9.99, product.getPrice());
+        assertEquals(7.17, product.getDiscountPercentage());
+        assertEquals(4.94, product.getRating());
+        assertEquals(5, product.getStock());
+        assertEquals("Essence", product.getBrand());
+        assertEquals("beauty", product.getCategory());
+        assertArrayEquals(new String[]{"https://cdn.dummyjson.com/1/1.png", "https://cdn.dummyjson.com/1/2.png"}, product.getImages());
+        assertFalse(product.getIsFavorite());
+    }
+
+    @Test
+    void shouldDecodePageHeaderRegardlessOfFieldOrder() throws IOException {
+        String page = "{\"total\":194,\"products\":[" + PRODUCT + "," + PRODUCT.replace("\"id\": 1", "\"id\": 2") + "],\"skip\":30,\"limit\":2}";
+
+        ProductListResponse response = decoder.readResponsePage(stream(page));
+
+        assertEquals(2, response.getProducts().size());
+        assertEquals(2L, response.getProducts().get(1).getId());
+        assertEquals(194, response.getTotal());
+        assertEquals(30, response.getSkip());
+        assertEquals(2, response.getLimit());
+    }
+
+    @Test
+    void shouldKeepTagsForCatalogChunks() throws IOException {
+        ProductPayloadDecoder.CatalogChunk chunk = decoder.readCatalogChunk(stream("{\"products\":[" + PRODUCT + "],\"total\":1}"));
+
+        Product product = chunk.products().get(0);
+        assertArrayEquals(new String[]{"beauty", "mascara"}, product.getTags());
+        assertNull(product.getReviews());
+        assertNull(product.getMeta());
+        assertEquals(1, chunk.total());
+    }
+
+    @Test
+    void shouldLeaveNullFieldsUnset() throws IOException {
+        ProductResponse product = decoder.readResponse(stream("{\"id\":3,\"brand\":null,\"images\":null,\"price\":5}"));
+
+        assertEquals(3L, product.getId());
+        assertNull(product.getBrand());
+        assertNull(product.getImages());
+        assertEquals(5.0, product.getPrice());
+    }
+
+    @Test
+    void shouldRejectMalformedPayload() {
+        assertThrows(IOException.class, () -> decoder.readResponsePage(stream("[1,2,3]")));
+    }
+
+    private InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
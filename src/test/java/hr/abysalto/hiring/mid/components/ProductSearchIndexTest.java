@@ -0,0 +1,81 @@
+package hr.abysalto.hiring.mid.components;
+
+import hr.abysalto.hiring.mid.domain.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex productSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        productSearchIndex = new ProductSearchIndex();
+        productSearchIndex.onCatalogChanged(new CatalogChangedEvent(List.of(
+                product(1L, "iPhone 9", "An apple mobile", "Apple", "smartphones", "phone"),
+                product(2L, "Phone Case", "Silicone case for phones", "Generic", "mobile-accessories", "accessories"),
+                product(3L, "Red Lipstick", "Long lasting lipstick", "Chic Cosmetics", "beauty", "lips")
+        ), List.of()));
+    }
+
+    @Test
+    void shouldRankTitleMatchesAboveDescriptionMatches() {
+        List<Product> results = productSearchIndex.search("phone");
+
+        assertEquals(List.of(2L, 1L), ids(results));
+    }
+
+    @Test
+    void shouldMatchByPrefix() {
+        assertEquals(List.of(3L), ids(productSearchIndex.search("lipst")));
+        assertEquals(List.of(3L), ids(productSearchIndex.search("cosm")));
+    }
+
+    @Test
+    void shouldRequireEveryQueryTermToMatch() {
+        assertEquals(List.of(1L), ids(productSearchIndex.search("apple mob")));
+        assertTrue(productSearchIndex.search("apple lipstick").isEmpty());
+    }
+
+    @Test
+    void shouldIgnoreCaseAndPunctuation() {
+        assertEquals(List.of(1L), ids(productSearchIndex.search("IPHONE, 9!")));
+    }
+
+    @Test
+    void shouldReturnNothingForQueryWithoutTerms() {
+        assertTrue(productSearchIndex.search(" ").isEmpty());
+        assertTrue(productSearchIndex.search("?!").isEmpty());
+    }
+
+    @Test
+    void shouldReindexChangedProductsAndDropRemovedOnes() {
+        productSearchIndex.onCatalogChanged(new CatalogChangedEvent(
+                List.of(product(1L, "Galaxy S10", "A samsung mobile", "Samsung", "smartphones", "phone")),
+                List.of(3L)));
+
+        assertTrue(productSearchIndex.search("iphone").isEmpty());
+        assertEquals(List.of(1L), ids(productSearchIndex.search("galaxy")));
+        assertTrue(productSearchIndex.search("lipstick").isEmpty());
+        assertEquals(2, productSearchIndex.size());
+    }
+
+    private List<Long> ids(List<Product> products) {
+        return products.stream().map(Product::getId).toList();
+    }
+
+    private Product product(Long id, String title, String description, String brand, String category, String tag) {
+        return Product.builder()
+                .id(id)
+                .title(title)
+                .description(description)
+                .brand(brand)
+                .category(category)
+                .tags(new String[]{tag})
+                .build();
+    }
+}
@@ -0,0 +1,147 @@
+package hr.abysalto.hiring.mid.components;
+
+import hr.abysalto.hiring.mid.configuration.RateLimitSettings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private RateLimitSettings settings;
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitSettings.Group auth = new RateLimitSettings.Group();
+        auth.setCapacity(3);
+        auth.setRefillPeriod(Duration.ofSeconds(2));
+
+        settings = new RateLimitSettings();
+        settings.setIdleTimeout(Duration.ofMinutes(1));
+        settings.getGroups().put("auth", auth);
+        rateLimiter = new RateLimiter(settings, meterRegistry, nanos::get);
+    }
+
+    @Test
+    void shouldAllowBurstUpToCapacityThenReportWait() {
+        assertEquals(0, rateLimiter.tryAcquire("auth", "ip:1"));
+        assertEquals(0, rateLimiter.tryAcquire("auth", "ip:1"));
+        assertEquals(0, rateLimiter.tryAcquire("auth", "ip:1"));
+
+        assertEquals(Duration.ofSeconds(2).toNanos(), rateLimiter.tryAcquire("auth", "ip:1"));
+        assertEquals(3.0, meterRegistry.get("rate.limit.requests").tag("group", "auth").tag("outcome", "allowed").counter().count());
+        assertEquals(1.0, meterRegistry.get("rate.limit.requests").tag("group", "auth").tag("outcome", "rejected").counter().count());
+    }
+
+    @Test
+    void shouldRefillOneRequestPerPeriod() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("auth", "ip:1");
+        }
+
+        nanos.addAndGet(Duration.ofSeconds(2).toNanos());
+
+        assertEquals(0, rateLimiter.tryAcquire("auth", "ip:1"));
+        assertTrue(rateLimiter.tryAcquire("auth", "ip:1") > 0);
+    }
+
+    @Test
+    void shouldKeepClientsIndependent() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("auth", "ip:1");
+        }
+
+        assertTrue(rateLimiter.tryAcquire("auth", "ip:1") > 0);
+        assertEquals(0, rateLimiter.tryAcquire("auth", "ip:2"));
+    }
+
+    @Test
+    void shouldEvictIdleBuckets() {
+        rateLimiter.tryAcquire("auth", "ip:1");
+        rateLimiter.tryAcquire("auth", "ip:2");
+        assertEquals(2, rateLimiter.bucketCount());
+
+        nanos.addAndGet(Duration.ofMinutes(2).toNanos());
+
+        assertEquals(0, rateLimiter.bucketCount());
+    }
+
+    @Test
+    void floodOfNewKeysShouldNotResetThrottledClients() {
+        settings.setMaxBuckets(2);
+        rateLimiter = new RateLimiter(settings, meterRegistry, nanos::get);
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("auth", "ip:1");
+        }
+        rateLimiter.tryAcquire("auth", "ip:2");
+
+        int allowed = 0;
+        for (int i = 3; i < 1_000; i++) {
+            if (rateLimiter.tryAcquire("auth", "ip:" + i) == 0) {
+                allowed++;
+            }
+        }
+
+        // the new keys share one bucket while the map is full
+        assertEquals(3, allowed);
+        assertEquals(2, rateLimiter.bucketCount());
+        assertTrue(rateLimiter.tryAcquire("auth", "ip:1") > 0);
+        assertEquals(0, rateLimiter.tryAcquire("auth", "ip:2"));
+
+        nanos.addAndGet(Duration.ofMinutes(2).toNanos());
+
+        assertEquals(0, rateLimiter.tryAcquire("auth", "ip:3"));
+        assertEquals(0, rateLimiter.tryAcquire("auth", "ip:3"));
+        assertEquals(1, rateLimiter.bucketCount());
+    }
+
+    @Test
+    void shouldRejectUnknownGroup() {
+        assertThrows(IllegalArgumentException.class, () -> rateLimiter.tryAcquire("missing", "ip:1"));
+    }
+
+    @Test
+    void shouldNeverExceedCapacityUnderContention() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    int allowed = 0;
+                    for (int i = 0; i < 1_000; i++) {
+                        if (rateLimiter.tryAcquire("auth", "ip:hot") == 0) {
+                            allowed++;
+                        }
+                    }
+                    return allowed;
+                }));
+            }
+            start.countDown();
+
+            int allowed = 0;
+            for (Future<Integer> result : results) {
+                allowed += result.get();
+            }
+            assertEquals(3, allowed);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package hr.abysalto.hiring.mid.components;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestCoalescerTest {
+
+    private static final int CALLERS = 8;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RequestCoalescer requestCoalescer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        requestCoalescer = new RequestCoalescer(meterRegistry);
+    }
+
+    @Test
+    void shouldShareOneInFlightCallBetweenConcurrentCallers() throws Exception {
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = runConcurrently(() -> requestCoalescer.execute("product", "1", () -> {
+            upstreamCalls.incrementAndGet();
+            await(release);
+            return "product-1";
+        }), release);
+
+        for (Future<String> result : results) {
+            assertEquals("product-1", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(1.0, count("leader"));
+        assertEquals(CALLERS - 1, count("coalesced"));
+    }
+
+    @Test
+    void shouldPropagateFailureToEveryWaiter() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = runConcurrently(() -> requestCoalescer.<String>execute("product", "1", () -> {
+            await(release);
+            throw new RuntimeException("Failed to fetch product from DummyJSON API");
+        }), release);
+
+        for (Future<String> result : results) {
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertEquals("Failed to fetch product from DummyJSON API", exception.getCause().getMessage());
+        }
+    }
+
+    @Test
+    void shouldReleaseEveryWaiterWhenTheLoaderThrowsAnError() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Error error = new NoClassDefFoundError("hr/abysalto/hiring/mid/dto/response/ProductResponse");
+
+        List<Future<String>> results = runConcurrently(() -> requestCoalescer.<String>execute("product", "1", () -> {
+            await(release);
+            throw error;
+        }), release);
+
+        for (Future<String> result : results) {
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertSame(error, exception.getCause());
+        }
+        assertEquals("product-1", requestCoalescer.execute("product", "1", () -> "product-1"));
+    }
+
+    @Test
+    void shouldNotCoalesceDifferentKeysOrSequentialCalls() {
+        AtomicInteger upstreamCalls = new AtomicInteger();
+
+        requestCoalescer.execute("product", "1", upstreamCalls::incrementAndGet);
+        requestCoalescer.execute("product", "1", upstreamCalls::incrementAndGet);
+        requestCoalescer.execute("product", "2", upstreamCalls::incrementAndGet);
+
+        assertEquals(3, upstreamCalls.get());
+        assertEquals(0.0, count("coalesced"));
+    }
+
+    private List<Future<String>> runConcurrently(Callable<String> call, CountDownLatch release) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(call));
+            }
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (count("leader") + count("coalesced") < CALLERS && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private double count(String role) {
+        var counter = meterRegistry.find("upstream.coalescing.calls").tag("role", role).counter();
+        return counter == null ? 0.0 : counter.count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
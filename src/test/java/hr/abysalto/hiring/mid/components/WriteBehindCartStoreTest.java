@@ -0,0 +1,240 @@
+package hr.abysalto.hiring.mid.components;
+
+import hr.abysalto.hiring.mid.configuration.CartWriteBehindSettings;
+import hr.abysalto.hiring.mid.domain.CartItem;
+import hr.abysalto.hiring.mid.repository.CartItemRepository;
+import hr.abysalto.hiring.mid.repository.CartSummaryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class WriteBehindCartStoreTest {
+
+    @TempDir
+    Path logDirectory;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private CartSummaryRepository cartSummaryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DatabaseInitializer databaseInitializer;
+
+    private final List<WriteBehindCartStore> stores = new ArrayList<>();
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        databaseInitializer.initialize();
+
+        String username = "cart" + UUID.randomUUID().toString().substring(0, 8);
+        jdbcTemplate.update("INSERT INTO USERS (USERNAME, PASSWORD, EMAIL) VALUES (?, 'x', ?)",
+                username, username + "@example.com");
+        userId = jdbcTemplate.queryForObject("SELECT ID FROM USERS WHERE USERNAME = ?", Long.class, username);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stores.forEach(WriteBehindCartStore::shutdown);
+    }
+
+    @Test
+    void changesShouldStayInMemoryUntilFlushed() throws IOException {
+        WriteBehindCartStore store = newStore();
+
+        store.add(userId, 5L, "iPhone 15", 99999L, false, 2);
+        store.add(userId, 5L, "iPhone 15", 99999L, false, 1);
+        store.add(userId, 12L, "Samsung S24", 89999L, false, 1);
+
+        assertEquals(List.of(5L, 12L), store.items(userId).stream().map(CartItem::getProductId).toList());
+        assertEquals(3, store.items(userId).get(0).getQuantity());
+        assertEquals(List.of(), rows());
+
+        store.flush();
+
+        assertEquals(List.of(Map.of("PRODUCT_ID", 5L, "QUANTITY", 3), Map.of("PRODUCT_ID", 12L, "QUANTITY", 1)), rows());
+        Map<String, Object> summary = jdbcTemplate.queryForMap(
+                "SELECT ITEM_COUNT, TOTAL_QUANTITY, TOTAL_PRICE_CENTS, VERSION FROM CART_SUMMARY WHERE USER_ID = ?", userId);
+        assertEquals(2, ((Number) summary.get("ITEM_COUNT")).intValue());
+        assertEquals(4, ((Number) summary.get("TOTAL_QUANTITY")).intValue());
+        assertEquals(3 * 99999L + 89999L, ((Number) summary.get("TOTAL_PRICE_CENTS")).longValue());
+        assertEquals(3L, ((Number) summary.get("VERSION")).longValue());
+        assertEquals(1, segmentCount());
+    }
+
+    @Test
+    void flushShouldDeleteRemovedAndClearedLines() {
+        WriteBehindCartStore store = newStore();
+        store.add(userId, 5L, "iPhone 15", 99999L, false, 2);
+        store.add(userId, 12L, "Samsung S24", 89999L, false, 1);
+        store.flush();
+
+        assertTrue(store.remove(userId, 5L).isPresent());
+        assertTrue(store.remove(userId, 5L).isEmpty());
+        store.flush();
+        assertEquals(List.of(Map.of("PRODUCT_ID", 12L, "QUANTITY", 1)), rows());
+
+        store.clear(userId);
+        store.flush();
+        assertEquals(List.of(), rows());
+        assertEquals(4L, store.version(userId));
+    }
+
+    @Test
+    void unflushedChangesShouldBeRecoveredAfterCrash() {
+        WriteBehindCartStore crashed = newStore();
+        crashed.add(userId, 5L, "iPhone 15", 99999L, false, 2);
+        crashed.flush();
+        crashed.add(userId, 5L, "iPhone 15", 99999L, false, 3);
+        crashed.add(userId, 12L, "Samsung S24", 89999L, false, 1);
+        crashed.remove(userId, 12L);
+        crash(crashed);
+
+        WriteBehindCartStore restarted = newStore();
+        restarted.recover();
+
+        assertEquals(List.of(Map.of("PRODUCT_ID", 5L, "QUANTITY", 5)), rows());
+        assertEquals(5, restarted.items(userId).get(0).getQuantity());
+        assertEquals(4L, restarted.version(userId));
+    }
+
+    @Test
+    void replayingAlreadyFlushedChangesShouldNotDoubleQuantities() throws IOException {
+        WriteBehindCartStore crashed = newStore();
+        crashed.add(userId, 5L, "iPhone 15", 99999L, false, 2);
+        crashed.add(userId, 5L, "iPhone 15", 99999L, false, 1);
+        Map<Path, byte[]> sealed = new HashMap<>();
+        for (Path segment : writeLog(crashed).rotate()) {
+            sealed.put(segment, Files.readAllBytes(segment));
+        }
+        crashed.flush();
+        // flushed to the database, but the crash came before the segments were deleted
+        for (Map.Entry<Path, byte[]> segment : sealed.entrySet()) {
+            Files.write(segment.getKey(), segment.getValue());
+        }
+        crash(crashed);
+
+        WriteBehindCartStore restarted = newStore();
+        restarted.recover();
+
+        assertEquals(List.of(Map.of("PRODUCT_ID", 5L, "QUANTITY", 3)), rows());
+    }
+
+    @Test
+    void refreshedProductShouldReachHotCartsAndTheirNextFlush() {
+        WriteBehindCartStore store = newStore();
+        store.add(userId, 5L, "iPhone 15", 99999L, false, 2);
+
+        store.refreshProduct(5L, "iPhone 15 (2023)", 89999L, true);
+        store.flush();
+
+        CartItem line = store.items(userId).get(0);
+        assertEquals("iPhone 15 (2023)", line.getProductTitle());
+        assertEquals(89999L, line.getProductPriceCents());
+        assertTrue(line.isOutOfStock());
+        assertEquals(89999L, jdbcTemplate.queryForObject(
+                "SELECT PRODUCT_PRICE_CENTS FROM CART_ITEMS WHERE USER_ID = ?", Long.class, userId));
+        assertTrue(outOfStock(5L));
+    }
+
+    @Test
+    void stockFlagShouldBeStoredLoggedAndRecovered() {
+        WriteBehindCartStore crashed = newStore();
+        crashed.add(userId, 5L, "iPhone 15", 99999L, true, 2);
+        crashed.add(userId, 12L, "Samsung S24", 89999L, false, 1);
+        crashed.flush();
+        assertTrue(outOfStock(5L));
+        assertFalse(outOfStock(12L));
+
+        crashed.markOutOfStock(List.of(12L));
+        crashed.add(userId, 5L, "iPhone 15", 99999L, false, 1);
+        crash(crashed);
+
+        WriteBehindCartStore restarted = newStore();
+        restarted.recover();
+
+        assertFalse(outOfStock(5L));
+        assertTrue(outOfStock(12L));
+        assertTrue(restarted.items(userId).get(1).isOutOfStock());
+    }
+
+    @Test
+    void idleCleanCartsShouldBeEvictedAfterFlush() {
+        WriteBehindCartStore store = newStore(Duration.ZERO);
+        store.add(userId, 5L, "iPhone 15", 99999L, false, 2);
+        assertEquals(1, store.hotCartCount());
+
+        store.flush();
+
+        assertEquals(0, store.hotCartCount());
+        assertEquals(2, store.items(userId).get(0).getQuantity());
+    }
+
+    private boolean outOfStock(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT OUT_OF_STOCK FROM CART_ITEMS WHERE USER_ID = ? AND PRODUCT_ID = ?",
+                Boolean.class, userId, productId);
+    }
+
+    private WriteBehindCartStore newStore() {
+        return newStore(Duration.ofMinutes(10));
+    }
+
+    private WriteBehindCartStore newStore(Duration idleTimeout) {
+        CartWriteBehindSettings settings = new CartWriteBehindSettings();
+        settings.setEnabled(true);
+        settings.setLogDirectory(logDirectory);
+        settings.setIdleTimeout(idleTimeout);
+        WriteBehindCartStore store = new WriteBehindCartStore(settings, cartItemRepository, cartSummaryRepository, transactionManager);
+        stores.add(store);
+        return store;
+    }
+
+    private void crash(WriteBehindCartStore store) {
+        writeLog(store).close();
+        ReflectionTestUtils.setField(store, "closed", true);
+    }
+
+    private CartWriteLog writeLog(WriteBehindCartStore store) {
+        return (CartWriteLog) ReflectionTestUtils.getField(store, "writeLog");
+    }
+
+    private List<Map<String, Object>> rows() {
+        return jdbcTemplate.queryForList(
+                "SELECT PRODUCT_ID, QUANTITY FROM CART_ITEMS WHERE USER_ID = ? ORDER BY PRODUCT_ID", userId);
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(logDirectory)) {
+            return files.count();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package hr.abysalto.hiring.mid.configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import hr.abysalto.hiring.mid.domain.ProductPrice;
+import hr.abysalto.hiring.mid.dto.response.ProductListResponse;
+import hr.abysalto.hiring.mid.dto.response.ProductResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheConfigTest {
+
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        CacheSettings.Spec spec = new CacheSettings.Spec();
+        spec.setMaximumWeight(DataSize.ofKilobytes(20));
+        spec.setTimeToLive(Duration.ofMinutes(1));
+        spec.setIdleTimeout(Duration.ofMinutes(1));
+
+        CacheSettings cacheSettings = new CacheSettings();
+        cacheSettings.setCaches(Map.of("product", spec));
+
+        cacheManager = new CacheConfig().cacheManager(cacheSettings, Map.of());
+    }
+
+    @Test
+    void shouldBoundCacheByEstimatedWeight() {
+        org.springframework.cache.Cache cache = cacheManager.getCache("product");
+        for (long id = 1; id <= 500; id++) {
+            cache.put(id, product(id));
+        }
+
+        Cache<?, ?> nativeCache = (Cache<?, ?>) cache.getNativeCache();
+        nativeCache.cleanUp();
+
+        assertTrue(nativeCache.estimatedSize() < 500);
+        assertTrue(nativeCache.policy().eviction().orElseThrow().weightedSize().orElseThrow() <= DataSize.ofKilobytes(20).toBytes());
+        assertTrue(nativeCache.stats().evictionCount() > 0);
+    }
+
+    @Test
+    void shouldRecordHitsAndMisses() {
+        org.springframework.cache.Cache cache = cacheManager.getCache("product");
+        cache.get(1L, () -> product(1L));
+        cache.get(1L, () -> product(1L));
+
+        Cache<?, ?> nativeCache = (Cache<?, ?>) cache.getNativeCache();
+        assertEquals(1, nativeCache.stats().hitCount());
+        assertEquals(1, nativeCache.stats().missCount());
+        assertEquals(1, nativeCache.stats().loadSuccessCount());
+    }
+
+    @Test
+    void shouldNotCreateUnconfiguredCaches() {
+        assertNull(cacheManager.getCache("unknown"));
+    }
+
+    @Test
+    void shouldWeighListsByTheirProducts() {
+        ProductListResponse small = ProductListResponse.builder().products(List.of(product(1L))).build();
+        ProductListResponse large = ProductListResponse.builder().products(List.of(product(1L), product(2L), product(3L))).build();
+
+        assertTrue(CacheWeigher.estimate(large) > 2 * CacheWeigher.estimate(small));
+    }
+
+    @Test
+    void shouldWeighPriceEntriesAtAFractionOfFullProducts() {
+        ProductPrice price = new ProductPrice(1L, "Product 1", 99999L, false);
+
+        assertTrue(CacheWeigher.estimate(price) * 5 < CacheWeigher.estimate(product(1L)));
+    }
+
+    private ProductResponse product(Long id) {
+        return ProductResponse.builder()
+                .id(id)
+                .title("Product " + id)
+                .description("A reasonably long product description used to give the entry some weight")
+                .brand("Brand")
+                .category("category")
+                .thumbnail("https://cdn.example.com/" + id + "/thumb.webp")
+                .images(new String[]{"https://cdn.example.com/" + id + "/1.webp"})
+                .build();
+    }
+}
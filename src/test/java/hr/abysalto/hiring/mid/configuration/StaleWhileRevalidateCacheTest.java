@@ -0,0 +1,132 @@
+package hr.abysalto.hiring.mid.configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StaleWhileRevalidateCacheTest {
+
+    private final AtomicLong ticker = new AtomicLong();
+    private final List<Runnable> pendingRefreshes = new ArrayList<>();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private Function<Object, Object> refresher = key -> load();
+    private StaleWhileRevalidateCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = cache(key -> refresher.apply(key));
+    }
+
+    @Test
+    void shouldServeFreshEntryWithoutReloading() {
+        assertEquals("v1", cache.get("key", this::load));
+        advance(Duration.ofSeconds(30));
+
+        assertEquals("v1", cache.get("key", this::load));
+        assertEquals(1, loads.get());
+        assertTrue(pendingRefreshes.isEmpty());
+    }
+
+    @Test
+    void shouldServeStaleEntryAndRefreshInBackground() {
+        cache.get("key", this::load);
+        advance(Duration.ofMinutes(2));
+
+        assertEquals("v1", cache.get("key", this::load));
+        assertEquals("v1", cache.get("key", this::load));
+        assertEquals(1, pendingRefreshes.size());
+        assertEquals(2, cache.getStaleServed());
+
+        pendingRefreshes.remove(0).run();
+
+        assertEquals("v2", cache.get("key", this::load));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void shouldRefreshThroughTheCacheRefresherNotTheCallersLoader() {
+        cache.get("key", this::load);
+        advance(Duration.ofMinutes(2));
+
+        cache.get("key", () -> {
+            throw new AssertionError("the caller's loader must not be re-run");
+        });
+        pendingRefreshes.remove(0).run();
+
+        assertEquals("v2", cache.get("key", this::load));
+    }
+
+    @Test
+    void shouldKeepStaleEntryWhenRefreshFails() {
+        refresher = key -> {
+            throw new IllegalStateException("upstream down");
+        };
+        cache.get("key", this::load);
+        advance(Duration.ofMinutes(2));
+
+        cache.get("key", this::load);
+        pendingRefreshes.remove(0).run();
+
+        assertEquals("v1", cache.get("key", this::load));
+        assertEquals(1, cache.getRefreshFailures());
+    }
+
+    @Test
+    void shouldEvictEntryWhoseKeyNoLongerExists() {
+        refresher = key -> null;
+        cache.get("key", this::load);
+        advance(Duration.ofMinutes(2));
+
+        cache.get("key", this::load);
+        pendingRefreshes.remove(0).run();
+
+        assertNull(cache.get("key"));
+        assertEquals(0, cache.getRefreshFailures());
+    }
+
+    @Test
+    void shouldKeepEntriesUntilHardTtlWithoutRefresher() {
+        cache = cache(null);
+        cache.get("key", this::load);
+        advance(Duration.ofMinutes(2));
+
+        assertEquals("v1", cache.get("key", this::load));
+        assertTrue(pendingRefreshes.isEmpty());
+        assertEquals(0, cache.getStaleServed());
+    }
+
+    @Test
+    void shouldLoadAgainAfterHardTtl() {
+        cache.get("key", this::load);
+        advance(Duration.ofMinutes(11));
+
+        assertEquals("v2", cache.get("key", this::load));
+        assertTrue(pendingRefreshes.isEmpty());
+    }
+
+    private StaleWhileRevalidateCache cache(Function<Object, Object> refresher) {
+        return new StaleWhileRevalidateCache("products", Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(10))
+                .ticker(ticker::get)
+                .<Object, StaleWhileRevalidateCache.Entry>build(),
+                Duration.ofMinutes(1), ticker::get, pendingRefreshes::add, refresher);
+    }
+
+    private String load() {
+        return "v" + loads.incrementAndGet();
+    }
+
+    private void advance(Duration duration) {
+        ticker.addAndGet(duration.toNanos());
+    }
+}
@@ -0,0 +1,207 @@
+package hr.abysalto.hiring.mid.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hr.abysalto.hiring.mid.components.DatabaseInitializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"security.basic-auth.enabled=true", "rate-limit.enabled=false"})
+@AutoConfigureMockMvc
+class AuthenticatedRequestQueryTest {
+
+    private static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DatabaseInitializer databaseInitializer;
+
+    private String username;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        databaseInitializer.initialize();
+
+        username = "user" + UUID.randomUUID().toString().substring(0, 8);
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"username":"%s","password":"secret123","email":"%s@example.com","firstName":"Ana"}
+                                """.formatted(username, username)))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void bearerRequestShouldNotQueryUsers() throws Exception {
+        String token = login();
+
+        List<String> statements = perform(get("/api/users/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+
+        assertEquals(List.of(), statements);
+    }
+
+    @Test
+    void bearerRequestShouldOnlyRunItsOwnQuery() throws Exception {
+        String token = login();
+
+        List<String> statements = perform(get("/api/favorites").header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+
+        assertEquals(1, statements.size(), statements::toString);
+        assertTrue(statements.get(0).contains("FAVORITES"));
+    }
+
+    @Test
+    void cartSummaryShouldNotLoadCartItems() throws Exception {
+        String token = login();
+
+        List<String> statements = perform(get("/api/cart/summary").header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+
+        assertEquals(1, statements.size(), statements::toString);
+        assertTrue(statements.get(0).contains("CART_SUMMARY"));
+        assertFalse(statements.get(0).contains("CART_ITEMS"));
+    }
+
+    @Test
+    void basicRequestShouldLoadUserOnlyDuringAuthentication() throws Exception {
+        List<String> statements = perform(get("/api/users/me").with(httpBasic(username, "secret123")));
+
+        assertEquals(1, statements.size(), statements::toString);
+        assertTrue(statements.get(0).contains("USERS"));
+    }
+
+    @Test
+    void basicRequestShouldQueryUsersOnce() throws Exception {
+        List<String> statements = perform(get("/api/favorites").with(httpBasic(username, "secret123")));
+
+        assertEquals(2, statements.size(), statements::toString);
+        assertEquals(1, statements.stream().filter(sql -> sql.contains("USERS")).count());
+    }
+
+    @Test
+    void repeatedBasicRequestShouldNotQueryUsers() throws Exception {
+        perform(get("/api/users/me").with(httpBasic(username, "secret123")));
+
+        List<String> statements = perform(get("/api/users/me").with(httpBasic(username, "secret123")));
+
+        assertEquals(List.of(), statements);
+    }
+
+    @Test
+    void passwordChangeShouldInvalidateCachedCredentials() throws Exception {
+        perform(get("/api/users/me").with(httpBasic(username, "secret123")));
+
+        mockMvc.perform(put("/api/users/me/password")
+                        .with(httpBasic(username, "secret123"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"currentPassword":"secret123","newPassword":"changed456"}
+                                """))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/users/me").with(httpBasic(username, "secret123")))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/users/me").with(httpBasic(username, "changed456")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void basicLoginShouldVerifyCredentialsOnce() throws Exception {
+        List<String> statements = perform(post("/api/auth/login").with(httpBasic(username, "secret123")));
+
+        assertEquals(1, statements.size(), statements::toString);
+        assertTrue(statements.get(0).contains("USERS"));
+    }
+
+    private List<String> perform(RequestBuilder request) throws Exception {
+        STATEMENTS.get().clear();
+        mockMvc.perform(request).andExpect(status().isOk());
+        List<String> statements = List.copyOf(STATEMENTS.get());
+        STATEMENTS.remove();
+        return statements;
+    }
+
+    private String login() throws Exception {
+        String body = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"username":"%s","password":"secret123"}
+                                """.formatted(username)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.user.firstName").value("Ana"))
+                .andReturn().getResponse().getContentAsString();
+
+        return objectMapper.readTree(body).get("token").asText();
+    }
+
+    @TestConfiguration
+    static class StatementRecordingConfig {
+
+        @Bean
+        static BeanPostProcessor statementRecordingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? recording(dataSource) : bean;
+                }
+            };
+        }
+
+        private static DataSource recording(DataSource dataSource) {
+            return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[]{DataSource.class},
+                    (proxy, method, args) -> {
+                        Object result = invoke(dataSource, method, args);
+                        return result instanceof Connection connection ? recording(connection) : result;
+                    });
+        }
+
+        private static Connection recording(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().startsWith("prepare") && args != null && args[0] instanceof String sql) {
+                            STATEMENTS.get().add(sql.toUpperCase(Locale.ROOT));
+                        }
+                        return invoke(connection, method, args);
+                    });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
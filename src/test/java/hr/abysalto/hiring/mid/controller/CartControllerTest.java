@@ -0,0 +1,152 @@
+package hr.abysalto.hiring.mid.controller;
+
+import hr.abysalto.hiring.mid.components.DatabaseInitializer;
+import hr.abysalto.hiring.mid.domain.ProductPrice;
+import hr.abysalto.hiring.mid.security.AuthenticatedUser;
+import hr.abysalto.hiring.mid.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "cart.batch.max-items=5")
+@AutoConfigureMockMvc
+class CartControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DatabaseInitializer databaseInitializer;
+
+    @MockBean
+    private ProductService productService;
+
+    private AuthenticatedUser cartUser;
+
+    @BeforeEach
+    void setUp() {
+        databaseInitializer.initialize();
+
+        String username = "cart" + UUID.randomUUID().toString().substring(0, 8);
+        jdbcTemplate.update("INSERT INTO USERS (USERNAME, PASSWORD, EMAIL) VALUES (?, 'x', ?)",
+                username, username + "@example.com");
+        Long userId = jdbcTemplate.queryForObject("SELECT ID FROM USERS WHERE USERNAME = ?", Long.class, username);
+        cartUser = AuthenticatedUser.builder().id(userId).username(username).enabled(true).build();
+
+        ProductPrice iphone = new ProductPrice(5L, "iPhone 15", 100000L, false);
+        ProductPrice samsung = new ProductPrice(12L, "Samsung S24", 90000L, false);
+        when(productService.getProductPrice(5L)).thenReturn(iphone);
+        when(productService.getProductPrices(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            Map<Long, ProductPrice> found = new LinkedHashMap<>();
+            List.of(iphone, samsung).stream()
+                    .filter(product -> ids.contains(product.productId()))
+                    .forEach(product -> found.put(product.productId(), product));
+            return new ProductService.Lookup<>(found, List.of(), List.of());
+        });
+    }
+
+    @Test
+    void shouldApplyBatchAndReturnUpdatedCart() throws Exception {
+        mockMvc.perform(post("/api/cart")
+                        .with(user(cartUser))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productId\":5,\"quantity\":1}"))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/api/cart/batch")
+                        .with(user(cartUser))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"add":[{"productId":12,"quantity":2},{"productId":12,"quantity":1}],"remove":[5]}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].productId").value(12))
+                .andExpect(jsonPath("$.items[0].quantity").value(3))
+                .andExpect(jsonPath("$.items[0].productPrice").value(900.0))
+                .andExpect(jsonPath("$.items[0].subtotal").value(2700.0))
+                .andExpect(jsonPath("$.totalPrice").value(2700.0));
+
+        mockMvc.perform(post("/api/cart/batch")
+                        .with(user(cartUser))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"add\":[{\"productId\":12,\"quantity\":1},{\"productId\":5,\"quantity\":1}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.totalItems").value(5));
+    }
+
+    @Test
+    void summaryShouldTrackEveryKindOfCartChange() throws Exception {
+        mockMvc.perform(post("/api/cart")
+                        .with(user(cartUser))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productId\":5,\"quantity\":2}"))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/api/cart/batch")
+                        .with(user(cartUser))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"add\":[{\"productId\":12,\"quantity\":1}]}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/cart/summary").with(user(cartUser)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itemCount").value(2))
+                .andExpect(jsonPath("$.totalItems").value(3))
+                .andExpect(jsonPath("$.totalPrice").value(2900.0))
+                .andExpect(jsonPath("$.version").value(2));
+
+        mockMvc.perform(delete("/api/cart/5").with(user(cartUser)))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/cart/summary").with(user(cartUser)))
+                .andExpect(jsonPath("$.itemCount").value(1))
+                .andExpect(jsonPath("$.totalItems").value(1))
+                .andExpect(jsonPath("$.totalPrice").value(900.0));
+
+        mockMvc.perform(delete("/api/cart").with(user(cartUser)))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/cart/summary").with(user(cartUser)))
+                .andExpect(jsonPath("$.itemCount").value(0))
+                .andExpect(jsonPath("$.totalPrice").value(0.0))
+                .andExpect(jsonPath("$.version").value(4));
+    }
+
+    @Test
+    void shouldRejectOversizedBatch() throws Exception {
+        String removals = IntStream.rangeClosed(1, 6).mapToObj(String::valueOf).collect(Collectors.joining(","));
+
+        mockMvc.perform(post("/api/cart/batch")
+                        .with(user(cartUser))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"remove\":[" + removals + "]}"))
+                .andExpect(status().isBadRequest());
+    }
+}
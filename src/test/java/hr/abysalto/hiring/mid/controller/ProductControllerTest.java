@@ -1,8 +1,9 @@
 package hr.abysalto.hiring.mid.controller;
 
-import hr.abysalto.hiring.mid.domain.User;
+import hr.abysalto.hiring.mid.dto.response.ProductBatchResponse;
 import hr.abysalto.hiring.mid.dto.response.ProductListResponse;
 import hr.abysalto.hiring.mid.dto.response.ProductResponse;
+import hr.abysalto.hiring.mid.security.AuthenticatedUser;
 import hr.abysalto.hiring.mid.service.ProductService;
 import hr.abysalto.hiring.mid.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,16 +12,23 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Optional;
+import java.util.List;
 
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -39,13 +47,13 @@ class ProductControllerTest {
     @MockBean
     private UserService userService;
 
-    private User testUser;
+    private AuthenticatedUser testUser;
     private ProductResponse product1;
     private ProductResponse product2;
 
     @BeforeEach
     void setUp() {
-        testUser = User.builder()
+        testUser = AuthenticatedUser.builder()
                 .id(1L)
                 .username("testuser")
                 .password("$2a$10$hashedPassword")
@@ -79,7 +87,6 @@ class ProductControllerTest {
     }
 
     @Test
-    @WithMockUser(username = "testuser")
     void shouldGetAllProducts() throws Exception {
         // Given
         ProductListResponse response = ProductListResponse.builder()
@@ -89,12 +96,11 @@ class ProductControllerTest {
                 .limit(10)
                 .build();
 
-        when(userService.findByUsername("testuser")).thenReturn(Optional.of(testUser));
-
         when(productService.getAllProducts(10, 0, null, "asc", 1L)).thenReturn(response);
 
 
         mockMvc.perform(get("/api/products")
+                        .with(user(testUser))
                         .param("limit", "10")
                         .param("skip", "0"))
                 .andExpect(status().isOk())
@@ -105,18 +111,46 @@ class ProductControllerTest {
     }
 
     @Test
-    @WithMockUser(username = "testuser")
     void shouldGetProductById() throws Exception {
-        when(userService.findByUsername("testuser")).thenReturn(Optional.of(testUser));
         when(productService.getProductById(1L, 1L)).thenReturn(product1);
 
-        mockMvc.perform(get("/api/products/1"))
+        mockMvc.perform(get("/api/products/1").with(user(testUser)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(1));
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void shouldGetProductsInBatch() throws Exception {
+        ProductBatchResponse response = ProductBatchResponse.builder()
+                .products(Arrays.asList(product2, product1))
+                .missingIds(List.of(404L))
+                .unavailableIds(List.of())
+                .build();
+
+        when(productService.getProductsByIds(List.of(2L, 404L, 1L), 1L)).thenReturn(response);
+
+        mockMvc.perform(get("/api/products/batch")
+                        .with(user(testUser))
+                        .param("ids", "2,404,1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products[0].id").value(2))
+                .andExpect(jsonPath("$.products[1].id").value(1))
+                .andExpect(jsonPath("$.missingIds[0]").value(404));
+    }
+
+    @Test
+    void shouldRejectOversizedBatch() throws Exception {
+        String ids = String.join(",", Collections.nCopies(101, "1"));
+
+        mockMvc.perform(get("/api/products/batch")
+                        .with(user(testUser))
+                        .param("ids", ids))
+                .andExpect(status().isBadRequest());
+        verify(productService, never()).getProductsByIds(any(), any());
     }
 
     @Test
-    @WithMockUser(username = "testuser")
     void shouldSearchProducts() throws Exception {
         ProductListResponse response = ProductListResponse.builder()
                 .products(Arrays.asList(product1, product2))
@@ -125,15 +159,36 @@ class ProductControllerTest {
                 .limit(2)
                 .build();
 
-        when(userService.findByUsername("testuser")).thenReturn(Optional.of(testUser));
         when(productService.searchProducts("phone", 1L)).thenReturn(response);
 
         mockMvc.perform(get("/api/products/search")
+                        .with(user(testUser))
                         .param("q", "phone"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.products", hasSize(2)));
     }
 
+    @Test
+    void shouldRateLimitSearchPerUser() throws Exception {
+        AuthenticatedUser heavyUser = AuthenticatedUser.builder().id(99L).username("heavy").enabled(true).build();
+        when(productService.searchProducts("phone", 99L)).thenReturn(ProductListResponse.builder().products(List.of()).build());
+
+        int status = 0;
+        MockHttpServletResponse response = null;
+        for (int i = 0; i < 200 && status != 429; i++) {
+            response = mockMvc.perform(get("/api/products/search")
+                            .with(user(heavyUser))
+                            .param("q", "phone"))
+                    .andReturn().getResponse();
+            status = response.getStatus();
+        }
+
+        assertEquals(429, status);
+        assertNotNull(response.getHeader("Retry-After"));
+        mockMvc.perform(get("/api/products/search").with(user(testUser)).param("q", "phone"))
+                .andExpect(status().isOk());
+    }
+
     @Test
     void shouldReturn401WhenNotAuthenticated() throws Exception {
         mockMvc.perform(get("/api/products"))
@@ -141,7 +196,6 @@ class ProductControllerTest {
     }
 
     @Test
-    @WithMockUser(username = "testuser")
     void shouldUseDefaultPaginationParameters() throws Exception {
         ProductListResponse response = ProductListResponse.builder()
                 .products(Collections.singletonList(product1))
@@ -150,17 +204,15 @@ class ProductControllerTest {
                 .limit(10)
                 .build();
 
-        when(userService.findByUsername("testuser")).thenReturn(Optional.of(testUser));
         when(productService.getAllProducts(10, 0, null, "asc", 1L)).thenReturn(response);
 
-        mockMvc.perform(get("/api/products"))
+        mockMvc.perform(get("/api/products").with(user(testUser)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.skip").value(0))
                 .andExpect(jsonPath("$.limit").value(10));
     }
 
     @Test
-    @WithMockUser(username = "testuser")
     void shouldHandleCustomSortingParameters() throws Exception {
         // Given
         ProductListResponse response = ProductListResponse.builder()
@@ -170,11 +222,11 @@ class ProductControllerTest {
                 .limit(10)
                 .build();
 
-        when(userService.findByUsername("testuser")).thenReturn(Optional.of(testUser));
         when(productService.getAllProducts(10, 0, "price", "desc", 1L)).thenReturn(response);
 
         // When & Then
         mockMvc.perform(get("/api/products")
+                        .with(user(testUser))
                         .param("sortBy", "price")
                         .param("order", "desc"))
                 .andExpect(status().isOk())
@@ -0,0 +1,65 @@
+package hr.abysalto.hiring.mid.security;
+
+import hr.abysalto.hiring.mid.components.DatabaseInitializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "security.basic-auth.enabled=true",
+        "rate-limit.groups.me.paths=/api/users/me",
+        "rate-limit.groups.me.capacity=1",
+        "rate-limit.groups.me.refill-period=1h",
+        "rate-limit.groups.me.key=user"
+})
+@AutoConfigureMockMvc
+class BasicAuthRateLimitTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DatabaseInitializer databaseInitializer;
+
+    @BeforeEach
+    void setUp() {
+        databaseInitializer.initialize();
+    }
+
+    @Test
+    void basicClientsShouldGetTheirOwnBuckets() throws Exception {
+        String first = register();
+        String second = register();
+
+        mockMvc.perform(get("/api/users/me").with(httpBasic(first, "secret123")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/users/me").with(httpBasic(first, "secret123")))
+                .andExpect(status().isTooManyRequests());
+
+        // same client address, different user
+        mockMvc.perform(get("/api/users/me").with(httpBasic(second, "secret123")))
+                .andExpect(status().isOk());
+    }
+
+    private String register() throws Exception {
+        String username = "user" + UUID.randomUUID().toString().substring(0, 8);
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"username":"%s","password":"secret123","email":"%s@example.com","firstName":"Ana"}
+                                """.formatted(username, username)))
+                .andExpect(status().isCreated());
+        return username;
+    }
+}
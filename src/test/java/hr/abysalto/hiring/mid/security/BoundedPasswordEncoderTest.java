@@ -0,0 +1,123 @@
+package hr.abysalto.hiring.mid.security;
+
+import hr.abysalto.hiring.mid.configuration.PasswordSettings;
+import hr.abysalto.hiring.mid.domain.User;
+import hr.abysalto.hiring.mid.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        encoder.shutdown();
+    }
+
+    @Test
+    void shouldHashOnDedicatedPoolAndRecordLatency() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 4, hashing(2, 4), meterRegistry);
+
+        String hash = encoder.encode("secret123");
+
+        assertTrue(hash.startsWith("$2a$04$"));
+        assertTrue(encoder.matches("secret123", hash));
+        assertFalse(encoder.matches("wrong", hash));
+        assertEquals(1, meterRegistry.get("security.password.hashing").tag("operation", "encode").timer().count());
+        assertEquals(2, meterRegistry.get("security.password.hashing").tag("operation", "matches").timer().count());
+        assertNotNull(meterRegistry.find("executor.queued").tag("name", "password.hashing").gauge());
+    }
+
+    @Test
+    void shouldRejectImmediatelyWhenSaturated() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        PasswordEncoder blocking = new BCryptPasswordEncoder(4) {
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+        };
+        encoder = new BoundedPasswordEncoder(blocking, 4, hashing(1, 1), meterRegistry);
+
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> encoder.matches("a", "hash"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> encoder.matches("b", "hash"));
+        while (meterRegistry.get("executor.queued").tag("name", "password.hashing").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        PasswordHashingRejectedException rejected = assertThrows(PasswordHashingRejectedException.class,
+                () -> encoder.matches("c", "hash"));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getStatusCode());
+        assertEquals(1.0, meterRegistry.get("security.password.hashing.rejected").counter().count());
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void shouldRequestRehashForAnyDifferentCost() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(10), 10, hashing(1, 1), meterRegistry);
+
+        assertTrue(encoder.upgradeEncoding("$2a$04$abcdefghijklmnopqrstuu"));
+        assertTrue(encoder.upgradeEncoding("$2a$12$abcdefghijklmnopqrstuu"));
+        assertFalse(encoder.upgradeEncoding("$2a$10$abcdefghijklmnopqrstuu"));
+        assertFalse(encoder.upgradeEncoding("plaintext"));
+        assertFalse(encoder.upgradeEncoding(null));
+    }
+
+    @Test
+    void shouldRehashOnSuccessfulLoginWhenCostDiffers() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(5), 5, hashing(1, 4), meterRegistry);
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(User.builder()
+                .id(1L)
+                .username("testuser")
+                .password(new BCryptPasswordEncoder(4).encode("secret123"))
+                .enabled(true)
+                .build()));
+        CustomUserDetailsService userDetailsService = new CustomUserDetailsService(userRepository);
+
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(encoder);
+        provider.setUserDetailsService(userDetailsService);
+        provider.setUserDetailsPasswordService(userDetailsService);
+
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("testuser", "secret123"));
+
+        verify(userRepository).updatePassword(eq("testuser"), startsWith("$2a$05$"));
+    }
+
+    private PasswordSettings.Hashing hashing(int threads, int queueCapacity) {
+        PasswordSettings.Hashing hashing = new PasswordSettings.Hashing();
+        hashing.setThreads(threads);
+        hashing.setQueueCapacity(queueCapacity);
+        return hashing;
+    }
+}
@@ -0,0 +1,75 @@
+package hr.abysalto.hiring.mid.security;
+
+import hr.abysalto.hiring.mid.configuration.BasicAuthSettings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CachingAuthenticationProviderTest {
+
+    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+
+    private UserDetailsService userDetailsService;
+    private VerifiedCredentialCache credentialCache;
+    private CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        userDetailsService = mock(UserDetailsService.class);
+        when(userDetailsService.loadUserByUsername("testuser")).thenAnswer(invocation -> AuthenticatedUser.builder()
+                .id(1L)
+                .username("testuser")
+                .password(passwordEncoder.encode("secret123"))
+                .enabled(true)
+                .build());
+
+        DaoAuthenticationProvider delegate = new DaoAuthenticationProvider(passwordEncoder);
+        delegate.setUserDetailsService(userDetailsService);
+
+        credentialCache = new VerifiedCredentialCache(new BasicAuthSettings(), new SimpleMeterRegistry());
+        provider = new CachingAuthenticationProvider(delegate, credentialCache);
+    }
+
+    @Test
+    void shouldSkipLookupAndBCryptOnRepeatAuthentication() {
+        Authentication first = provider.authenticate(credentials("testuser", "secret123"));
+        Authentication second = provider.authenticate(credentials("testuser", "secret123"));
+
+        assertTrue(second.isAuthenticated());
+        assertEquals(1L, ((AuthenticatedUser) second.getPrincipal()).getId());
+        assertEquals(first.getName(), second.getName());
+        verify(userDetailsService, times(1)).loadUserByUsername("testuser");
+    }
+
+    @Test
+    void shouldAlwaysVerifyWrongPasswordAgainstStoredHash() {
+        provider.authenticate(credentials("testuser", "secret123"));
+
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(credentials("testuser", "wrong")));
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(credentials("testuser", "wrong")));
+        verify(userDetailsService, times(3)).loadUserByUsername("testuser");
+    }
+
+    @Test
+    void shouldVerifyAgainAfterInvalidation() {
+        provider.authenticate(credentials("testuser", "secret123"));
+
+        credentialCache.invalidate("testuser");
+        provider.authenticate(credentials("testuser", "secret123"));
+
+        verify(userDetailsService, times(2)).loadUserByUsername("testuser");
+    }
+
+    private UsernamePasswordAuthenticationToken credentials(String username, String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(username, password);
+    }
+}
@@ -0,0 +1,105 @@
+package hr.abysalto.hiring.mid.security;
+
+import hr.abysalto.hiring.mid.components.RateLimiter;
+import hr.abysalto.hiring.mid.configuration.RateLimitSettings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RateLimitFilterTest {
+
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitSettings settings = new RateLimitSettings();
+        settings.getGroups().put("auth", group(List.of("/api/auth/login"), 2, Duration.ofSeconds(6), RateLimitSettings.Key.IP));
+        settings.getGroups().put("upstream", group(List.of("/api/products/search"), 1, Duration.ofSeconds(1), RateLimitSettings.Key.USER));
+        filter = new RateLimitFilter(new RateLimiter(settings, new SimpleMeterRegistry()), settings);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldAnswerTooManyRequestsWithRetryAfter() throws Exception {
+        assertEquals(200, perform("/api/auth/login", "10.0.0.1").getStatus());
+        assertEquals(200, perform("/api/auth/login", "10.0.0.1").getStatus());
+
+        MockHttpServletResponse rejected = perform("/api/auth/login", "10.0.0.1");
+
+        assertEquals(429, rejected.getStatus());
+        assertEquals("6", rejected.getHeader("Retry-After"));
+        assertEquals(200, perform("/api/auth/login", "10.0.0.2").getStatus());
+    }
+
+    @Test
+    void shouldNotLimitUnmatchedPaths() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(200, perform("/api/cart", "10.0.0.1").getStatus());
+        }
+    }
+
+    @Test
+    void shouldKeyUserGroupsOnAuthenticatedUser() throws Exception {
+        authenticate(1L);
+        assertEquals(200, perform("/api/products/search", "10.0.0.1").getStatus());
+        assertEquals(429, perform("/api/products/search", "10.0.0.1").getStatus());
+
+        authenticate(2L);
+        assertEquals(200, perform("/api/products/search", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void shouldNotCallChainWhenRejected() throws Exception {
+        perform("/api/auth/login", "10.0.0.3");
+        perform("/api/auth/login", "10.0.0.3");
+        FilterChain chain = mock(FilterChain.class);
+
+        filter.doFilter(request("/api/auth/login", "10.0.0.3"), new MockHttpServletResponse(), chain);
+
+        verifyNoInteractions(chain);
+    }
+
+    private MockHttpServletResponse perform(String path, String remoteAddr) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(path, remoteAddr), response, (req, res) -> {
+        });
+        return response;
+    }
+
+    private MockHttpServletRequest request(String path, String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setServletPath(path);
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+
+    private void authenticate(Long userId) {
+        AuthenticatedUser user = AuthenticatedUser.builder().id(userId).username("user" + userId).enabled(true).build();
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(user, null, List.of()));
+    }
+
+    private RateLimitSettings.Group group(List<String> paths, int capacity, Duration refillPeriod, RateLimitSettings.Key key) {
+        RateLimitSettings.Group group = new RateLimitSettings.Group();
+        group.setPaths(paths);
+        group.setCapacity(capacity);
+        group.setRefillPeriod(refillPeriod);
+        group.setKey(key);
+        return group;
+    }
+}
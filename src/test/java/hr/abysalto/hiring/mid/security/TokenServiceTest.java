@@ -0,0 +1,198 @@
+package hr.abysalto.hiring.mid.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hr.abysalto.hiring.mid.configuration.TokenSettings;
+import hr.abysalto.hiring.mid.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenServiceTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 5, 1, 12, 30, 15);
+
+    private final Map<Long, Integer> tokenVersions = new HashMap<>(Map.of(42L, 0, 7L, 0));
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final Instant now = Instant.now();
+
+    private TokenRevocationList revocationList;
+    private TokenSettings settings;
+    private TokenService tokenService;
+
+    @BeforeEach
+    void setUp() {
+        when(userRepository.findTokenVersionById(anyLong()))
+                .thenAnswer(invocation -> Optional.ofNullable(tokenVersions.get(invocation.<Long>getArgument(0))));
+        when(userRepository.incrementTokenVersion(anyLong()))
+                .thenAnswer(invocation -> tokenVersions.computeIfPresent(invocation.getArgument(0), (id, version) -> version + 1) != null ? 1 : 0);
+        settings = new TokenSettings();
+        settings.setSecret(SECRET);
+        settings.setTimeToLive(Duration.ofMinutes(30));
+        revocationList = new TokenRevocationList(settings, userRepository);
+        tokenService = serviceAt(now);
+    }
+
+    @Test
+    void shouldRoundTripUserIdAndProfile() {
+        TokenService.IssuedToken issued = tokenService.issue(user(42L, "testuser"));
+
+        TokenClaims claims = tokenService.verify(issued.token()).orElseThrow();
+
+        assertEquals(42L, claims.userId());
+        assertEquals("testuser", claims.username());
+        assertEquals("testuser@example.com", claims.user().getEmail());
+        assertEquals("Test", claims.user().getFirstName());
+        assertEquals(CREATED_AT, claims.user().getCreatedAt());
+        assertNull(claims.user().getLastName());
+        assertNull(claims.user().getPassword());
+        assertEquals(now.plus(Duration.ofMinutes(30)).getEpochSecond(), claims.expiresAt().getEpochSecond());
+        assertEquals(3, issued.token().split("\\.").length);
+    }
+
+    @Test
+    void shouldRejectTamperedPayload() {
+        String token = tokenService.issue(user(42L, "testuser")).token();
+        String[] parts = token.split("\\.");
+        String forgedPayload = java.util.Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("{\"sub\":\"admin\",\"uid\":1,\"iat\":0,\"exp\":99999999999,\"jti\":\"x\"}".getBytes());
+
+        assertTrue(tokenService.verify(parts[0] + "." + forgedPayload + "." + parts[2]).isEmpty());
+        assertTrue(tokenService.verify("garbage").isEmpty());
+    }
+
+    @Test
+    void shouldRejectTokenSignedWithAnotherKey() {
+        TokenSettings otherSettings = new TokenSettings();
+        otherSettings.setSecret("another-secret-that-is-32-bytes!");
+        TokenService other = new TokenService(otherSettings, revocationList, new ObjectMapper(), Clock.fixed(now, ZoneOffset.UTC));
+
+        assertTrue(tokenService.verify(other.issue(user(42L, "testuser")).token()).isEmpty());
+    }
+
+    @Test
+    void shouldRejectExpiredToken() {
+        String token = tokenService.issue(user(42L, "testuser")).token();
+
+        assertTrue(serviceAt(now.plus(Duration.ofMinutes(31))).verify(token).isEmpty());
+    }
+
+    @Test
+    void shouldRejectRevokedToken() {
+        String token = tokenService.issue(user(42L, "testuser")).token();
+        String other = tokenService.issue(user(42L, "testuser")).token();
+
+        tokenService.revoke(tokenService.verify(token).orElseThrow());
+
+        assertTrue(tokenService.verify(token).isEmpty());
+        assertTrue(tokenService.verify(other).isPresent());
+    }
+
+    @Test
+    void shouldRejectAllTokensIssuedBeforeUserWideRevocation() {
+        TokenService earlier = serviceAt(now.minusSeconds(5));
+        String token = earlier.issue(user(42L, "testuser")).token();
+        String otherUser = earlier.issue(user(7L, "someone")).token();
+
+        tokenService.revokeAllForUser(42L);
+
+        assertTrue(tokenService.verify(token).isEmpty());
+        assertTrue(tokenService.verify(otherUser).isPresent());
+    }
+
+    @Test
+    void userWideRevocationShouldCoverTokensIssuedInTheSameSecond() {
+        String before = tokenService.issue(user(42L, "testuser")).token();
+
+        tokenService.revokeAllForUser(42L);
+        String after = tokenService.issue(user(42L, "testuser").toBuilder().tokenVersion(1).build()).token();
+
+        assertTrue(tokenService.verify(before).isEmpty());
+        assertTrue(tokenService.verify(after).isPresent());
+    }
+
+    @Test
+    void loginThatReadTheUserBeforeARevocationShouldNotRestoreTheOldVersion() {
+        tokenService.revokeAllForUser(42L);
+
+        String stale = tokenService.issue(user(42L, "testuser")).token();
+
+        assertTrue(tokenService.verify(stale).isEmpty());
+        assertTrue(tokenService.verify(tokenService.issue(user(42L, "testuser").toBuilder().tokenVersion(1).build()).token()).isPresent());
+    }
+
+    @Test
+    void userWideRevocationShouldSurviveARestart() {
+        String token = tokenService.issue(user(42L, "testuser")).token();
+        tokenService.revokeAllForUser(42L);
+
+        TokenService restarted = new TokenService(settings, new TokenRevocationList(settings, userRepository),
+                new ObjectMapper(), Clock.fixed(now, ZoneOffset.UTC));
+
+        assertTrue(restarted.verify(token).isEmpty());
+    }
+
+    @Test
+    void versionChangedDirectlyInTheDatabaseShouldApplyAfterTheRefreshInterval() {
+        AtomicLong nanos = new AtomicLong();
+        revocationList = new TokenRevocationList(settings, userRepository, nanos::get, Runnable::run);
+        tokenService = serviceAt(now);
+        String token = tokenService.issue(user(42L, "testuser")).token();
+
+        tokenVersions.put(42L, 5);
+        assertTrue(tokenService.verify(token).isPresent());
+
+        nanos.addAndGet(Duration.ofMinutes(2).toNanos());
+        // the read that finds the version due for a refresh still gets the cached one
+        tokenService.verify(token);
+
+        assertTrue(tokenService.verify(token).isEmpty());
+    }
+
+    @Test
+    void shouldRejectTokensOfDeletedUsers() {
+        String token = tokenService.issue(user(42L, "testuser")).token();
+
+        tokenVersions.remove(42L);
+
+        assertTrue(new TokenService(settings, new TokenRevocationList(settings, userRepository), new ObjectMapper(),
+                Clock.fixed(now, ZoneOffset.UTC)).verify(token).isEmpty());
+    }
+
+    @Test
+    void shouldRefuseShortSecret() {
+        settings.setSecret("too-short");
+
+        assertThrows(IllegalStateException.class, () -> serviceAt(now));
+    }
+
+    private TokenService serviceAt(Instant instant) {
+        return new TokenService(settings, revocationList, new ObjectMapper(), Clock.fixed(instant, ZoneOffset.UTC));
+    }
+
+    private AuthenticatedUser user(Long id, String username) {
+        return AuthenticatedUser.builder()
+                .id(id)
+                .username(username)
+                .password("$2a$10$hashedPassword")
+                .email(username + "@example.com")
+                .firstName("Test")
+                .createdAt(CREATED_AT)
+                .enabled(true)
+                .build();
+    }
+}
@@ -0,0 +1,110 @@
+package hr.abysalto.hiring.mid.security;
+
+import hr.abysalto.hiring.mid.configuration.BasicAuthSettings;
+import hr.abysalto.hiring.mid.service.UserCredentialsChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedCredentialCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private BasicAuthSettings.CredentialCache settings;
+    private VerifiedCredentialCache cache;
+
+    @BeforeEach
+    void setUp() {
+        settings = new BasicAuthSettings.CredentialCache();
+        settings.setMaximumSize(100);
+        settings.setTimeToLive(Duration.ofMinutes(1));
+        cache = new VerifiedCredentialCache(settings, meterRegistry, nanos::get);
+    }
+
+    @Test
+    void shouldReturnCachedPrincipalWithoutPassword() {
+        cache.store(cache.stamp(), "testuser", "secret123", user("testuser"));
+
+        AuthenticatedUser cached = cache.lookup("testuser", "secret123").orElseThrow();
+
+        assertEquals(1L, cached.getId());
+        assertNull(cached.getPassword());
+        assertEquals(1.0, meterRegistry.get("security.credential.cache.requests").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void shouldRejectWrongPasswordForCachedUser() {
+        cache.store(cache.stamp(), "testuser", "secret123", user("testuser"));
+
+        assertTrue(cache.lookup("testuser", "wrong").isEmpty());
+        assertTrue(cache.lookup("otheruser", "secret123").isEmpty());
+        assertEquals(2.0, meterRegistry.get("security.credential.cache.requests").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void shouldExpireAfterTimeToLive() {
+        cache.store(cache.stamp(), "testuser", "secret123", user("testuser"));
+
+        nanos.addAndGet(Duration.ofSeconds(61).toNanos());
+
+        assertTrue(cache.lookup("testuser", "secret123").isEmpty());
+    }
+
+    @Test
+    void shouldInvalidateWhenCredentialsChange() {
+        cache.store(cache.stamp(), "testuser", "secret123", user("testuser"));
+        cache.store(cache.stamp(), "otheruser", "secret123", user("otheruser"));
+
+        cache.onCredentialsChanged(new UserCredentialsChangedEvent(1L, "testuser"));
+
+        assertTrue(cache.lookup("testuser", "secret123").isEmpty());
+        assertTrue(cache.lookup("otheruser", "secret123").isPresent());
+    }
+
+    @Test
+    void shouldNotCacheResultThatRacedWithInvalidation() {
+        long stamp = cache.stamp();
+        cache.invalidate("testuser");
+
+        cache.store(stamp, "testuser", "old-password", user("testuser"));
+
+        assertTrue(cache.lookup("testuser", "old-password").isEmpty());
+    }
+
+    @Test
+    void shouldStayWithinMaximumSize() {
+        settings.setMaximumSize(2);
+        cache = new VerifiedCredentialCache(settings, meterRegistry, nanos::get);
+
+        for (int i = 0; i < 10; i++) {
+            cache.store(cache.stamp(), "user" + i, "secret123", user("user" + i));
+        }
+
+        assertTrue(cache.size() <= 2);
+    }
+
+    @Test
+    void shouldBypassCacheWhenDisabled() {
+        settings.setEnabled(false);
+        cache = new VerifiedCredentialCache(settings, meterRegistry, nanos::get);
+
+        cache.store(cache.stamp(), "testuser", "secret123", user("testuser"));
+
+        assertTrue(cache.lookup("testuser", "secret123").isEmpty());
+    }
+
+    private AuthenticatedUser user(String username) {
+        return AuthenticatedUser.builder()
+                .id(1L)
+                .username(username)
+                .password("$2a$10$hashedPassword")
+                .enabled(true)
+                .build();
+    }
+}
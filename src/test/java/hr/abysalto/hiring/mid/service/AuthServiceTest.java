@@ -1,18 +1,23 @@
 package hr.abysalto.hiring.mid.service;
 
-import hr.abysalto.hiring.mid.domain.User;
 import hr.abysalto.hiring.mid.dto.request.LoginRequest;
 import hr.abysalto.hiring.mid.dto.response.AuthResponse;
 import hr.abysalto.hiring.mid.dto.response.UserResponse;
+import hr.abysalto.hiring.mid.security.AuthenticatedUser;
+import hr.abysalto.hiring.mid.security.TokenService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -23,11 +28,17 @@ class AuthServiceTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private TokenService tokenService;
+
+    @Mock
+    private AuthenticationManager authenticationManager;
+
     @InjectMocks
     private AuthService authService;
 
     private LoginRequest loginRequest;
-    private User user;
+    private AuthenticatedUser principal;
     private UserResponse userResponse;
 
     @BeforeEach
@@ -37,10 +48,9 @@ class AuthServiceTest {
                 .password("password123")
                 .build();
 
-        user = User.builder()
+        principal = AuthenticatedUser.builder()
                 .id(1L)
                 .username("testuser")
-                .password("$2a$10$hashedPassword")
                 .email("test@example.com")
                 .firstName("Test")
                 .lastName("User")
@@ -54,16 +64,17 @@ class AuthServiceTest {
                 .email("test@example.com")
                 .firstName("Test")
                 .lastName("User")
-                .createdAt(user.getCreatedAt())
+                .createdAt(principal.getCreatedAt())
                 .build();
     }
 
     @Test
     void shouldLoginSuccessfully() {
         // Given
-        when(userService.findByUsername("testuser")).thenReturn(Optional.of(user));
-        when(userService.verifyPassword("password123", user.getPassword())).thenReturn(true);
-        when(userService.mapToResponse(user)).thenReturn(userResponse);
+        when(authenticationManager.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("testuser", "password123")))
+                .thenReturn(UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities()));
+        when(userService.mapToResponse(principal)).thenReturn(userResponse);
+        when(tokenService.issue(principal)).thenReturn(new TokenService.IssuedToken("signed.token.value", Instant.now()));
 
         // When
         AuthResponse response = authService.login(loginRequest);
@@ -71,42 +82,36 @@ class AuthServiceTest {
         // Then
         assertNotNull(response);
         assertEquals("Login successful", response.getMessage());
+        assertEquals("signed.token.value", response.getToken());
+        assertEquals("Bearer", response.getTokenType());
         assertNotNull(response.getUser());
         assertEquals("testuser", response.getUser().getUsername());
 
-        verify(userService).findByUsername("testuser");
-        verify(userService).verifyPassword("password123", user.getPassword());
-        verify(userService).mapToResponse(user);
+        // Credentials are verified exactly once, by the authentication manager
+        verify(authenticationManager, times(1)).authenticate(any());
+        verify(userService, never()).findByUsername(any());
+        verify(userService, never()).verifyPassword(any(), any());
     }
 
     @Test
-    void shouldThrowExceptionWhenUserNotFound() {
+    void shouldIssueTokenForAlreadyAuthenticatedUserWithoutVerifyingAgain() {
         // Given
-        String username = "unknown";
-        // Ensure the stub uses the same username the loginRequest will use
-        when(userService.findByUsername(username)).thenReturn(Optional.empty());
+        when(userService.mapToResponse(principal)).thenReturn(userResponse);
+        when(tokenService.issue(principal)).thenReturn(new TokenService.IssuedToken("signed.token.value", Instant.now()));
 
-        // Assuming loginRequest.getUsername() returns "unknown"
-        loginRequest.setUsername(username);
-
-        // When & Then
-        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-            authService.login(loginRequest);
-        });
-
-        assertEquals("Invalid username or password", exception.getMessage());
+        // When
+        AuthResponse response = authService.login(principal);
 
-        // Verify using the SAME username defined in Given
-        verify(userService).findByUsername(username);
-        // Ensure we stopped early and never tried to verify a password
-        verify(userService, never()).verifyPassword(anyString(), anyString());
+        // Then
+        assertEquals("signed.token.value", response.getToken());
+        assertEquals(userResponse, response.getUser());
+        verifyNoInteractions(authenticationManager);
     }
 
     @Test
-    void shouldThrowExceptionWhenPasswordIsIncorrect() {
+    void shouldThrowExceptionWhenCredentialsAreInvalid() {
         // Given
-        when(userService.findByUsername("testuser")).thenReturn(Optional.of(user));
-        when(userService.verifyPassword("password123", user.getPassword())).thenReturn(false);
+        when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("Bad credentials"));
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -114,17 +119,14 @@ class AuthServiceTest {
         });
 
         assertEquals("Invalid username or password", exception.getMessage());
-        verify(userService).findByUsername("testuser");
-        verify(userService).verifyPassword("password123", user.getPassword());
-        verify(userService, never()).mapToResponse(any());
+        verify(tokenService, never()).issue(any());
+        verify(userService, never()).mapToResponse(any(AuthenticatedUser.class));
     }
 
     @Test
     void shouldThrowExceptionWhenUserIsDisabled() {
         // Given
-        user.setEnabled(false);
-        when(userService.findByUsername("testuser")).thenReturn(Optional.of(user));
-        when(userService.verifyPassword("password123", user.getPassword())).thenReturn(true);
+        when(authenticationManager.authenticate(any())).thenThrow(new DisabledException("User is disabled"));
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -132,8 +134,6 @@ class AuthServiceTest {
         });
 
         assertEquals("User account is disabled", exception.getMessage());
-        verify(userService).findByUsername("testuser");
-        verify(userService).verifyPassword("password123", user.getPassword());
-        verify(userService, never()).mapToResponse(any());
+        verify(tokenService, never()).issue(any());
     }
-}
\ No newline at end of file
+}
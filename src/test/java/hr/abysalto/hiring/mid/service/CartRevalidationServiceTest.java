@@ -0,0 +1,179 @@
+package hr.abysalto.hiring.mid.service;
+
+import hr.abysalto.hiring.mid.components.DatabaseInitializer;
+import hr.abysalto.hiring.mid.components.WriteBehindCartStore;
+import hr.abysalto.hiring.mid.domain.Money;
+import hr.abysalto.hiring.mid.domain.ProductPrice;
+import hr.abysalto.hiring.mid.repository.CartItemRepository;
+import hr.abysalto.hiring.mid.repository.CartSummaryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+class CartRevalidationServiceTest {
+
+    private static final long PHONE = 9001L;
+    private static final long LAPTOP = 9002L;
+    private static final long WATCH = 9003L;
+    private static final long DISCONTINUED = 9004L;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private CartSummaryRepository cartSummaryRepository;
+
+    @Autowired
+    private WriteBehindCartStore writeBehindCartStore;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DatabaseInitializer databaseInitializer;
+
+    private final ProductService productService = mock(ProductService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Map<Long, ProductPrice> catalog = new HashMap<>();
+
+    private CartRevalidationService cartRevalidationService;
+    private Long alice;
+    private Long bob;
+
+    @BeforeEach
+    void setUp() {
+        databaseInitializer.initialize();
+        jdbcTemplate.update("DELETE FROM CART_ITEMS WHERE PRODUCT_ID BETWEEN 9000 AND 9999");
+
+        alice = createUser();
+        bob = createUser();
+        addLine(alice, PHONE, "Phone", 50000, 1);
+        addLine(alice, LAPTOP, "Laptop", 150000, 2);
+        addLine(bob, PHONE, "Phone", 50000, 3);
+        addLine(bob, WATCH, "Watch", 20000, 1);
+        addLine(bob, DISCONTINUED, "Old phone", 10000, 1);
+        cartSummaryRepository.recompute(alice);
+        cartSummaryRepository.recompute(bob);
+
+        catalog.put(PHONE, product(PHONE, "Phone", 450.00, 10));
+        catalog.put(LAPTOP, product(LAPTOP, "Laptop Pro", 1500.00, 5));
+        catalog.put(WATCH, product(WATCH, "Watch", 200.00, 0));
+        when(productService.getCurrentProductPrices(anyCollection())).thenAnswer(invocation -> {
+            Map<Long, ProductPrice> products = new LinkedHashMap<>();
+            List<Long> missingIds = new ArrayList<>();
+            List<Long> unavailableIds = new ArrayList<>();
+            for (Long id : invocation.<Collection<Long>>getArgument(0)) {
+                if (catalog.containsKey(id)) {
+                    products.put(id, catalog.get(id));
+                } else if (id == DISCONTINUED) {
+                    missingIds.add(id);
+                } else {
+                    // lines left behind by other tests
+                    unavailableIds.add(id);
+                }
+            }
+            return new ProductService.Lookup<>(products, missingIds, unavailableIds);
+        });
+
+        cartRevalidationService = new CartRevalidationService(cartItemRepository, cartSummaryRepository,
+                writeBehindCartStore, productService, transactionTemplate, meterRegistry, 2);
+    }
+
+    @Test
+    void shouldRewriteDriftedLinesAndFlagUnavailableOnes() {
+        cartRevalidationService.revalidateAll();
+
+        assertEquals(List.of(
+                Map.of("PRODUCT_ID", PHONE, "PRODUCT_TITLE", "Phone", "PRODUCT_PRICE_CENTS", 45000L, "OUT_OF_STOCK", false),
+                Map.of("PRODUCT_ID", LAPTOP, "PRODUCT_TITLE", "Laptop Pro", "PRODUCT_PRICE_CENTS", 150000L, "OUT_OF_STOCK", false)),
+                lines(alice));
+        assertEquals(List.of(
+                Map.of("PRODUCT_ID", PHONE, "PRODUCT_TITLE", "Phone", "PRODUCT_PRICE_CENTS", 45000L, "OUT_OF_STOCK", false),
+                Map.of("PRODUCT_ID", WATCH, "PRODUCT_TITLE", "Watch", "PRODUCT_PRICE_CENTS", 20000L, "OUT_OF_STOCK", true),
+                Map.of("PRODUCT_ID", DISCONTINUED, "PRODUCT_TITLE", "Old phone", "PRODUCT_PRICE_CENTS", 10000L, "OUT_OF_STOCK", true)),
+                lines(bob));
+
+        assertEquals(45000L + 2 * 150000L, totalPriceCents(alice));
+        assertEquals(3 * 45000L + 20000L + 10000L, totalPriceCents(bob));
+    }
+
+    @Test
+    void shouldLookUpEachProductOncePerPage() {
+        cartRevalidationService.revalidateAll();
+
+        ArgumentCaptor<Collection<Long>> pages = ArgumentCaptor.forClass(Collection.class);
+        verify(productService, atLeast(2)).getCurrentProductPrices(pages.capture());
+        List<Long> requested = new ArrayList<>();
+        pages.getAllValues().forEach(page -> {
+            assertTrue(page.size() <= 2);
+            requested.addAll(page);
+        });
+        assertEquals(requested.size(), Set.copyOf(requested).size());
+        assertTrue(requested.containsAll(List.of(PHONE, LAPTOP, WATCH, DISCONTINUED)));
+    }
+
+    @Test
+    void shouldRecordDriftAndOnlyTouchChangedLines() {
+        cartRevalidationService.revalidateAll();
+
+        assertEquals(2, meterRegistry.get("cart.revalidation.lines").tag("change", "price").counter().count());
+        assertEquals(1, meterRegistry.get("cart.revalidation.lines").tag("change", "title").counter().count());
+        assertEquals(2, meterRegistry.get("cart.revalidation.lines").tag("change", "out_of_stock").counter().count());
+        assertEquals(1, meterRegistry.get("cart.revalidation.products").tag("outcome", "missing").counter().count());
+        assertEquals(2 * 5000.0, meterRegistry.get("cart.revalidation.price.drift").summary().totalAmount());
+        assertEquals(1, meterRegistry.get("cart.revalidation.duration").timer().count());
+
+        CartRevalidationService.Result again = cartRevalidationService.revalidateAll();
+
+        assertEquals(0, again.linesUpdated());
+    }
+
+    private Long createUser() {
+        String username = "cart" + UUID.randomUUID().toString().substring(0, 8);
+        jdbcTemplate.update("INSERT INTO USERS (USERNAME, PASSWORD, EMAIL) VALUES (?, 'x', ?)",
+                username, username + "@example.com");
+        return jdbcTemplate.queryForObject("SELECT ID FROM USERS WHERE USERNAME = ?", Long.class, username);
+    }
+
+    private void addLine(Long userId, long productId, String title, long priceCents, int quantity) {
+        jdbcTemplate.update("INSERT INTO CART_ITEMS (USER_ID, PRODUCT_ID, PRODUCT_TITLE, PRODUCT_PRICE_CENTS, QUANTITY) VALUES (?, ?, ?, ?, ?)",
+                userId, productId, title, priceCents, quantity);
+    }
+
+    private List<Map<String, Object>> lines(Long userId) {
+        return jdbcTemplate.queryForList("""
+                SELECT PRODUCT_ID, PRODUCT_TITLE, PRODUCT_PRICE_CENTS, OUT_OF_STOCK
+                FROM CART_ITEMS WHERE USER_ID = ? ORDER BY PRODUCT_ID
+                """, userId);
+    }
+
+    private long totalPriceCents(Long userId) {
+        return jdbcTemplate.queryForObject("SELECT TOTAL_PRICE_CENTS FROM CART_SUMMARY WHERE USER_ID = ?", Long.class, userId);
+    }
+
+    private static ProductPrice product(long id, String title, double price, int stock) {
+        return new ProductPrice(id, title, Money.toCents(price), stock <= 0);
+    }
+}
@@ -0,0 +1,128 @@
+package hr.abysalto.hiring.mid.service;
+
+import hr.abysalto.hiring.mid.components.DatabaseInitializer;
+import hr.abysalto.hiring.mid.domain.ProductPrice;
+import hr.abysalto.hiring.mid.dto.request.AddToCartRequest;
+import hr.abysalto.hiring.mid.dto.response.CartSummaryResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+class CartServiceConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int ADDS_PER_THREAD = 50;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DatabaseInitializer databaseInitializer;
+
+    @MockBean
+    private ProductService productService;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        databaseInitializer.initialize();
+
+        String username = "cart" + UUID.randomUUID().toString().substring(0, 8);
+        jdbcTemplate.update("INSERT INTO USERS (USERNAME, PASSWORD, EMAIL) VALUES (?, 'x', ?)",
+                username, username + "@example.com");
+        userId = jdbcTemplate.queryForObject("SELECT ID FROM USERS WHERE USERNAME = ?", Long.class, username);
+
+        when(productService.getProductPrice(5L)).thenReturn(new ProductPrice(5L, "iPhone 15", 99999L, false));
+        when(productService.getProductPrice(12L)).thenReturn(new ProductPrice(12L, "Samsung S24", 89999L, false));
+    }
+
+    @Test
+    void concurrentAddsShouldNeitherDuplicateRowsNorLoseQuantity() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                long productId = i % 2 == 0 ? 5L : 12L;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < ADDS_PER_THREAD; j++) {
+                        cartService.addToCart(userId, AddToCartRequest.builder().productId(productId).quantity(1).build());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT PRODUCT_ID, QUANTITY FROM CART_ITEMS WHERE USER_ID = ? ORDER BY PRODUCT_ID", userId);
+        int expected = THREADS / 2 * ADDS_PER_THREAD;
+        assertEquals(2, rows.size(), rows::toString);
+        assertEquals(expected, ((Number) rows.get(0).get("QUANTITY")).intValue());
+        assertEquals(expected, ((Number) rows.get(1).get("QUANTITY")).intValue());
+        assertEquals(expected * 2, cartService.getUserCart(userId).getTotalItems());
+
+        CartSummaryResponse summary = cartService.getCartSummary(userId);
+        assertEquals(2, summary.getItemCount());
+        assertEquals(expected * 2, summary.getTotalItems());
+        assertEquals(expected * (99999L + 89999L), summary.getTotalPriceCents());
+        assertEquals(THREADS * ADDS_PER_THREAD, summary.getVersion());
+    }
+
+    @Test
+    void addedLinesShouldStoreTheStockFlag() {
+        when(productService.getProductPrice(7L)).thenReturn(new ProductPrice(7L, "Sold out", 100L, true));
+
+        assertTrue(cartService.addToCart(userId, AddToCartRequest.builder().productId(7L).quantity(1).build()).isOutOfStock());
+        cartService.addToCart(userId, AddToCartRequest.builder().productId(5L).quantity(1).build());
+
+        assertTrue(outOfStock(7L));
+        assertFalse(outOfStock(5L));
+
+        when(productService.getProductPrice(7L)).thenReturn(new ProductPrice(7L, "Sold out", 100L, false));
+        cartService.addToCart(userId, AddToCartRequest.builder().productId(7L).quantity(1).build());
+
+        assertFalse(outOfStock(7L));
+    }
+
+    @Test
+    void uniqueConstraintShouldRejectDuplicateCartRows() {
+        String insert = "INSERT INTO CART_ITEMS (USER_ID, PRODUCT_ID, PRODUCT_PRICE_CENTS, QUANTITY) VALUES (?, 5, 99999, 1)";
+        jdbcTemplate.update(insert, userId);
+
+        assertThrows(DuplicateKeyException.class, () -> jdbcTemplate.update(insert, userId));
+    }
+
+    private boolean outOfStock(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT OUT_OF_STOCK FROM CART_ITEMS WHERE USER_ID = ? AND PRODUCT_ID = ?",
+                Boolean.class, userId, productId);
+    }
+}
@@ -1,22 +1,30 @@
 package hr.abysalto.hiring.mid.service;
 
+import hr.abysalto.hiring.mid.components.WriteBehindCartStore;
 import hr.abysalto.hiring.mid.domain.CartItem;
+import hr.abysalto.hiring.mid.domain.ProductPrice;
+import hr.abysalto.hiring.mid.domain.CartSummary;
 import hr.abysalto.hiring.mid.dto.request.AddToCartRequest;
+import hr.abysalto.hiring.mid.dto.request.CartBatchRequest;
 import hr.abysalto.hiring.mid.dto.response.CartItemResponse;
 import hr.abysalto.hiring.mid.dto.response.CartResponse;
-import hr.abysalto.hiring.mid.dto.response.ProductResponse;
+import hr.abysalto.hiring.mid.dto.response.CartSummaryResponse;
 import hr.abysalto.hiring.mid.repository.CartItemRepository;
+import hr.abysalto.hiring.mid.repository.CartSummaryRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -28,31 +36,32 @@ class CartServiceTest {
     @Mock
     private CartItemRepository cartItemRepository;
 
+    @Mock
+    private CartSummaryRepository cartSummaryRepository;
+
+    @Mock
+    private WriteBehindCartStore writeBehindCartStore;
+
     @Mock
     private ProductService productService;
 
     @InjectMocks
     private CartService cartService;
 
-    private ProductResponse productResponse;
+    private ProductPrice productPrice;
     private CartItem cartItem;
     private AddToCartRequest addToCartRequest;
 
     @BeforeEach
     void setUp() {
-        productResponse = ProductResponse.builder()
-                .id(5L)
-                .title("iPhone 15")
-                .price(999.99)
-                .stock(50)
-                .build();
+        productPrice = new ProductPrice(5L, "iPhone 15", 99999L, false);
 
         cartItem = CartItem.builder()
                 .id(1L)
                 .userId(1L)
                 .productId(5L)
                 .productTitle("iPhone 15")
-                .productPrice(999.99)
+                .productPriceCents(99999)
                 .quantity(2)
                 .addedAt(LocalDateTime.now())
                 .build();
@@ -66,9 +75,8 @@ class CartServiceTest {
     @Test
     void shouldAddNewProductToCart() {
         // Given
-        when(productService.getProductById(5L, 1L)).thenReturn(productResponse);
-        when(cartItemRepository.findByUserIdAndProductId(1L, 5L)).thenReturn(Optional.empty());
-        when(cartItemRepository.save(any(CartItem.class))).thenReturn(cartItem);
+        when(productService.getProductPrice(5L)).thenReturn(productPrice);
+        when(cartItemRepository.upsert(1L, 5L, "iPhone 15", 99999L, false, 2)).thenReturn(cartItem);
 
         // When
         CartItemResponse response = cartService.addToCart(1L, addToCartRequest);
@@ -77,32 +85,21 @@ class CartServiceTest {
         assertNotNull(response);
         assertEquals(5L, response.getProductId());
         assertEquals("iPhone 15", response.getProductTitle());
-        assertEquals(999.99, response.getProductPrice());
+        assertEquals(99999, response.getProductPriceCents());
         assertEquals(2, response.getQuantity());
-        assertEquals(1999.98, response.getSubtotal());
+        assertEquals(199998, response.getSubtotalCents());
 
-        verify(productService).getProductById(5L, 1L);
-        verify(cartItemRepository).findByUserIdAndProductId(1L, 5L);
-        verify(cartItemRepository).save(any(CartItem.class));
+        verify(productService).getProductPrice(5L);
+        verify(cartItemRepository).upsert(1L, 5L, "iPhone 15", 99999L, false, 2);
+        verify(cartItemRepository, never()).findByUserIdAndProductId(any(), any());
     }
 
     @Test
-    void shouldUpdateQuantityWhenProductAlreadyInCart() {
+    void shouldReturnMergedQuantityWhenProductAlreadyInCart() {
         // Given
-        CartItem existingItem = CartItem.builder()
-                .id(1L)
-                .userId(1L)
-                .productId(5L)
-                .productTitle("iPhone 15")
-                .productPrice(999.99)
-                .quantity(2)
-                .addedAt(LocalDateTime.now())
-                .build();
-
-        when(productService.getProductById(5L, 1L)).thenReturn(productResponse);
-        when(cartItemRepository.findByUserIdAndProductId(1L, 5L))
-                .thenReturn(Optional.of(existingItem));
-        when(cartItemRepository.save(any(CartItem.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        cartItem.setQuantity(5);
+        when(productService.getProductPrice(5L)).thenReturn(productPrice);
+        when(cartItemRepository.upsert(1L, 5L, "iPhone 15", 99999L, false, 3)).thenReturn(cartItem);
 
         AddToCartRequest request = AddToCartRequest.builder()
                 .productId(5L)
@@ -113,34 +110,91 @@ class CartServiceTest {
         CartItemResponse response = cartService.addToCart(1L, request);
 
         // Then
-        assertNotNull(response);
         assertEquals(5, response.getQuantity()); // 2 + 3 = 5
-        assertEquals(4999.95, response.getSubtotal(), 0.01); // 999.99 × 5
+        assertEquals(499995, response.getSubtotalCents()); // 999.99 × 5
+    }
+
+    @Test
+    void shouldRetryUpsertWhenConcurrentAddInsertedFirst() {
+        // Given
+        when(productService.getProductPrice(5L)).thenReturn(productPrice);
+        when(cartItemRepository.upsert(1L, 5L, "iPhone 15", 99999L, false, 2))
+                .thenThrow(new DuplicateKeyException("UK_CART_ITEMS_USER_PRODUCT"))
+                .thenReturn(cartItem);
+
+        // When
+        CartItemResponse response = cartService.addToCart(1L, addToCartRequest);
+
+        // Then
+        assertEquals(2, response.getQuantity());
+        verify(cartItemRepository, times(2)).upsert(1L, 5L, "iPhone 15", 99999L, false, 2);
+    }
 
-        verify(productService).getProductById(5L, 1L);
-        verify(cartItemRepository).findByUserIdAndProductId(1L, 5L);
-        verify(cartItemRepository).save(argThat(item -> item.getQuantity() == 5));
+    @Test
+    void shouldApplyBatchWithOneProductLookupAndBatchedWrites() {
+        // Given
+        ProductPrice samsung = new ProductPrice(12L, "Samsung S24", 89999L, false);
+        when(productService.getProductPrices(Set.of(5L, 12L)))
+                .thenReturn(new ProductService.Lookup<>(Map.of(5L, productPrice, 12L, samsung), List.of(), List.of()));
+        when(cartItemRepository.findByUserId(1L)).thenReturn(List.of(cartItem));
+
+        CartBatchRequest request = CartBatchRequest.builder()
+                .add(List.of(
+                        AddToCartRequest.builder().productId(5L).quantity(1).build(),
+                        AddToCartRequest.builder().productId(12L).quantity(1).build(),
+                        AddToCartRequest.builder().productId(5L).quantity(2).build()))
+                .remove(List.of(7L, 7L))
+                .build();
+
+        // When
+        CartResponse response = cartService.applyBatch(1L, request);
+
+        // Then
+        assertEquals(1, response.getItems().size());
+        verify(cartItemRepository).deleteAllByUserIdAndProductIds(1L, Set.of(7L));
+        verify(cartItemRepository).upsertAll(argThat(items -> items.size() == 2
+                && items.stream().anyMatch(item -> item.getProductId() == 5L && item.getQuantity() == 3
+                        && item.getProductPriceCents() == 99999 && "iPhone 15".equals(item.getProductTitle()))));
+        verify(productService, never()).getProductPrice(any());
+        verify(cartItemRepository, never()).upsert(any(), any(), any(), anyLong(), anyBoolean(), anyInt());
+    }
+
+    @Test
+    void shouldRejectBatchWithUnknownProductBeforeWriting() {
+        // Given
+        when(productService.getProductPrices(Set.of(404L)))
+                .thenReturn(new ProductService.Lookup<>(Map.of(), List.of(404L), List.of()));
+
+        CartBatchRequest request = CartBatchRequest.builder()
+                .add(List.of(AddToCartRequest.builder().productId(404L).quantity(1).build()))
+                .build();
+
+        // When & Then
+        assertThrows(ProductNotFoundException.class, () -> cartService.applyBatch(1L, request));
+        verify(cartItemRepository, never()).upsertAll(any());
+        verify(cartItemRepository, never()).deleteAllByUserIdAndProductIds(any(), any());
     }
 
     @Test
     void shouldRemoveProductFromCart() {
         // Given
-        when(cartItemRepository.findByUserIdAndProductId(1L, 5L))
+        when(cartItemRepository.removeByUserIdAndProductId(1L, 5L))
                 .thenReturn(Optional.of(cartItem));
-        doNothing().when(cartItemRepository).deleteByUserIdAndProductId(1L, 5L);
+        when(cartSummaryRepository.applyDelta(1L, -1, -2, -199998L)).thenReturn(1);
 
         // When
         cartService.removeFromCart(1L, 5L);
 
         // Then
-        verify(cartItemRepository).findByUserIdAndProductId(1L, 5L);
-        verify(cartItemRepository).deleteByUserIdAndProductId(1L, 5L);
+        verify(cartItemRepository).removeByUserIdAndProductId(1L, 5L);
+        verify(cartSummaryRepository).applyDelta(1L, -1, -2, -199998L);
+        verify(cartSummaryRepository, never()).recompute(any());
     }
 
     @Test
     void shouldThrowExceptionWhenRemovingNonExistentCartItem() {
         // Given
-        when(cartItemRepository.findByUserIdAndProductId(1L, 5L))
+        when(cartItemRepository.removeByUserIdAndProductId(1L, 5L))
                 .thenReturn(Optional.empty());
 
         // When & Then
@@ -149,8 +203,103 @@ class CartServiceTest {
         });
 
         assertEquals("Product not in cart", exception.getMessage());
-        verify(cartItemRepository).findByUserIdAndProductId(1L, 5L);
-        verify(cartItemRepository, never()).deleteByUserIdAndProductId(any(), any());
+        verifyNoInteractions(cartSummaryRepository);
+    }
+
+    @Test
+    void shouldCountNewCartLineInSummary() {
+        // Given
+        when(productService.getProductPrice(5L)).thenReturn(productPrice);
+        when(cartItemRepository.upsert(1L, 5L, "iPhone 15", 99999L, false, 2)).thenReturn(cartItem);
+        when(cartSummaryRepository.applyDelta(1L, 1, 2, 199998L)).thenReturn(1);
+
+        // When
+        cartService.addToCart(1L, addToCartRequest);
+
+        // Then
+        verify(cartSummaryRepository).applyDelta(1L, 1, 2, 199998L);
+        verify(cartSummaryRepository, never()).recompute(any());
+    }
+
+    @Test
+    void shouldOnlyAddQuantityToSummaryWhenLineExists() {
+        // Given
+        cartItem.setQuantity(5);
+        when(productService.getProductPrice(5L)).thenReturn(productPrice);
+        when(cartItemRepository.upsert(1L, 5L, "iPhone 15", 99999L, false, 2)).thenReturn(cartItem);
+        when(cartSummaryRepository.applyDelta(1L, 0, 2, 199998L)).thenReturn(1);
+
+        // When
+        cartService.addToCart(1L, addToCartRequest);
+
+        // Then
+        verify(cartSummaryRepository).applyDelta(1L, 0, 2, 199998L);
+    }
+
+    @Test
+    void shouldRebuildSummaryOnFirstCartChange() {
+        // Given
+        when(productService.getProductPrice(5L)).thenReturn(productPrice);
+        when(cartItemRepository.upsert(1L, 5L, "iPhone 15", 99999L, false, 2)).thenReturn(cartItem);
+        when(cartSummaryRepository.applyDelta(1L, 1, 2, 199998L)).thenReturn(0);
+
+        // When
+        cartService.addToCart(1L, addToCartRequest);
+
+        // Then
+        verify(cartSummaryRepository).recompute(1L);
+    }
+
+    @Test
+    void shouldApplyDeltaWhenConcurrentFirstChangeCreatedSummary() {
+        // Given
+        when(productService.getProductPrice(5L)).thenReturn(productPrice);
+        when(cartItemRepository.upsert(1L, 5L, "iPhone 15", 99999L, false, 2)).thenReturn(cartItem);
+        when(cartSummaryRepository.applyDelta(1L, 1, 2, 199998L)).thenReturn(0, 1);
+        doThrow(new DuplicateKeyException("CART_SUMMARY")).when(cartSummaryRepository).recompute(1L);
+
+        // When
+        cartService.addToCart(1L, addToCartRequest);
+
+        // Then
+        verify(cartSummaryRepository, times(2)).applyDelta(1L, 1, 2, 199998L);
+    }
+
+    @Test
+    void shouldRejectNonPositiveQuantity() {
+        AddToCartRequest request = AddToCartRequest.builder().productId(5L).quantity(0).build();
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> cartService.addToCart(1L, request));
+
+        assertEquals("Quantity must be positive", exception.getMessage());
+        verifyNoInteractions(cartItemRepository, cartSummaryRepository);
+    }
+
+    @Test
+    void shouldServeSummaryWithoutLoadingItems() {
+        // Given
+        when(cartSummaryRepository.findById(1L)).thenReturn(Optional.of(CartSummary.builder()
+                .userId(1L).itemCount(2).totalQuantity(3).totalPriceCents(289997).version(7L).build()));
+
+        // When
+        CartSummaryResponse response = cartService.getCartSummary(1L);
+
+        // Then
+        assertEquals(2, response.getItemCount());
+        assertEquals(3, response.getTotalItems());
+        assertEquals(289997, response.getTotalPriceCents());
+        assertEquals(7L, response.getVersion());
+        verifyNoInteractions(cartItemRepository);
+    }
+
+    @Test
+    void shouldReturnEmptySummaryForUserWithoutCart() {
+        when(cartSummaryRepository.findById(1L)).thenReturn(Optional.empty());
+
+        CartSummaryResponse response = cartService.getCartSummary(1L);
+
+        assertEquals(0, response.getTotalItems());
+        assertEquals(0L, response.getVersion());
     }
 
     @Test
@@ -161,7 +310,7 @@ class CartServiceTest {
                 .userId(1L)
                 .productId(5L)
                 .productTitle("iPhone 15")
-                .productPrice(999.99)
+                .productPriceCents(99999)
                 .quantity(2)
                 .addedAt(LocalDateTime.now())
                 .build();
@@ -171,7 +320,7 @@ class CartServiceTest {
                 .userId(1L)
                 .productId(12L)
                 .productTitle("Samsung S24")
-                .productPrice(899.99)
+                .productPriceCents(89999)
                 .quantity(1)
                 .addedAt(LocalDateTime.now())
                 .build();
@@ -186,17 +335,35 @@ class CartServiceTest {
         assertEquals(1L, response.getUserId());
         assertEquals(2, response.getItems().size());
         assertEquals(3, response.getTotalItems()); // 2 + 1 = 3
-        assertEquals(2899.97, response.getTotalPrice(), 0.01); // 1999.98 + 899.99
+        assertEquals(289997, response.getTotalPriceCents()); // 1999.98 + 899.99
 
         CartItemResponse firstItem = response.getItems().get(0);
-        assertEquals(1999.98, firstItem.getSubtotal(), 0.01);
+        assertEquals(199998, firstItem.getSubtotalCents());
 
         CartItemResponse secondItem = response.getItems().get(1);
-        assertEquals(899.99, secondItem.getSubtotal(), 0.01);
+        assertEquals(89999, secondItem.getSubtotalCents());
 
         verify(cartItemRepository).findByUserId(1L);
     }
 
+    @Test
+    void shouldTotalCartWithoutFloatingPointDrift() {
+        // Given: 0.1 + 0.2 is 0.30000000000000004 in double arithmetic
+        when(productService.getProductPrice(7L)).thenReturn(new ProductPrice(7L, "Gum", 10L, false));
+        when(cartItemRepository.findByUserId(1L)).thenReturn(List.of(
+                CartItem.builder().id(1L).userId(1L).productId(7L).productPriceCents(10).quantity(1).build(),
+                CartItem.builder().id(2L).userId(1L).productId(8L).productPriceCents(20).quantity(1).build()));
+        when(cartItemRepository.upsert(1L, 7L, "Gum", 10L, false, 1))
+                .thenReturn(CartItem.builder().productId(7L).productPriceCents(10).quantity(1).build());
+
+        // When
+        cartService.addToCart(1L, AddToCartRequest.builder().productId(7L).quantity(1).build());
+        CartResponse response = cartService.getUserCart(1L);
+
+        // Then
+        assertEquals(30, response.getTotalPriceCents());
+    }
+
     @Test
     void shouldReturnEmptyCartWhenUserHasNoItems() {
         // Given
@@ -210,7 +377,7 @@ class CartServiceTest {
         assertEquals(1L, response.getUserId());
         assertTrue(response.getItems().isEmpty());
         assertEquals(0, response.getTotalItems());
-        assertEquals(0.0, response.getTotalPrice());
+        assertEquals(0, response.getTotalPriceCents());
 
         verify(cartItemRepository).findByUserId(1L);
     }
@@ -225,5 +392,6 @@ class CartServiceTest {
 
         // Then
         verify(cartItemRepository).deleteByUserId(1L);
+        verify(cartSummaryRepository).recompute(1L);
     }
 }
\ No newline at end of file
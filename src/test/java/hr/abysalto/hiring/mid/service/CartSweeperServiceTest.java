@@ -0,0 +1,265 @@
+package hr.abysalto.hiring.mid.service;
+
+import hr.abysalto.hiring.mid.components.DatabaseInitializer;
+import hr.abysalto.hiring.mid.components.WriteBehindCartStore;
+import hr.abysalto.hiring.mid.configuration.CartSweeperSettings;
+import hr.abysalto.hiring.mid.configuration.CartWriteBehindSettings;
+import hr.abysalto.hiring.mid.domain.CartItem;
+import hr.abysalto.hiring.mid.repository.CartItemRepository;
+import hr.abysalto.hiring.mid.repository.CartSummaryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class CartSweeperServiceTest {
+
+    private static final Timestamp LONG_AGO = Timestamp.valueOf(LocalDateTime.now().minusDays(60));
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private CartSummaryRepository cartSummaryRepository;
+
+    @Autowired
+    private WriteBehindCartStore writeBehindCartStore;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DatabaseInitializer databaseInitializer;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CartSweeperSettings settings = new CartSweeperSettings();
+
+    private CartSweeperService cartSweeperService;
+
+    @BeforeEach
+    void setUp() {
+        databaseInitializer.initialize();
+
+        settings.setRetention(Duration.ofDays(30));
+        settings.setChunkSize(3);
+        settings.setMaxRowsPerSecond(1_000_000);
+        cartSweeperService = new CartSweeperService(settings, cartItemRepository, cartSummaryRepository,
+                writeBehindCartStore, transactionTemplate, meterRegistry);
+    }
+
+    @Test
+    void shouldDeleteOnlyCartsWithoutRecentLines() {
+        Long abandoned = createUser();
+        addLine(abandoned, 1L, LONG_AGO);
+        addLine(abandoned, 2L, LONG_AGO);
+        cartSummaryRepository.recompute(abandoned);
+        Long returning = createUser();
+        addLine(returning, 1L, LONG_AGO);
+        addLine(returning, 2L, new Timestamp(System.currentTimeMillis()));
+
+        CartSweeperService.Result result = cartSweeperService.sweep();
+
+        assertEquals(0, lineCount(abandoned));
+        assertEquals(2, lineCount(returning));
+        assertEquals(0, cartService.getCartSummary(abandoned).getItemCount());
+        assertEquals(2L, cartService.getCartSummary(abandoned).getVersion());
+        assertTrue(result.rowsScanned() >= 4);
+        assertTrue(result.rowsDeleted() >= 2);
+        assertEquals(result.rowsDeleted(), meterRegistry.get("cart.sweeper.rows").tag("result", "deleted").counter().count());
+        assertEquals(result.rowsScanned(), meterRegistry.get("cart.sweeper.rows").tag("result", "scanned").counter().count());
+    }
+
+    @Test
+    void shouldKeepCartsWhoseOldLinesWereChangedRecently() {
+        Long incremented = createUser();
+        addLine(incremented, 1L, LONG_AGO);
+        Long batched = createUser();
+        addLine(batched, 1L, LONG_AGO);
+
+        cartItemRepository.upsert(incremented, 1L, null, 1000, false, 1);
+        cartItemRepository.upsertAll(List.of(CartItem.builder()
+                .userId(batched).productId(1L).productPriceCents(1000).quantity(1).build()));
+        cartSweeperService.sweep();
+
+        assertEquals(1, lineCount(incremented));
+        assertEquals(1, lineCount(batched));
+        assertTrue(jdbcTemplate.queryForObject("SELECT ADDED_AT FROM CART_ITEMS WHERE USER_ID = ?", Timestamp.class, incremented)
+                .before(Timestamp.valueOf(LocalDateTime.now().minusDays(30))));
+    }
+
+    @Test
+    void shouldWriteBackCartLoadedIntoMemoryDuringTheSweep(@TempDir Path logDirectory) {
+        Long racing = createUser();
+        addLine(racing, 1L, LONG_AGO);
+        addLine(racing, 2L, LONG_AGO);
+        cartSummaryRepository.recompute(racing);
+
+        CartWriteBehindSettings writeBehind = new CartWriteBehindSettings();
+        writeBehind.setEnabled(true);
+        writeBehind.setLogDirectory(logDirectory);
+        // the cart is loaded right after the scan saw it as cold
+        WriteBehindCartStore store = new WriteBehindCartStore(writeBehind, cartItemRepository, cartSummaryRepository, transactionManager) {
+            @Override
+            public boolean isHot(Long userId) {
+                if (userId.equals(racing)) {
+                    items(userId);
+                }
+                return false;
+            }
+        };
+        try {
+            new CartSweeperService(settings, cartItemRepository, cartSummaryRepository, store, transactionTemplate, meterRegistry)
+                    .sweep();
+            assertEquals(0, lineCount(racing));
+
+            store.flush();
+
+            assertEquals(2, lineCount(racing));
+            assertEquals(2, store.items(racing).size());
+        } finally {
+            store.shutdown();
+        }
+    }
+
+    @Test
+    void shouldCountOnlyCartsActuallyDeleted() {
+        Long abandoned = createUser();
+        addLine(abandoned, 1L, LONG_AGO);
+        Long returning = createUser();
+        addLine(returning, 1L, LONG_AGO);
+
+        // the user adds a line between the scan and the delete
+        WriteBehindCartStore store = new WriteBehindCartStore(new CartWriteBehindSettings(), cartItemRepository,
+                cartSummaryRepository, transactionManager) {
+            @Override
+            public boolean isHot(Long userId) {
+                if (userId.equals(returning)) {
+                    addLine(returning, 2L, new Timestamp(System.currentTimeMillis()));
+                }
+                return false;
+            }
+        };
+        // abandoned carts left by other tests are swept as well
+        int idleCarts = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM (SELECT USER_ID FROM CART_ITEMS GROUP BY USER_ID HAVING MAX(UPDATED_AT) < ?)
+                """, Integer.class, Timestamp.valueOf(LocalDateTime.now().minusDays(30)));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new CartSweeperService(settings, cartItemRepository, cartSummaryRepository, store, transactionTemplate, registry)
+                .sweep();
+
+        assertEquals(0, lineCount(abandoned));
+        assertEquals(2, lineCount(returning));
+        List<Long> remaining = cartItemRepository.findUsersWithLines(List.of(abandoned, returning));
+        assertEquals(List.of(returning), remaining);
+        assertEquals(idleCarts - 1, registry.get("cart.sweeper.carts").counter().count());
+    }
+
+    @Test
+    void requestLatencyShouldStayFlatWhileSweeping() throws Exception {
+        int users = 2_000;
+        int linesPerUser = 10;
+        List<Long> userIds = createUsers(users);
+        List<Object[]> rows = new ArrayList<>();
+        for (Long userId : userIds) {
+            for (int line = 1; line <= linesPerUser; line++) {
+                rows.add(new Object[]{userId, (long) line, 1000L * line, LONG_AGO, LONG_AGO});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO CART_ITEMS (USER_ID, PRODUCT_ID, PRODUCT_PRICE_CENTS, ADDED_AT, UPDATED_AT) VALUES (?, ?, ?, ?, ?)", rows);
+
+        Long active = createUser();
+        for (long productId = 1; productId <= 5; productId++) {
+            addLine(active, productId, new Timestamp(System.currentTimeMillis()));
+        }
+
+        for (int i = 0; i < 500; i++) {
+            cartService.getUserCart(active);
+        }
+        long[] baseline = measure(active, 300);
+
+        settings.setChunkSize(500);
+        settings.setMaxRowsPerSecond(10_000);
+        CompletableFuture<CartSweeperService.Result> sweep = CompletableFuture.supplyAsync(cartSweeperService::sweep);
+        List<Long> during = new ArrayList<>();
+        while (!sweep.isDone()) {
+            long started = System.nanoTime();
+            cartService.getUserCart(active);
+            during.add(System.nanoTime() - started);
+        }
+        CartSweeperService.Result result = sweep.get(60, TimeUnit.SECONDS);
+
+        assertTrue(result.rowsDeleted() >= (long) users * linesPerUser);
+        assertEquals(5, lineCount(active));
+        long baselineMedian = percentile(baseline, 50);
+        long duringMedian = percentile(during.stream().mapToLong(Long::longValue).toArray(), 50);
+        assertTrue(duringMedian <= baselineMedian * 3 + TimeUnit.MILLISECONDS.toNanos(2),
+                "median " + duringMedian + " ns while sweeping vs " + baselineMedian + " ns before");
+    }
+
+    private long[] measure(Long userId, int calls) {
+        long[] latencies = new long[calls];
+        for (int i = 0; i < calls; i++) {
+            long started = System.nanoTime();
+            cartService.getUserCart(userId);
+            latencies[i] = System.nanoTime() - started;
+        }
+        return latencies;
+    }
+
+    private static long percentile(long[] latencies, int percentile) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, sorted.length * percentile / 100)];
+    }
+
+    private List<Long> createUsers(int count) {
+        String prefix = "sweep" + UUID.randomUUID().toString().substring(0, 8) + "-";
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(new Object[]{prefix + i, prefix + i + "@example.com"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO USERS (USERNAME, PASSWORD, EMAIL) VALUES (?, 'x', ?)", users);
+        return jdbcTemplate.queryForList("SELECT ID FROM USERS WHERE USERNAME LIKE ? ORDER BY ID", Long.class, prefix + "%");
+    }
+
+    private Long createUser() {
+        return createUsers(1).get(0);
+    }
+
+    private void addLine(Long userId, long productId, Timestamp addedAt) {
+        jdbcTemplate.update("INSERT INTO CART_ITEMS (USER_ID, PRODUCT_ID, PRODUCT_PRICE_CENTS, ADDED_AT, UPDATED_AT) VALUES (?, ?, 1000, ?, ?)",
+                userId, productId, addedAt, addedAt);
+    }
+
+    private int lineCount(Long userId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM CART_ITEMS WHERE USER_ID = ?", Integer.class, userId);
+    }
+}
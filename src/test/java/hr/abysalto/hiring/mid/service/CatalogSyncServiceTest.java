@@ -0,0 +1,104 @@
+package hr.abysalto.hiring.mid.service;
+
+import hr.abysalto.hiring.mid.client.DummyJsonClient;
+import hr.abysalto.hiring.mid.components.CatalogReplica;
+import hr.abysalto.hiring.mid.components.ProductPayloadDecoder;
+import hr.abysalto.hiring.mid.domain.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogSyncServiceTest {
+
+    @Mock
+    private DummyJsonClient dummyJsonClient;
+
+    private CatalogReplica catalogReplica;
+
+    private CatalogSyncService catalogSyncService;
+
+    @BeforeEach
+    void setUp() {
+        catalogReplica = new CatalogReplica(event -> {
+        });
+        catalogSyncService = new CatalogSyncService(catalogReplica, new ProductPayloadDecoder(), dummyJsonClient);
+        ReflectionTestUtils.setField(catalogSyncService, "chunkSize", 2);
+    }
+
+    @Test
+    void shouldSyncWholeCatalogInChunks() {
+        stubChunk(0, 3, product(1, "Phone", 500), product(2, "Laptop", 1500));
+        stubChunk(2, 3, product(3, "Watch", 200));
+
+        catalogSyncService.fullSync();
+
+        assertTrue(catalogReplica.isReady());
+        assertEquals(3, catalogReplica.size());
+        assertEquals("Watch", catalogReplica.findById(3L).orElseThrow().getTitle());
+        verify(dummyJsonClient, times(2)).get(eq("sync"), anyString(), any());
+    }
+
+    @Test
+    void shouldSortAndPageLocally() {
+        stubChunk(0, 3, product(1, "Phone", 500), product(2, "Laptop", 1500));
+        stubChunk(2, 3, product(3, "Watch", 200));
+        catalogSyncService.fullSync();
+
+        CatalogReplica.CatalogPage byPriceDesc = catalogReplica.page(2, 0, "price", "desc");
+        assertEquals(List.of(2L, 1L), byPriceDesc.products().stream().map(Product::getId).toList());
+        assertEquals(3, byPriceDesc.total());
+
+        CatalogReplica.CatalogPage secondPage = catalogReplica.page(2, 2, null, "asc");
+        assertEquals(List.of(3L), secondPage.products().stream().map(Product::getId).toList());
+
+        CatalogReplica.CatalogPage pastEnd = catalogReplica.page(10, 50, "title", "asc");
+        assertTrue(pastEnd.products().isEmpty());
+    }
+
+    @Test
+    void shouldApplyIncrementalChangesAndPruneRemovedProducts() {
+        stubChunk(0, 3, product(1, "Phone", 500), product(2, "Laptop", 1500));
+        stubChunk(2, 3, product(3, "Watch", 200));
+        catalogSyncService.fullSync();
+
+        stubChunk(0, 2, product(1, "Phone", 450), product(2, "Laptop", 1500));
+        catalogSyncService.refresh();
+
+        assertEquals(450.0, catalogReplica.findById(1L).orElseThrow().getPrice());
+        assertTrue(catalogReplica.findById(3L).isEmpty());
+        assertEquals(2, catalogReplica.size());
+    }
+
+    @Test
+    void shouldStayNotReadyWhenUpstreamFails() {
+        when(dummyJsonClient.get(eq("sync"), anyString(), any()))
+                .thenThrow(new RuntimeException("API Error"));
+
+        catalogSyncService.refresh();
+
+        assertFalse(catalogReplica.isReady());
+    }
+
+    private void stubChunk(int skip, int total, String... products) {
+        String body = String.format("{\"products\":[%s],\"total\":%d,\"skip\":%d,\"limit\":2}",
+                String.join(",", products), total, skip);
+        when(dummyJsonClient.get(eq("sync"), endsWith("limit=2&skip=" + skip), any()))
+                .thenAnswer(invocation -> invocation.<DummyJsonClient.BodyReader<?>>getArgument(2)
+                        .read(new ByteArrayInputStream(body.getBytes())));
+    }
+
+    private String product(long id, String title, double price) {
+        return String.format("{\"id\":%d,\"title\":\"%s\",\"price\":%s,\"tags\":[\"tag\"],\"reviews\":[{\"rating\":5,\"comment\":\"Great\"}],\"meta\":{\"barcode\":\"123\"}}", id, title, price);
+    }
+}
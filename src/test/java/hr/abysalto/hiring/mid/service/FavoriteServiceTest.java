@@ -1,5 +1,6 @@
 package hr.abysalto.hiring.mid.service;
 
+import hr.abysalto.hiring.mid.components.FavoritesIndex;
 import hr.abysalto.hiring.mid.domain.Favorite;
 import hr.abysalto.hiring.mid.repository.FavoriteRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -23,6 +24,9 @@ class FavoriteServiceTest {
     @Mock
     private FavoriteRepository favoriteRepository;
 
+    @Mock
+    private FavoritesIndex favoritesIndex;
+
     @InjectMocks
     private FavoriteService favoriteService;
 
@@ -50,6 +54,7 @@ class FavoriteServiceTest {
         // Then
         verify(favoriteRepository).existsByUserIdAndProductId(1L, 5L);
         verify(favoriteRepository).save(any(Favorite.class));
+        verify(favoritesIndex).added(1L, 5L);
     }
 
     @Test
@@ -65,6 +70,7 @@ class FavoriteServiceTest {
         assertEquals("Product already in favorites", exception.getMessage());
         verify(favoriteRepository).existsByUserIdAndProductId(1L, 5L);
         verify(favoriteRepository, never()).save(any(Favorite.class));
+        verifyNoInteractions(favoritesIndex);
     }
 
     @Test
@@ -79,6 +85,7 @@ class FavoriteServiceTest {
         // Then
         verify(favoriteRepository).existsByUserIdAndProductId(1L, 5L);
         verify(favoriteRepository).deleteByUserIdAndProductId(1L, 5L);
+        verify(favoritesIndex).removed(1L, 5L);
     }
 
     @Test
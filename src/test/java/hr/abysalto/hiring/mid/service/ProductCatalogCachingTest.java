@@ -0,0 +1,194 @@
+package hr.abysalto.hiring.mid.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import hr.abysalto.hiring.mid.client.DummyJsonClient;
+import hr.abysalto.hiring.mid.components.CatalogChangedEvent;
+import hr.abysalto.hiring.mid.components.CatalogReplica;
+import hr.abysalto.hiring.mid.components.FanOutExecutor;
+import hr.abysalto.hiring.mid.components.FavoritesIndex;
+import hr.abysalto.hiring.mid.components.ProductPayloadDecoder;
+import hr.abysalto.hiring.mid.components.ProductSearchIndex;
+import hr.abysalto.hiring.mid.components.RequestCoalescer;
+import hr.abysalto.hiring.mid.configuration.CacheConfig;
+import hr.abysalto.hiring.mid.configuration.FavoritesConfig;
+import hr.abysalto.hiring.mid.domain.Product;
+import hr.abysalto.hiring.mid.domain.ProductPrice;
+import hr.abysalto.hiring.mid.dto.response.ProductListResponse;
+import hr.abysalto.hiring.mid.dto.response.ProductResponse;
+import hr.abysalto.hiring.mid.repository.FavoriteRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig
+@Import({CacheConfig.class, FavoritesConfig.class, ProductService.class, ProductCatalogService.class, ProductPayloadDecoder.class,
+        FavoriteService.class, FavoritesIndex.class, SimpleMeterRegistry.class})
+class ProductCatalogCachingTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private FavoriteService favoriteService;
+
+    @Autowired
+    private ProductCatalogService productCatalogService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockBean
+    private FavoriteRepository favoriteRepository;
+
+    @MockBean
+    private CatalogReplica catalogReplica;
+
+    @MockBean
+    private ProductSearchIndex productSearchIndex;
+
+    @MockBean
+    private RequestCoalescer requestCoalescer;
+
+    @MockBean
+    private DummyJsonClient dummyJsonClient;
+
+    @MockBean
+    private FanOutExecutor fanOutExecutor;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+
+        Product product = Product.builder().id(1L).title("iPhone 9").price(549.0).build();
+        when(catalogReplica.isReady()).thenReturn(true);
+        when(catalogReplica.page(10, 0, null, "asc")).thenReturn(new CatalogReplica.CatalogPage(List.of(product), 1));
+        when(catalogReplica.findById(1L)).thenReturn(Optional.of(product));
+    }
+
+    @Test
+    void shouldCacheCatalogPageOnceForAllUsers() {
+        for (long userId = 1; userId <= 50; userId++) {
+            productService.getAllProducts(10, 0, null, "asc", userId);
+            productService.getProductById(1L, userId);
+        }
+
+        assertEquals(1L, nativeSize("products"));
+        assertEquals(1L, nativeSize("product"));
+        verify(catalogReplica, times(1)).page(10, 0, null, "asc");
+        verify(catalogReplica, times(1)).findById(1L);
+    }
+
+    @Test
+    void shouldReflectNewFavoriteWithoutEvictingCache() {
+        when(favoriteRepository.findProductIdsByUserId(7L)).thenReturn(List.of());
+        assertFalse(productService.getAllProducts(10, 0, null, "asc", 7L).getProducts().get(0).getIsFavorite());
+
+        favoriteService.addToFavorites(7L, 1L);
+        assertTrue(productService.getAllProducts(10, 0, null, "asc", 7L).getProducts().get(0).getIsFavorite());
+        assertFalse(productService.getAllProducts(10, 0, null, "asc", 8L).getProducts().get(0).getIsFavorite());
+    }
+
+    @Test
+    void priceLookupShouldSkipFavoritesAndCacheOneCompactEntry() {
+        for (long userId = 1; userId <= 50; userId++) {
+            ProductPrice price = productService.getProductPrice(1L);
+            assertEquals(54900L, price.priceCents());
+            assertSame("iPhone 9".intern(), price.title());
+        }
+
+        assertEquals(1L, nativeSize("productPrice"));
+        assertEquals(0L, nativeSize("product"));
+        verify(catalogReplica, times(1)).findById(1L);
+        verifyNoInteractions(favoriteRepository);
+    }
+
+    @Test
+    void priceLookupShouldReuseCachedProductWhileReplicaIsNotReady() {
+        when(catalogReplica.isReady()).thenReturn(false);
+        cacheManager.getCache("product").put(2L, ProductResponse.builder().id(2L).title("Laptop").price(1299.99).stock(0).build());
+
+        ProductPrice price = productService.getProductPrice(2L);
+
+        assertEquals(new ProductPrice(2L, "Laptop", 129999L, true), price);
+        assertEquals(Optional.of(price), productService.getProductPrices(List.of(2L)).found().values().stream().findFirst());
+        verifyNoInteractions(requestCoalescer, dummyJsonClient, fanOutExecutor);
+    }
+
+    @Test
+    void priceLookupShouldFollowCatalogChanges() {
+        assertEquals(54900L, productService.getProductPrice(1L).priceCents());
+
+        Product repriced = Product.builder().id(1L).title("iPhone 9").price(499.0).stock(0).build();
+        when(catalogReplica.findById(1L)).thenReturn(Optional.of(repriced));
+
+        assertEquals(new ProductPrice(1L, "iPhone 9", 49900L, true),
+                productService.getProductPrices(List.of(1L)).found().get(1L));
+        productCatalogService.onCatalogChanged(new CatalogChangedEvent(List.of(repriced), List.of()));
+        assertEquals(49900L, productService.getProductPrice(1L).priceCents());
+    }
+
+    @Test
+    void cachedProductsShouldFollowCatalogChangesAndRemovals() {
+        assertEquals(549.0, productCatalogService.getProduct(1L).getPrice());
+
+        Product repriced = Product.builder().id(1L).title("iPhone 9").price(499.0).build();
+        when(catalogReplica.findById(1L)).thenReturn(Optional.of(repriced));
+        productCatalogService.onCatalogChanged(new CatalogChangedEvent(List.of(repriced), List.of()));
+
+        assertEquals(499.0, productCatalogService.getProduct(1L).getPrice());
+
+        when(catalogReplica.findById(1L)).thenReturn(Optional.empty());
+        productCatalogService.onCatalogChanged(new CatalogChangedEvent(List.of(), List.of(1L)));
+
+        assertThrows(ProductNotFoundException.class, () -> productCatalogService.getProduct(1L));
+    }
+
+    @Test
+    void cachedPagesShouldFollowCatalogChanges() {
+        assertEquals(549.0, productCatalogService.getProducts(10, 0, null, "asc").getProducts().get(0).getPrice());
+
+        Product repriced = Product.builder().id(1L).title("iPhone 9").price(499.0).build();
+        Product added = Product.builder().id(2L).title("iPhone X").price(899.0).build();
+        when(catalogReplica.page(10, 0, null, "asc")).thenReturn(new CatalogReplica.CatalogPage(List.of(repriced, added), 2));
+
+        assertEquals(549.0, productCatalogService.getProducts(10, 0, null, "asc").getProducts().get(0).getPrice());
+
+        productCatalogService.onCatalogChanged(new CatalogChangedEvent(List.of(repriced, added), List.of()));
+
+        ProductListResponse page = productCatalogService.getProducts(10, 0, null, "asc");
+        assertEquals(2, page.getTotal().intValue());
+        assertEquals(List.of(499.0, 899.0), page.getProducts().stream().map(ProductResponse::getPrice).toList());
+    }
+
+    @Test
+    void currentPricesShouldBypassThePriceCache() {
+        when(catalogReplica.isReady()).thenReturn(false);
+        cacheManager.getCache("productPrice").put(2L, new ProductPrice(2L, "Laptop", 129999L, false));
+        when(requestCoalescer.execute(eq("product"), eq("/products/2"), any())).thenThrow(new ProductNotFoundException(2L));
+        when(fanOutExecutor.submit(any())).thenAnswer(invocation -> CompletableFuture.supplyAsync(invocation.<Supplier<?>>getArgument(0)));
+
+        ProductService.Lookup<ProductPrice> current = productService.getCurrentProductPrices(List.of(2L));
+
+        assertTrue(current.found().isEmpty());
+        assertEquals(List.of(2L), current.missingIds());
+    }
+
+    private long nativeSize(String cacheName) {
+        return ((Cache<?, ?>) cacheManager.getCache(cacheName).getNativeCache()).estimatedSize();
+    }
+}
@@ -0,0 +1,224 @@
+package hr.abysalto.hiring.mid.service;
+
+import hr.abysalto.hiring.mid.client.DummyJsonClient;
+import hr.abysalto.hiring.mid.client.DummyJsonClientException;
+import hr.abysalto.hiring.mid.components.CatalogReplica;
+import hr.abysalto.hiring.mid.components.ProductPayloadDecoder;
+import hr.abysalto.hiring.mid.components.ProductSearchIndex;
+import hr.abysalto.hiring.mid.components.RequestCoalescer;
+import hr.abysalto.hiring.mid.domain.Product;
+import hr.abysalto.hiring.mid.dto.response.ProductListResponse;
+import hr.abysalto.hiring.mid.dto.response.ProductResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCatalogServiceTest {
+
+    @Mock
+    private DummyJsonClient dummyJsonClient;
+
+    @Mock
+    private CatalogReplica catalogReplica;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Spy
+    private RequestCoalescer requestCoalescer = new RequestCoalescer(new SimpleMeterRegistry());
+
+    @Spy
+    private ProductPayloadDecoder productPayloadDecoder;
+
+    @InjectMocks
+    private ProductCatalogService productCatalogService;
+
+    private String mockDummyJsonResponse;
+
+    @BeforeEach
+    void setUp() {
+        mockDummyJsonResponse = """
+                {
+                  "products": [
+                    {
+                      "id": 1,
+                      "title": "iPhone 9",
+                      "description": "An apple mobile",
+                      "price": 549,
+                      "discountPercentage": 12.96,
+                      "rating": 4.69,
+                      "stock": 94,
+                      "brand": "Apple",
+                      "category": "smartphones",
+                      "thumbnail": "https://example.com/thumb.jpg",
+                      "images": ["https://example.com/1.jpg"]
+                    }
+                  ],
+                  "total": 194,
+                  "skip": 0,
+                  "limit": 10
+                }
+                """;
+    }
+
+    @Test
+    void shouldGetProductsFromUpstreamWhenReplicaNotReady() {
+        stubUpstream(mockDummyJsonResponse);
+
+        ProductListResponse response = productCatalogService.getProducts(10, 0, null, "asc");
+
+        assertNotNull(response);
+        assertEquals(1, response.getProducts().size());
+        assertEquals(194, response.getTotal());
+        assertFalse(response.getProducts().get(0).getIsFavorite());
+        verify(dummyJsonClient).get(eq("products"), eq("/products?limit=10&skip=0"), any());
+    }
+
+    @Test
+    void shouldPassSortingToUpstream() {
+        stubUpstream(mockDummyJsonResponse);
+
+        productCatalogService.getProducts(10, 0, "price", "desc");
+
+        verify(dummyJsonClient).get(eq("products"), argThat((String url) ->
+                url != null && url.contains("sortBy=price") && url.contains("order=desc")
+        ), any());
+    }
+
+    @Test
+    void shouldGetSingleProductFromUpstream() {
+        String singleProductResponse = """
+                {
+                  "id": 5,
+                  "title": "Huawei P30",
+                  "price": 499,
+                  "description": "Huawei phone",
+                  "discountPercentage": 10.5,
+                  "rating": 4.5,
+                  "stock": 50,
+                  "brand": "Huawei",
+                  "category": "smartphones",
+                  "thumbnail": "https://example.com/thumb.jpg",
+                  "images": ["https://example.com/1.jpg"]
+                }
+                """;
+        stubUpstream(singleProductResponse);
+
+        ProductResponse product = productCatalogService.getProduct(5L);
+
+        assertEquals(5L, product.getId());
+        assertEquals("Huawei P30", product.getTitle());
+        verify(dummyJsonClient).get(eq("product"), eq("/products/5"), any());
+    }
+
+    @Test
+    void shouldSearchUpstreamWhenReplicaNotReady() {
+        stubUpstream(mockDummyJsonResponse);
+
+        ProductListResponse response = productCatalogService.searchProducts("phone");
+
+        assertEquals(1, response.getProducts().size());
+        verify(dummyJsonClient).get(eq("search"), eq("/products/search?q=phone"), any());
+    }
+
+    @Test
+    void shouldThrowExceptionWhenDummyJsonFails() {
+        when(dummyJsonClient.get(anyString(), anyString(), any()))
+                .thenThrow(new RuntimeException("API Error"));
+
+        assertThrows(RuntimeException.class, () -> productCatalogService.getProducts(10, 0, null, "asc"));
+    }
+
+    @Test
+    void shouldServeProductsFromReplicaWhenReady() {
+        Product product = Product.builder().id(3L).title("Replica product").price(10.0).build();
+        when(catalogReplica.isReady()).thenReturn(true);
+        when(catalogReplica.page(10, 0, "price", "desc"))
+                .thenReturn(new CatalogReplica.CatalogPage(List.of(product), 194));
+
+        ProductListResponse response = productCatalogService.getProducts(10, 0, "price", "desc");
+
+        assertEquals(1, response.getProducts().size());
+        assertEquals(194, response.getTotal());
+        assertEquals(1, response.getLimit());
+        verifyNoInteractions(dummyJsonClient);
+    }
+
+    @Test
+    void shouldServeSingleProductFromReplicaWhenReady() {
+        Product product = Product.builder().id(5L).title("Huawei P30").price(499.0).build();
+        when(catalogReplica.isReady()).thenReturn(true);
+        when(catalogReplica.findById(5L)).thenReturn(Optional.of(product));
+
+        ProductResponse response = productCatalogService.getProduct(5L);
+
+        assertEquals("Huawei P30", response.getTitle());
+        verifyNoInteractions(dummyJsonClient);
+    }
+
+    @Test
+    void shouldSearchFromIndexWhenReplicaReady() {
+        Product product = Product.builder().id(7L).title("Phone case").price(9.99).build();
+        when(catalogReplica.isReady()).thenReturn(true);
+        when(productSearchIndex.search("phone")).thenReturn(List.of(product));
+
+        ProductListResponse response = productCatalogService.searchProducts("phone");
+
+        assertEquals(1, response.getTotal());
+        assertEquals("Phone case", response.getProducts().get(0).getTitle());
+        verifyNoInteractions(dummyJsonClient);
+    }
+
+    @Test
+    void shouldReturnNoResultsForBlankQuery() {
+        ProductListResponse response = productCatalogService.searchProducts("  ");
+
+        assertTrue(response.getProducts().isEmpty());
+        assertEquals(0, response.getTotal());
+        verifyNoInteractions(productSearchIndex, dummyJsonClient);
+    }
+
+    @Test
+    void shouldReportUpstream404AsProductNotFound() {
+        when(dummyJsonClient.get(eq("product"), eq("/products/999"), any()))
+                .thenThrow(new DummyJsonClientException("DummyJSON responded 404", 404, null));
+
+        assertThrows(ProductNotFoundException.class, () -> productCatalogService.getProduct(999L));
+    }
+
+    @Test
+    void shouldFindProductLocallyInCacheWhenReplicaNotReady() {
+        ConcurrentMapCache productCache = new ConcurrentMapCache("product");
+        productCache.put(5L, ProductResponse.builder().id(5L).title("Cached").build());
+        when(cacheManager.getCache("product")).thenReturn(productCache);
+
+        assertEquals("Cached", productCatalogService.findLocally(5L).orElseThrow().getTitle());
+        assertTrue(productCatalogService.findLocally(6L).isEmpty());
+        verifyNoInteractions(dummyJsonClient);
+    }
+
+    private void stubUpstream(String body) {
+        when(dummyJsonClient.get(anyString(), anyString(), any()))
+                .thenAnswer(invocation -> invocation.<DummyJsonClient.BodyReader<?>>getArgument(2)
+                        .read(new ByteArrayInputStream(body.getBytes())));
+    }
+}
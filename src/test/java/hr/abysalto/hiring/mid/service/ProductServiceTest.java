@@ -1,22 +1,23 @@
 package hr.abysalto.hiring.mid.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import hr.abysalto.hiring.mid.domain.Favorite;
+import hr.abysalto.hiring.mid.components.FanOutExecutor;
+import hr.abysalto.hiring.mid.components.FavoritesIndex;
+import hr.abysalto.hiring.mid.configuration.FavoritesIndexSettings;
+import hr.abysalto.hiring.mid.dto.response.ProductBatchResponse;
 import hr.abysalto.hiring.mid.dto.response.ProductListResponse;
 import hr.abysalto.hiring.mid.dto.response.ProductResponse;
 import hr.abysalto.hiring.mid.repository.FavoriteRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.test.util.ReflectionTestUtils;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -29,203 +30,165 @@ class ProductServiceTest {
     private FavoriteRepository favoriteRepository;
 
     @Mock
-    private RestTemplate restTemplate;
+    private ProductCatalogService productCatalogService;
 
     @Spy
-    private ObjectMapper objectMapper;
+    private FanOutExecutor fanOutExecutor = new FanOutExecutor(4, new SimpleMeterRegistry());
 
-    @InjectMocks
     private ProductService productService;
 
-    private String mockDummyJsonResponse;
+    private ProductListResponse catalogPage;
 
     @BeforeEach
     void setUp() {
-        ReflectionTestUtils.setField(productService, "dummyJsonBaseUrl", "https://dummyjson.com");
-        ReflectionTestUtils.setField(productService, "restTemplate", restTemplate);
-
-        mockDummyJsonResponse = """
-                {
-                  "products": [
-                    {
-                      "id": 1,
-                      "title": "iPhone 9",
-                      "description": "An apple mobile",
-                      "price": 549,
-                      "discountPercentage": 12.96,
-                      "rating": 4.69,
-                      "stock": 94,
-                      "brand": "Apple",
-                      "category": "smartphones",
-                      "thumbnail": "https://example.com/thumb.jpg",
-                      "images": ["https://example.com/1.jpg"]
-                    }
-                  ],
-                  "total": 194,
-                  "skip": 0,
-                  "limit": 10
-                }
-                """;
+        FavoritesIndex favoritesIndex = new FavoritesIndex(new FavoritesIndexSettings(), favoriteRepository, new SimpleMeterRegistry());
+        productService = new ProductService(favoritesIndex, productCatalogService, fanOutExecutor);
+
+        catalogPage = ProductListResponse.builder()
+                .products(List.of(
+                        ProductResponse.builder().id(1L).title("Product 1").price(100.0).isFavorite(false).build(),
+                        ProductResponse.builder().id(2L).title("Product 2").price(200.0).isFavorite(false).build()))
+                .total(2)
+                .skip(0)
+                .limit(10)
+                .build();
     }
 
     @Test
     void shouldGetAllProductsSuccessfully() {
-        when(restTemplate.getForObject(anyString(), eq(String.class)))
-                .thenReturn(mockDummyJsonResponse);
-        when(favoriteRepository.findByUserId(1L)).thenReturn(Collections.emptyList());
+        when(productCatalogService.getProducts(10, 0, null, "asc")).thenReturn(catalogPage);
+        when(favoriteRepository.findProductIdsByUserId(1L)).thenReturn(Collections.emptyList());
 
         ProductListResponse response = productService.getAllProducts(10, 0, null, "asc", 1L);
 
         assertNotNull(response);
-        assertEquals(1, response.getProducts().size());
+        assertEquals(2, response.getProducts().size());
+        assertEquals(2, response.getTotal());
         assertFalse(response.getProducts().get(0).getIsFavorite());
-        verify(restTemplate).getForObject(contains("/products?limit=10&skip=0"), eq(String.class));
-        verify(favoriteRepository, times(1)).findByUserId(1L);
+        verify(favoriteRepository, times(1)).findProductIdsByUserId(1L);
     }
 
     @Test
-    void shouldGetAllProductsWithSorting() {
-        when(restTemplate.getForObject(anyString(), eq(String.class)))
-                .thenReturn(mockDummyJsonResponse);
-        when(favoriteRepository.findByUserId(1L)).thenReturn(Collections.emptyList());
+    void shouldHandleMultipleFavoritesCorrectly() {
+        when(productCatalogService.getProducts(10, 0, null, "asc")).thenReturn(catalogPage);
+        when(favoriteRepository.findProductIdsByUserId(1L)).thenReturn(List.of(2L));
 
-        productService.getAllProducts(10, 0, "price", "desc", 1L);
+        ProductListResponse response = productService.getAllProducts(10, 0, null, "asc", 1L);
 
-        verify(restTemplate).getForObject(argThat((String url) ->
-                url != null && url.contains("sortBy=price") && url.contains("order=desc")
-        ), eq(String.class));
+        assertFalse(response.getProducts().get(0).getIsFavorite());
+        assertTrue(response.getProducts().get(1).getIsFavorite());
+        verify(favoriteRepository, times(1)).findProductIdsByUserId(1L);
     }
 
     @Test
-    void shouldMarkProductAsFavoriteWhenUserHasFavorited() {
-        when(restTemplate.getForObject(anyString(), eq(String.class)))
-                .thenReturn(mockDummyJsonResponse);
-
-        Favorite favorite = new Favorite();
-        favorite.setUserId(1L);
-        favorite.setProductId(1L);
-        when(favoriteRepository.findByUserId(1L)).thenReturn(List.of(favorite));
+    void shouldNotModifySharedCatalogPage() {
+        when(productCatalogService.getProducts(10, 0, null, "asc")).thenReturn(catalogPage);
+        when(favoriteRepository.findProductIdsByUserId(1L)).thenReturn(List.of(1L));
 
         ProductListResponse response = productService.getAllProducts(10, 0, null, "asc", 1L);
 
         assertTrue(response.getProducts().get(0).getIsFavorite());
-        verify(favoriteRepository, times(1)).findByUserId(1L);
+        assertFalse(catalogPage.getProducts().get(0).getIsFavorite());
+    }
+
+    @Test
+    void shouldReturnSharedPageWhenNoneOfItsProductsIsFavorite() {
+        when(productCatalogService.getProducts(10, 0, null, "asc")).thenReturn(catalogPage);
+        when(favoriteRepository.findProductIdsByUserId(1L)).thenReturn(List.of(7L, 8L));
+
+        assertSame(catalogPage, productService.getAllProducts(10, 0, null, "asc", 1L));
+    }
+
+    @Test
+    void shouldLoadEachUsersFavoritesOnce() {
+        when(productCatalogService.getProducts(10, 0, null, "asc")).thenReturn(catalogPage);
+        when(productCatalogService.searchProducts("phone")).thenReturn(catalogPage);
+        when(productCatalogService.getProduct(2L)).thenReturn(catalogPage.getProducts().get(1));
+        when(favoriteRepository.findProductIdsByUserId(1L)).thenReturn(List.of(2L));
+
+        productService.getAllProducts(10, 0, null, "asc", 1L);
+        productService.searchProducts("phone", 1L);
+        ProductResponse product = productService.getProductById(2L, 1L);
+
+        assertTrue(product.getIsFavorite());
+        verify(favoriteRepository, times(1)).findProductIdsByUserId(1L);
+        verifyNoMoreInteractions(favoriteRepository);
     }
 
     @Test
     void shouldGetSingleProductById() {
-        String singleProductResponse = """
-                {
-                  "id": 5,
-                  "title": "Huawei P30",
-                  "price": 499,
-                  "description": "Huawei phone",
-                  "discountPercentage": 10.5,
-                  "rating": 4.5,
-                  "stock": 50,
-                  "brand": "Huawei",
-                  "category": "smartphones",
-                  "thumbnail": "https://example.com/thumb.jpg",
-                  "images": ["https://example.com/1.jpg"]
-                }
-                """;
-        when(restTemplate.getForObject(anyString(), eq(String.class))).thenReturn(singleProductResponse);
-        when(favoriteRepository.existsByUserIdAndProductId(1L, 5L)).thenReturn(false);
-
-        ProductResponse product = productService.getProductById(5L, 1L);
-
-        assertNotNull(product);
-        assertEquals(5L, product.getId());
-        assertEquals("Huawei P30", product.getTitle());
+        ProductResponse product = ProductResponse.builder().id(5L).title("Huawei P30").isFavorite(false).build();
+        when(productCatalogService.getProduct(5L)).thenReturn(product);
+        when(favoriteRepository.findProductIdsByUserId(1L)).thenReturn(List.of(5L));
+
+        ProductResponse response = productService.getProductById(5L, 1L);
+
+        assertEquals(5L, response.getId());
+        assertEquals("Huawei P30", response.getTitle());
+        assertTrue(response.getIsFavorite());
         assertFalse(product.getIsFavorite());
-        verify(restTemplate).getForObject(contains("/products/5"), eq(String.class));
     }
 
     @Test
     void shouldSearchProducts() {
-        when(restTemplate.getForObject(anyString(), eq(String.class))).thenReturn(mockDummyJsonResponse);
-        when(favoriteRepository.findByUserId(1L)).thenReturn(Collections.emptyList());
+        when(productCatalogService.searchProducts("phone")).thenReturn(catalogPage);
+        when(favoriteRepository.findProductIdsByUserId(1L)).thenReturn(Collections.emptyList());
 
         ProductListResponse response = productService.searchProducts("phone", 1L);
 
-        assertNotNull(response);
-        assertEquals(1, response.getProducts().size());
-        verify(restTemplate).getForObject(contains("/products/search?q=phone"), eq(String.class));
-        verify(favoriteRepository, times(1)).findByUserId(1L);
+        assertEquals(2, response.getProducts().size());
+        verify(favoriteRepository, times(1)).findProductIdsByUserId(1L);
     }
 
     @Test
     void shouldHandleNullUserIdGracefully() {
-        when(restTemplate.getForObject(anyString(), eq(String.class))).thenReturn(mockDummyJsonResponse);
+        when(productCatalogService.getProducts(10, 0, null, "asc")).thenReturn(catalogPage);
 
         ProductListResponse response = productService.getAllProducts(10, 0, null, "asc", null);
 
         assertNotNull(response);
-        verify(favoriteRepository, never()).findByUserId(any());
-        verify(favoriteRepository, never()).existsByUserIdAndProductId(any(), any());
+        verifyNoInteractions(favoriteRepository);
     }
 
     @Test
-    void shouldThrowExceptionWhenDummyJsonFails() {
-        when(restTemplate.getForObject(anyString(), eq(String.class)))
-                .thenThrow(new RuntimeException("API Error"));
+    void shouldPropagateCatalogFailures() {
+        when(productCatalogService.getProducts(10, 0, null, "asc"))
+                .thenThrow(new RuntimeException("Failed to fetch products from DummyJSON API"));
 
-        assertThrows(RuntimeException.class, () -> {
-            productService.getAllProducts(10, 0, null, "asc", 1L);
-        });
+        assertThrows(RuntimeException.class, () -> productService.getAllProducts(10, 0, null, "asc", 1L));
     }
 
     @Test
-    void shouldHandleMultipleFavoritesCorrectly() {
-        String multipleProductsResponse = """
-                {
-                  "products": [
-                    {
-                      "id": 1,
-                      "title": "Product 1",
-                      "description": "Description 1",
-                      "price": 100,
-                      "discountPercentage": 10,
-                      "rating": 4.5,
-                      "stock": 50,
-                      "brand": "Brand1",
-                      "category": "category1",
-                      "thumbnail": "thumb1.jpg",
-                      "images": ["img1.jpg"]
-                    },
-                    {
-                      "id": 2,
-                      "title": "Product 2",
-                      "description": "Description 2",
-                      "price": 200,
-                      "discountPercentage": 15,
-                      "rating": 4.8,
-                      "stock": 30,
-                      "brand": "Brand2",
-                      "category": "category2",
-                      "thumbnail": "thumb2.jpg",
-                      "images": ["img2.jpg"]
-                    }
-                  ],
-                  "total": 2,
-                  "skip": 0,
-                  "limit": 10
-                }
-                """;
-
-        when(restTemplate.getForObject(anyString(), eq(String.class)))
-                .thenReturn(multipleProductsResponse);
-
-        Favorite favorite = new Favorite();
-        favorite.setUserId(1L);
-        favorite.setProductId(2L);
-        when(favoriteRepository.findByUserId(1L)).thenReturn(List.of(favorite));
-
-        ProductListResponse response = productService.getAllProducts(10, 0, null, "asc", 1L);
-
-        assertEquals(2, response.getProducts().size());
+    void shouldResolveBatchInRequestedOrderWithOneFavoritesLookup() {
+        ProductResponse cached = ProductResponse.builder().id(3L).title("Cached").isFavorite(false).build();
+        ProductResponse fetched = ProductResponse.builder().id(1L).title("Fetched").isFavorite(false).build();
+        when(productCatalogService.findLocally(anyLong())).thenReturn(Optional.empty());
+        when(productCatalogService.findLocally(3L)).thenReturn(Optional.of(cached));
+        when(productCatalogService.getProduct(1L)).thenReturn(fetched);
+        when(productCatalogService.getProduct(99L)).thenThrow(new ProductNotFoundException(99L));
+        when(favoriteRepository.findProductIdsByUserId(1L)).thenReturn(List.of(1L));
+
+        ProductBatchResponse response = productService.getProductsByIds(List.of(3L, 99L, 1L, 3L), 1L);
+
+        assertEquals(List.of(3L, 1L), response.getProducts().stream().map(ProductResponse::getId).toList());
         assertFalse(response.getProducts().get(0).getIsFavorite());
         assertTrue(response.getProducts().get(1).getIsFavorite());
-        verify(favoriteRepository, times(1)).findByUserId(1L);
+        assertEquals(List.of(99L), response.getMissingIds());
+        assertTrue(response.getUnavailableIds().isEmpty());
+        verify(productCatalogService, never()).getProduct(3L);
+        verify(favoriteRepository, times(1)).findProductIdsByUserId(1L);
+    }
+
+    @Test
+    void shouldReportUpstreamFailuresSeparatelyFromMissingProducts() {
+        when(productCatalogService.findLocally(anyLong())).thenReturn(Optional.empty());
+        when(productCatalogService.getProduct(1L)).thenThrow(new RuntimeException("Failed to fetch product from DummyJSON API"));
+
+        ProductBatchResponse response = productService.getProductsByIds(List.of(1L), null);
+
+        assertTrue(response.getProducts().isEmpty());
+        assertTrue(response.getMissingIds().isEmpty());
+        assertEquals(List.of(1L), response.getUnavailableIds());
+        verifyNoInteractions(favoriteRepository);
     }
-}
\ No newline at end of file
+}
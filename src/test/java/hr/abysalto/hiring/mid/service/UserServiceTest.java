@@ -10,6 +10,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.LocalDateTime;
@@ -28,6 +29,9 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private UserService userService;
 
@@ -193,4 +197,30 @@ class UserServiceTest {
         assertEquals(user.getLastName(), response.getLastName());
         assertEquals(user.getCreatedAt(), response.getCreatedAt());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldChangePasswordAndPublishCredentialChange() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("password123", "$2a$10$hashedPassword")).thenReturn(true);
+        when(passwordEncoder.encode("newPassword1")).thenReturn("$2a$10$newHash");
+
+        userService.changePassword(1L, "password123", "newPassword1");
+
+        assertEquals("$2a$10$newHash", user.getPassword());
+        verify(userRepository).save(user);
+        verify(eventPublisher).publishEvent(new UserCredentialsChangedEvent(1L, "testuser"));
+    }
+
+    @Test
+    void shouldRejectPasswordChangeWithWrongCurrentPassword() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("wrongPassword", "$2a$10$hashedPassword")).thenReturn(false);
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> userService.changePassword(1L, "wrongPassword", "newPassword1"));
+
+        assertEquals("Invalid current password", exception.getMessage());
+        verify(userRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+    }
+}
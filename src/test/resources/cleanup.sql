@@ -1,5 +1,6 @@
 -- Cleanup script for integration tests
 DROP TABLE IF EXISTS CART_ITEMS;
+DROP TABLE IF EXISTS CART_SUMMARY;
 DROP TABLE IF EXISTS FAVORITES;
 DROP TABLE IF EXISTS USERS;
 DROP TABLE IF EXISTS BUYER;
\ No newline at end of file